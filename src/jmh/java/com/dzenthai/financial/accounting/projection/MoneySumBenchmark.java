@@ -0,0 +1,74 @@
+package com.dzenthai.financial.accounting.projection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MoneySumBenchmark {
+
+    @Param("1000000")
+    private int rows;
+
+    private List<BigDecimal> decimals;
+
+    private List<Money> money;
+
+    private long[] minorUnits;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        decimals = new ArrayList<>(rows);
+        money = new ArrayList<>(rows);
+        minorUnits = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            long amount = random.nextLong(1, 10_000_000);
+            decimals.add(BigDecimal.valueOf(amount, Money.SCALE));
+            money.add(Money.ofMinor(amount));
+            minorUnits[i] = amount;
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalStream() {
+        return decimals.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Benchmark
+    public Money moneyStream() {
+        return money.stream().reduce(Money.ZERO, Money::plus);
+    }
+
+    @Benchmark
+    public Money moneyLoop() {
+        Money total = Money.ZERO;
+        for (Money amount : money) {
+            total = total.plus(amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money minorUnitColumn() {
+        long total = 0;
+        for (long amount : minorUnits) {
+            total = Math.addExact(total, amount);
+        }
+        return Money.ofMinor(total);
+    }
+}
@@ -0,0 +1,160 @@
+package com.dzenthai.financial.accounting.repository;
+
+import com.dzenthai.financial.accounting.entity.enums.ExpenseCategory;
+import liquibase.command.CommandScope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CategoryTotalsBenchmark {
+
+    private static final long ACCOUNT_ID = 1;
+
+    private static final int ACCOUNTS = 4;
+
+    private static final String SEED_QUERY = """
+            INSERT INTO expenses (id, amount, account_id, category, note, datetime, limit_exceeded)
+            SELECT g,
+                   round((random() * 10000)::numeric, 2),
+                   1 + g %% %d,
+                   (ARRAY[%s])[1 + floor(random() * %d)::int],
+                   '-',
+                   now() - random() * interval '365 days',
+                   false
+            FROM generate_series(1, ?) g
+            """;
+
+    private static final String ROLLUP_QUERY = """
+            SELECT e.category AS category,
+                   SUM(e.amount) AS amount,
+                   COUNT(*) AS count,
+                   MIN(e.amount) AS minAmount,
+                   MAX(e.amount) AS maxAmount,
+                   GROUPING(e.category) = 1 AS total
+            FROM expenses e
+            WHERE e.account_id = ? AND e.datetime > ? AND e.amount IS NOT NULL
+            GROUP BY ROLLUP (e.category)
+            ORDER BY GROUPING(e.category), e.category
+            """;
+
+    private static final String ROWS_QUERY = """
+            SELECT e.id, e.amount, e.account_id, e.category, e.note, e.datetime, e.limit_exceeded
+            FROM expenses e
+            WHERE e.account_id = ? AND e.datetime > ?
+            """;
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    private PostgreSQLContainer<?> postgres;
+
+    private Connection connection;
+
+    private Timestamp since;
+
+    @Setup
+    public void setUp() throws Exception {
+        postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+                .withUsername("root")
+                .withPassword("123456");
+        postgres.start();
+        new CommandScope("update")
+                .addArgumentValue("url", postgres.getJdbcUrl())
+                .addArgumentValue("username", postgres.getUsername())
+                .addArgumentValue("password", postgres.getPassword())
+                .addArgumentValue("changelogFile", "db/changelog/changelog-master.yaml")
+                .execute();
+        connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        ExpenseCategory[] categories = ExpenseCategory.values();
+        StringBuilder names = new StringBuilder();
+        for (ExpenseCategory category : categories) {
+            names.append(names.isEmpty() ? "" : ",").append('\'').append(category.name()).append('\'');
+        }
+        try (PreparedStatement seed = connection.prepareStatement(
+                SEED_QUERY.formatted(ACCOUNTS, names, categories.length))) {
+            seed.setInt(1, rows);
+            seed.executeUpdate();
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE expenses");
+        }
+        since = Timestamp.valueOf(LocalDateTime.now().minusMonths(1));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        connection.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public int rollupQuery() throws Exception {
+        int groups = 0;
+        try (PreparedStatement query = connection.prepareStatement(ROLLUP_QUERY)) {
+            query.setLong(1, ACCOUNT_ID);
+            query.setTimestamp(2, since);
+            try (ResultSet result = query.executeQuery()) {
+                while (result.next()) {
+                    result.getString(1);
+                    result.getBigDecimal(2);
+                    result.getLong(3);
+                    result.getBigDecimal(4);
+                    result.getBigDecimal(5);
+                    result.getBoolean(6);
+                    groups++;
+                }
+            }
+        }
+        return groups;
+    }
+
+    @Benchmark
+    public void loadRowsAndGroup(Blackhole blackhole) throws Exception {
+        Map<ExpenseCategory, BigDecimal> totals = new EnumMap<>(ExpenseCategory.class);
+        BigDecimal total = BigDecimal.ZERO;
+        try (PreparedStatement query = connection.prepareStatement(ROWS_QUERY)) {
+            query.setLong(1, ACCOUNT_ID);
+            query.setTimestamp(2, since);
+            try (ResultSet result = query.executeQuery()) {
+                while (result.next()) {
+                    result.getLong(1);
+                    BigDecimal amount = result.getBigDecimal(2);
+                    result.getLong(3);
+                    ExpenseCategory category = ExpenseCategory.valueOf(result.getString(4));
+                    result.getString(5);
+                    result.getTimestamp(6);
+                    result.getBoolean(7);
+                    totals.merge(category, amount, BigDecimal::add);
+                    total = total.add(amount);
+                }
+            }
+        }
+        blackhole.consume(totals);
+        blackhole.consume(total);
+    }
+}
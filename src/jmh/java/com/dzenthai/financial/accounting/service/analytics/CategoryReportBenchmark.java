@@ -0,0 +1,92 @@
+package com.dzenthai.financial.accounting.service.analytics;
+
+import com.dzenthai.financial.accounting.entity.Expense;
+import com.dzenthai.financial.accounting.entity.enums.ExpenseCategory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CategoryReportBenchmark {
+
+    private static final long ACCOUNT_ID = 1;
+
+    private static final int ACCOUNTS = 4;
+
+    @Param({"10000", "100000"})
+    private int rowsPerAccount;
+
+    private List<Expense> expenses;
+
+    private TransactionColumns columns;
+
+    private LocalDateTime since;
+
+    private long sinceTimestamp;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        ExpenseCategory[] categories = ExpenseCategory.values();
+        LocalDateTime now = LocalDateTime.of(2024, 6, 1, 0, 0);
+        since = now.minusMonths(1);
+        sinceTimestamp = TransactionColumns.toTimestamp(since);
+        expenses = new ArrayList<>(rowsPerAccount);
+        columns = new TransactionColumns(rowsPerAccount * ACCOUNTS);
+        long id = 0;
+        for (long accountId = ACCOUNT_ID; accountId <= ACCOUNTS; accountId++) {
+            for (int i = 0; i < rowsPerAccount; i++) {
+                LocalDateTime datetime = now.minusMinutes(random.nextLong(60 * 24 * 365));
+                long amount = random.nextLong(100, 1_000_000);
+                ExpenseCategory category = categories[random.nextInt(categories.length)];
+                columns.append(++id, accountId, TransactionColumns.toTimestamp(datetime), amount, category.ordinal());
+                if (accountId == ACCOUNT_ID) {
+                    expenses.add(Expense.builder()
+                            .id(id)
+                            .amount(BigDecimal.valueOf(amount, 2))
+                            .category(category)
+                            .datetime(datetime)
+                            .build());
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void entityGroupingBy(Blackhole blackhole) {
+        List<Expense> recent = expenses.stream()
+                .filter(expense -> expense.getDatetime().isAfter(since))
+                .toList();
+        Map<ExpenseCategory, BigDecimal> totals = recent.stream()
+                .collect(Collectors.groupingBy(
+                        Expense::getCategory,
+                        Collectors.reducing(BigDecimal.ZERO, Expense::getAmount, BigDecimal::add)));
+        blackhole.consume(totals);
+        blackhole.consume(recent.stream().map(Expense::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add));
+    }
+
+    @Benchmark
+    public CategoryAggregator<ExpenseCategory> columnarAggregate() {
+        CategoryAggregator<ExpenseCategory> aggregator = new CategoryAggregator<>(ExpenseCategory.class);
+        columns.aggregate(ACCOUNT_ID, sinceTimestamp, aggregator);
+        return aggregator;
+    }
+}
@@ -0,0 +1,72 @@
+package com.dzenthai.financial.accounting.service.analytics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DailyTotalsBenchmark {
+
+    private static final int RANGES = 1024;
+
+    private static final long ORIGIN_DAY = 18_000;
+
+    @Param({"365", "3650"})
+    private int days;
+
+    private DailyTotalsIndex index;
+
+    private long[] expenses;
+
+    private long[] from;
+
+    private long[] to;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        index = new DailyTotalsIndex(ORIGIN_DAY, days);
+        expenses = new long[days];
+        for (int day = 0; day < days; day++) {
+            expenses[day] = random.nextLong(0, 1_000_000);
+            index.set(ORIGIN_DAY + day, random.nextLong(0, 1_000_000), expenses[day]);
+        }
+        from = new long[RANGES];
+        to = new long[RANGES];
+        for (int i = 0; i < RANGES; i++) {
+            long a = random.nextLong(days + 1);
+            long b = random.nextLong(days + 1);
+            from[i] = ORIGIN_DAY + Math.min(a, b);
+            to[i] = ORIGIN_DAY + Math.max(a, b);
+        }
+    }
+
+    @Benchmark
+    public long prefixSumRange() {
+        int i = next++ & (RANGES - 1);
+        return index.sumExpenses(from[i], to[i]);
+    }
+
+    @Benchmark
+    public long linearRange() {
+        int i = next++ & (RANGES - 1);
+        long total = 0;
+        for (long day = from[i]; day < to[i]; day++) {
+            total = Math.addExact(total, expenses[(int) (day - ORIGIN_DAY)]);
+        }
+        return total;
+    }
+}
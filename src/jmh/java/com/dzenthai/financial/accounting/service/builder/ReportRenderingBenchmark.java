@@ -0,0 +1,82 @@
+package com.dzenthai.financial.accounting.service.builder;
+
+import com.dzenthai.financial.accounting.entity.enums.ExpenseCategory;
+import com.dzenthai.financial.accounting.projection.Money;
+import com.dzenthai.financial.accounting.service.analytics.CategoryAggregator;
+import com.dzenthai.financial.accounting.service.analytics.CategoryAggregator.CategoryStats;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ReportRenderingBenchmark {
+
+    private static final String CATEGORY_FORMAT = """
+            
+            Категория: %s
+            Сумма: %s
+            Процент: %.2f%%
+            """;
+
+    private static final MessageTemplate CATEGORY_TEMPLATE = MessageTemplate.compile("""
+            
+            Категория: {}
+            Сумма: {}
+            Процент: {}%
+            """);
+
+    private List<CategoryStats<ExpenseCategory>> stats;
+
+    private BigDecimal total;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        CategoryAggregator<ExpenseCategory> aggregator = new CategoryAggregator<>(ExpenseCategory.class);
+        for (ExpenseCategory category : ExpenseCategory.values()) {
+            aggregator.add(category, Money.ofMinor(random.nextLong(100, 10_000_000)));
+        }
+        stats = aggregator.getStats();
+        total = aggregator.getTotal().toBigDecimal();
+    }
+
+    @Benchmark
+    public String stringFormat() {
+        StringBuilder report = new StringBuilder("Отчет по тратам:\n");
+        for (CategoryStats<ExpenseCategory> category : stats) {
+            BigDecimal amount = category.sum().toBigDecimal();
+            BigDecimal percentage = amount.divide(total, 4, RoundingMode.HALF_UP)
+                    .multiply(BigDecimal.valueOf(100))
+                    .setScale(2, RoundingMode.HALF_UP);
+            report.append(String.format(CATEGORY_FORMAT, category.category().getDisplayName(), amount, percentage));
+        }
+        return report.toString();
+    }
+
+    @Benchmark
+    public String messageTemplate() {
+        StringBuilder report = new StringBuilder(CATEGORY_TEMPLATE.getEstimatedLength() * (stats.size() + 1))
+                .append("Отчет по тратам:\n");
+        for (CategoryStats<ExpenseCategory> category : stats) {
+            CATEGORY_TEMPLATE.appendTo(report)
+                    .text(category.category().getDisplayName())
+                    .money(category.sum())
+                    .percent(category.shareBasisPoints())
+                    .end();
+        }
+        return report.toString();
+    }
+}
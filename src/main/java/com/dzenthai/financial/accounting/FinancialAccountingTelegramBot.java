@@ -2,8 +2,10 @@ package com.dzenthai.financial.accounting;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 
+@EnableScheduling
 @SpringBootApplication
 public class FinancialAccountingTelegramBot {
 
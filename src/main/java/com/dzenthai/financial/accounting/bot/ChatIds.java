@@ -0,0 +1,36 @@
+package com.dzenthai.financial.accounting.bot;
+
+import org.telegram.telegrambots.meta.api.interfaces.BotApiObject;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+
+public final class ChatIds {
+
+    private ChatIds() {
+    }
+
+    public static Long of(Update update) {
+        if (update == null) {
+            return null;
+        }
+        if (update.hasCallbackQuery()) {
+            return of(update.getCallbackQuery());
+        }
+        if (update.hasMessage()) {
+            return of(update.getMessage());
+        }
+        return null;
+    }
+
+    public static Long of(BotApiObject botApiObject) {
+        if (botApiObject instanceof CallbackQuery callbackQuery) {
+            return callbackQuery.getMessage() != null ? callbackQuery.getMessage().getChatId() : null;
+        }
+        if (botApiObject instanceof Message message) {
+            return message.getChatId();
+        }
+        return null;
+    }
+}
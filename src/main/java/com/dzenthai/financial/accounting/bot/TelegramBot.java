@@ -1,15 +1,18 @@
 package com.dzenthai.financial.accounting.bot;
 
+import com.dzenthai.financial.accounting.bot.dispatcher.OrderedUpdateExecutor;
 import com.dzenthai.financial.accounting.bot.dispatcher.TelegramUpdateDispatcher;
+import com.dzenthai.financial.accounting.bot.sender.OutboundSender;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
 import org.telegram.telegrambots.bots.TelegramLongPollingBot;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.objects.Update;
-import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 
 
 @Slf4j
@@ -18,27 +21,67 @@ public final class TelegramBot extends TelegramLongPollingBot {
 
     private final TelegramUpdateDispatcher telegramUpdateDispatcher;
 
+    private final OrderedUpdateExecutor orderedUpdateExecutor;
+
+    private final OutboundSender outboundSender;
+
+    private final boolean orderedDispatch;
+
     public TelegramBot(@Value("${bot.token}") String botToken,
-                       TelegramUpdateDispatcher telegramUpdateDispatcher
+                       @Value("${bot.api-url}") String apiUrl,
+                       @Value("${bot.dispatch.mode}") String dispatchMode,
+                       TelegramUpdateDispatcher telegramUpdateDispatcher,
+                       OrderedUpdateExecutor orderedUpdateExecutor,
+                       OutboundSender outboundSender
     ) {
-        super(botToken);
+        super(botOptions(apiUrl), botToken);
         this.telegramUpdateDispatcher = telegramUpdateDispatcher;
+        this.orderedUpdateExecutor = orderedUpdateExecutor;
+        this.outboundSender = outboundSender;
+        this.orderedDispatch = "ordered".equalsIgnoreCase(dispatchMode);
     }
 
     @Override
     public void onUpdateReceived(Update update) {
-        try {
-            var method = telegramUpdateDispatcher.distribute(update, this);
-            if (method != null) {
-                sendApiMethod(method);
-            }
+        if (orderedDispatch) {
+            orderedUpdateExecutor.submit(update, () -> handleUpdate(update));
+        } else {
+            handleUpdate(update);
+        }
+    }
+
+    public BotApiMethod<?> dispatchForResponse(Update update) {
+        BotApiMethod<?> method = orderedDispatch
+                ? orderedUpdateExecutor.submit(update, () -> dispatch(update)).join()
+                : dispatch(update);
+        if (method == null) {
+            return null;
+        }
+        Long chatId = ChatIds.of(update);
+        if (outboundSender.tryAcquire(chatId)) {
+            return method;
+        }
+        outboundSender.send(chatId, method);
+        return null;
+    }
+
+    private void handleUpdate(Update update) {
+        var method = dispatch(update);
+        if (method != null) {
+            outboundSender.send(ChatIds.of(update), method);
+        }
+    }
 
+    private BotApiMethod<?> dispatch(Update update) {
+        try {
+            return telegramUpdateDispatcher.distribute(update, this);
         } catch (ConstraintViolationException e) {
             handleValidationException(update, e);
         } catch (Exception e) {
             log.error("TelegramBot | Error while dispatching update ", e);
             sendExceptionMessage(update);
         }
+        return null;
     }
 
     private void handleValidationException(Update update, ConstraintViolationException e) {
@@ -47,30 +90,34 @@ public final class TelegramBot extends TelegramLongPollingBot {
             errorMessage.append(violation.getMessage()).append("\n");
         }
 
+        Long chatId = ChatIds.of(update);
+        if (chatId == null) {
+            return;
+        }
         SendMessage message = SendMessage.builder()
-                .chatId(update.getMessage().getChatId())
+                .chatId(chatId)
                 .text(errorMessage.toString())
                 .build();
 
-        try {
-            sendApiMethod(message);
-        } catch (TelegramApiException ex) {
-            log.error("TelegramBot | Telegram api error ", ex);
-            throw new RuntimeException(ex);
-        }
+        outboundSender.send(chatId, message);
     }
 
     private void sendExceptionMessage(Update update) {
+        Long chatId = ChatIds.of(update);
+        if (chatId == null) {
+            return;
+        }
         SendMessage message = SendMessage.builder()
-                .chatId(update.getMessage().getChatId())
+                .chatId(chatId)
                 .text("Произошла ошибка, попробуйте позже!")
                 .build();
-        try {
-            sendApiMethod(message);
-        } catch (TelegramApiException e) {
-            log.error("TelegramBot | Telegram api error ", e);
-            throw new RuntimeException(e);
-        }
+        outboundSender.send(chatId, message);
+    }
+
+    private static DefaultBotOptions botOptions(String apiUrl) {
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setBaseUrl(apiUrl);
+        return options;
     }
 
     @Override
@@ -1,6 +1,7 @@
 package com.dzenthai.financial.accounting.bot.configuration;
 
 import com.dzenthai.financial.accounting.bot.TelegramBot;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.telegram.telegrambots.meta.TelegramBotsApi;
@@ -12,6 +13,7 @@ import org.telegram.telegrambots.updatesreceivers.DefaultBotSession;
 public class TelegramBotConfiguration {
 
     @Bean
+    @ConditionalOnProperty(name = "bot.transport", havingValue = "polling", matchIfMissing = true)
     public TelegramBotsApi telegramBotsApi(
             TelegramBot telegramBot
     ) {
@@ -28,5 +30,4 @@ public class TelegramBotConfiguration {
         }
         return telegramBotsApi;
     }
-
 }
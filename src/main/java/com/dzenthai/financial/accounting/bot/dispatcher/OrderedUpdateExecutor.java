@@ -0,0 +1,156 @@
+package com.dzenthai.financial.accounting.bot.dispatcher;
+
+import com.dzenthai.financial.accounting.bot.ChatIds;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+
+@Slf4j
+@Component
+@DependsOn("outboundSender")
+public class OrderedUpdateExecutor {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Map<Long, ChatLane> lanes = new ConcurrentHashMap<>();
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+
+    private final long shutdownTimeout;
+
+    public OrderedUpdateExecutor(@Value("${bot.dispatch.shutdown-timeout-ms}") long shutdownTimeout) {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    public CompletableFuture<Void> submit(Update update, Runnable task) {
+        return submit(update, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public <T> CompletableFuture<T> submit(Update update, Supplier<T> task) {
+        Long chatId = ChatIds.of(update);
+        queueDepth.incrementAndGet();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (chatId == null) {
+            try {
+                executor.execute(() -> run(null, task, result));
+            } catch (RejectedExecutionException e) {
+                fail(null, result, e);
+            }
+            return result;
+        }
+        lanes.compute(chatId, (key, lane) -> {
+            ChatLane current = lane != null ? lane : new ChatLane();
+            current.backlog++;
+            current.tail = current.tail
+                    .thenRunAsync(() -> run(key, task, result), executor)
+                    .handle((ignored, e) -> {
+                        if (e != null) {
+                            fail(key, result, e);
+                        }
+                        return null;
+                    });
+            return current;
+        });
+        log.debug("OrderedUpdateExecutor | Queued update for chat {}, queue depth: {}", chatId, queueDepth.get());
+        return result;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public int getActiveChats() {
+        return lanes.size();
+    }
+
+    public int getBacklog(Long chatId) {
+        ChatLane lane = lanes.get(chatId);
+        return lane != null ? lane.backlog : 0;
+    }
+
+    public Map<Long, Integer> getBacklogs() {
+        Map<Long, Integer> backlogs = new HashMap<>();
+        lanes.forEach((chatId, lane) -> backlogs.put(chatId, lane.backlog));
+        return backlogs;
+    }
+
+    @Scheduled(fixedDelayString = "${bot.dispatch.statistics-interval-ms}")
+    public void logStatistics() {
+        Long busiestChat = null;
+        int maxBacklog = 0;
+        for (Map.Entry<Long, Integer> entry : getBacklogs().entrySet()) {
+            if (entry.getValue() > maxBacklog) {
+                busiestChat = entry.getKey();
+                maxBacklog = entry.getValue();
+            }
+        }
+        log.info("OrderedUpdateExecutor | Queue depth={}, active chats={}, max backlog={} (chat {})",
+                getQueueDepth(), getActiveChats(), maxBacklog, busiestChat);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(shutdownTimeout, TimeUnit.MILLISECONDS)) {
+                log.warn("OrderedUpdateExecutor | {} updates still running after {} ms, interrupting",
+                        queueDepth.get(), shutdownTimeout);
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> void run(Long chatId, Supplier<T> task, CompletableFuture<T> result) {
+        try {
+            result.complete(task.get());
+        } catch (Throwable e) {
+            log.error("OrderedUpdateExecutor | Error while processing update for chat {} ", chatId, e);
+            result.completeExceptionally(e);
+        } finally {
+            release(chatId);
+        }
+    }
+
+    private void fail(Long chatId, CompletableFuture<?> result, Throwable e) {
+        log.error("OrderedUpdateExecutor | Could not schedule update for chat {} ", chatId, e);
+        if (result.completeExceptionally(e)) {
+            release(chatId);
+        }
+    }
+
+    private void release(Long chatId) {
+        queueDepth.decrementAndGet();
+        if (chatId != null) {
+            lanes.computeIfPresent(chatId, (key, lane) -> --lane.backlog == 0 ? null : lane);
+        }
+    }
+
+    private static final class ChatLane {
+
+        private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+
+        private volatile int backlog;
+    }
+}
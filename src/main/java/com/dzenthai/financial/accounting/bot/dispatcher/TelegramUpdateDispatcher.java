@@ -1,12 +1,13 @@
 package com.dzenthai.financial.accounting.bot.dispatcher;
 
+import com.dzenthai.financial.accounting.bot.ChatIds;
 import com.dzenthai.financial.accounting.bot.TelegramBot;
 import com.dzenthai.financial.accounting.bot.message.CallbackQueryHandler;
 import com.dzenthai.financial.accounting.bot.message.CommandHandler;
 import com.dzenthai.financial.accounting.bot.message.MessageHandler;
 import com.dzenthai.financial.accounting.entity.User;
 import com.dzenthai.financial.accounting.entity.enums.Action;
-import com.dzenthai.financial.accounting.repository.UserRepo;
+import com.dzenthai.financial.accounting.service.UserService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
@@ -14,9 +15,6 @@ import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 import org.telegram.telegrambots.meta.api.objects.Message;
 import org.telegram.telegrambots.meta.api.objects.Update;
 
-import java.time.LocalDate;
-import java.util.Objects;
-
 
 @Slf4j
 @Service
@@ -28,56 +26,55 @@ public class TelegramUpdateDispatcher {
 
     private final CallbackQueryHandler callbackQueryHandler;
 
-    private final UserRepo userRepo;
+    private final UserService userService;
 
     public TelegramUpdateDispatcher(
             MessageHandler messageHandler,
             CommandHandler commandHandler,
             CallbackQueryHandler callbackQueryHandler,
-            UserRepo userRepo) {
+            UserService userService) {
         this.messageHandler = messageHandler;
         this.commandHandler = commandHandler;
         this.callbackQueryHandler = callbackQueryHandler;
-        this.userRepo = userRepo;
+        this.userService = userService;
     }
 
     public BotApiMethod<?> distribute(Update update, TelegramBot telegramBot) {
         log.debug("TelegramUpdateDispatcher | Update: {}", update);
+        Long chatId = ChatIds.of(update);
+        if (chatId == null) {
+            log.warn("TelegramUpdateDispatcher | Unsupported update type: {}", update);
+            return null;
+        }
+        User user = userService.beginUpdate(chatId);
+        try {
+            BotApiMethod<?> method = distribute(update, user, telegramBot);
+            userService.completeUpdate();
+            return method;
+        } catch (RuntimeException e) {
+            userService.abortUpdate();
+            throw e;
+        }
+    }
+
+    private BotApiMethod<?> distribute(Update update, User user, TelegramBot telegramBot) {
         if (update.hasCallbackQuery()) {
-            checkUser(update.getCallbackQuery().getMessage().getChatId());
-            User user = userRepo.findUserByChatId(update.getCallbackQuery().getMessage().getChatId()).orElse(null);
-            Objects.requireNonNull(user).setAction(Action.FREE);
-            userRepo.save(user);
+            if (user.getAction() != Action.FREE) {
+                userService.updateUserAction(user.getChatId(), Action.FREE);
+            }
             log.debug("TelegramUpdateDispatcher | CallbackQuery: {}", update.getCallbackQuery());
             CallbackQuery callbackQuery = update.getCallbackQuery();
             return callbackQueryHandler.answer(callbackQuery, telegramBot);
         }
-        if (update.hasMessage()) {
-            checkUser(update.getMessage().getChatId());
-            log.debug("TelegramUpdateDispatcher | Message: {}", update.getMessage());
-            Message message = update.getMessage();
-            if (message.hasText()) {
-                checkUser(message.getChatId());
-                log.debug("TelegramUpdateDispatcher | Text: {}", message.getText());
-                if (message.getText().charAt(0) == '/') {
-                    checkUser(message.getChatId());
-                    log.debug("TelegramUpdateDispatcher | Command: {}", message.getText());
-                    return commandHandler.answer(message, telegramBot);
-                }
+        log.debug("TelegramUpdateDispatcher | Message: {}", update.getMessage());
+        Message message = update.getMessage();
+        if (message.hasText()) {
+            log.debug("TelegramUpdateDispatcher | Text: {}", message.getText());
+            if (message.getText().charAt(0) == '/') {
+                log.debug("TelegramUpdateDispatcher | Command: {}", message.getText());
+                return commandHandler.answer(message, telegramBot);
             }
-            return messageHandler.answer(message, telegramBot);
-        }
-        log.warn("TelegramUpdateDispatcher | Unsupported update type: {}", update);
-        return null;
-    }
-
-    private void checkUser(Long chatId) {
-        if(!userRepo.existsByChatId(chatId)) {
-            User user = User.builder()
-                    .chatId(chatId)
-                    .action(Action.FREE)
-                    .build();
-            userRepo.save(user);
         }
+        return messageHandler.answer(message, telegramBot);
     }
 }
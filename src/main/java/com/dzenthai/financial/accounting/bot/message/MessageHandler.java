@@ -40,6 +40,7 @@ public class MessageHandler extends AbstractHandler {
         return switch (user.getAction()) {
             case FREE -> accountService.accountMenu(message);
             case ACCOUNT_ADD -> accountService.saveAccount(message);
+            case ACCOUNT_DATETIME_CUSTOM -> accountService.getCustomPeriod(message);
             case EXPENSE_ADD_AMOUNT -> expenseService.saveAmountExpense(message);
             case EXPENSE_ADD_NOTE -> expenseService.saveNoteExpense(message);
             case EXPENSE_EDIT_AMOUNT -> expenseService.editAmountExpense(message);
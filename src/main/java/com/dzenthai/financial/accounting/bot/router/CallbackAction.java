@@ -0,0 +1,11 @@
+package com.dzenthai.financial.accounting.bot.router;
+
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
+
+
+@FunctionalInterface
+public interface CallbackAction {
+
+    BotApiMethod<?> handle(CallbackQuery callbackQuery, CallbackArguments arguments);
+}
@@ -0,0 +1,53 @@
+package com.dzenthai.financial.accounting.bot.router;
+
+
+public final class CallbackArguments {
+
+    static final int MAX_ARGUMENTS = 4;
+
+    private final long[] longs = new long[MAX_ARGUMENTS];
+
+    private final Enum<?>[] enums = new Enum<?>[MAX_ARGUMENTS];
+
+    private int longCount;
+
+    private int enumCount;
+
+    public long getLong(int index) {
+        if (index >= longCount) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return longs[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    public <E extends Enum<E>> E getEnum(int index) {
+        if (index >= enumCount) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return (E) enums[index];
+    }
+
+    int getOrdinal(int index) {
+        if (index >= enumCount) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return enums[index].ordinal();
+    }
+
+    void pushLong(long value) {
+        longs[longCount++] = value;
+    }
+
+    void popLong() {
+        longCount--;
+    }
+
+    void pushEnum(Enum<?> value) {
+        enums[enumCount++] = value;
+    }
+
+    void popEnum() {
+        enums[--enumCount] = null;
+    }
+}
@@ -0,0 +1,344 @@
+package com.dzenthai.financial.accounting.bot.router;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+
+@Slf4j
+@Component
+public class CallbackRouter {
+
+    private static final char SEPARATOR = '_';
+
+    private static final String LONG_PARAMETER = "{id}";
+
+    private static final String ENUM_PARAMETER = "{enum}";
+
+    private static final int MAX_LONG_DIGITS = 18;
+
+    private static final int MAX_CALLBACK_DATA_BYTES = 64;
+
+    private static final int ROUTE_ID_MASK = (1 << 21) - 1;
+
+    private static final CallbackAction NO_ACTION = (callbackQuery, arguments) -> null;
+
+    private final Node root = new Node();
+
+    private final Map<Integer, Route> routes = new HashMap<>();
+
+    private CallbackAction expiredAction = NO_ACTION;
+
+    private final CallbackTokenStore callbackTokenStore;
+
+    private final boolean compact;
+
+    public CallbackRouter(
+            CallbackTokenStore callbackTokenStore,
+            @Value("${bot.callback.compact}") boolean compact
+    ) {
+        this.callbackTokenStore = callbackTokenStore;
+        this.compact = compact;
+    }
+
+    public void route(String pattern, CallbackAction action, Class<?>... enumTypes) {
+        List<Enum<?>[]> parameters = new ArrayList<>();
+        Node node = resolve(pattern, parameters, enumTypes);
+        if (node.route != null) {
+            throw new IllegalStateException("Duplicate callback route: " + pattern);
+        }
+        Enum<?>[][] values = parameters.toArray(new Enum<?>[0][]);
+        Route route = new Route(routeId(pattern, values), pattern, action, values);
+        Route existing = routes.putIfAbsent(route.id(), route);
+        if (existing != null) {
+            throw new IllegalStateException("Callback route id collision: " + pattern + " and " + existing.pattern());
+        }
+        node.route = route;
+        log.debug("CallbackRouter | Registered route: {} with id {}", pattern, route.id());
+    }
+
+    public void fallback(String prefix, CallbackAction action) {
+        resolve(prefix, new ArrayList<>()).fallback = new Route(-1, prefix, action, new Enum<?>[0][]);
+    }
+
+    public void expired(CallbackAction action) {
+        expiredAction = action;
+    }
+
+    public BotApiMethod<?> route(CallbackQuery callbackQuery) {
+        String data = callbackQuery.getData();
+        if (data == null) {
+            log.warn("CallbackRouter | Callback query without data");
+            return expiredAction.handle(callbackQuery, new CallbackArguments());
+        }
+        if (CallbackTokenStore.isToken(data)) {
+            String resolved = callbackTokenStore.resolve(data);
+            if (resolved == null) {
+                log.warn("CallbackRouter | Expired callback token: {}", data);
+                return expiredAction.handle(callbackQuery, new CallbackArguments());
+            }
+            data = resolved;
+        }
+        CallbackArguments arguments = new CallbackArguments();
+        Route route = CompactCallbackCodec.isCompact(data)
+                ? decode(data, arguments)
+                : match(root, data, 0, arguments);
+        if (route == null) {
+            log.warn("CallbackRouter | No route for callback data: {}", data);
+            return expiredAction.handle(callbackQuery, new CallbackArguments());
+        }
+        return route.action.handle(callbackQuery, arguments);
+    }
+
+    public String encode(String data) {
+        if (compact) {
+            CallbackArguments arguments = new CallbackArguments();
+            Route route = match(root, data, 0, arguments);
+            if (route != null && route.id >= 0) {
+                data = route.encode(arguments);
+            }
+        }
+        return utf8Length(data) > MAX_CALLBACK_DATA_BYTES ? callbackTokenStore.store(data) : data;
+    }
+
+    private Route decode(String data, CallbackArguments arguments) {
+        try {
+            CompactCallbackCodec.Reader reader = new CompactCallbackCodec.Reader(data);
+            long id = reader.readVarint();
+            Route route = id >= 0 && id <= ROUTE_ID_MASK ? routes.get((int) id) : null;
+            if (route == null) {
+                log.debug("CallbackRouter | Unknown callback route id {} in {}", id, data);
+                return null;
+            }
+            for (Enum<?>[] values : route.parameters) {
+                long value = reader.readVarint();
+                if (values == null) {
+                    arguments.pushLong(value);
+                } else if (value >= 0 && value < values.length) {
+                    arguments.pushEnum(values[(int) value]);
+                } else {
+                    return null;
+                }
+            }
+            return reader.hasRemaining() ? null : route;
+        } catch (IllegalArgumentException e) {
+            log.warn("CallbackRouter | {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Node resolve(String pattern, List<Enum<?>[]> parameters, Class<?>... enumTypes) {
+        Node node = root;
+        int enumIndex = 0;
+        int longCount = 0;
+        for (String segment : pattern.split(String.valueOf(SEPARATOR))) {
+            if (segment.equals(LONG_PARAMETER)) {
+                if (++longCount > CallbackArguments.MAX_ARGUMENTS) {
+                    throw new IllegalArgumentException("Too many parameters in callback route: " + pattern);
+                }
+                if (node.longChild == null) {
+                    node.longChild = new Node();
+                }
+                node = node.longChild;
+                parameters.add(null);
+            } else if (segment.equals(ENUM_PARAMETER)) {
+                if (enumIndex >= CallbackArguments.MAX_ARGUMENTS) {
+                    throw new IllegalArgumentException("Too many parameters in callback route: " + pattern);
+                }
+                if (enumIndex >= enumTypes.length || !enumTypes[enumIndex].isEnum()) {
+                    throw new IllegalArgumentException("Missing enum type for callback route: " + pattern);
+                }
+                EnumParameter parameter = node.enumChild(enumTypes[enumIndex++]);
+                parameters.add(parameter.values);
+                node = parameter.node;
+            } else {
+                node = node.literalChild(segment);
+            }
+        }
+        return node;
+    }
+
+    private Route match(Node node, String data, int start, CallbackArguments arguments) {
+        int length = data.length();
+        if (start > length) {
+            return node.route != null ? node.route : node.fallback;
+        }
+        int end = data.indexOf(SEPARATOR, start);
+        if (end < 0) {
+            end = length;
+        }
+        int next = end + 1;
+        int segmentLength = end - start;
+
+        for (int i = 0; i < node.literalKeys.length; i++) {
+            String key = node.literalKeys[i];
+            if (key.length() == segmentLength && data.regionMatches(start, key, 0, segmentLength)) {
+                Route route = match(node.literalNodes[i], data, next, arguments);
+                if (route != null) {
+                    return route;
+                }
+            }
+        }
+
+        if (node.longChild != null && segmentLength > 0 && segmentLength <= MAX_LONG_DIGITS) {
+            long value = 0;
+            int i = start;
+            while (i < end) {
+                char c = data.charAt(i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                value = value * 10 + (c - '0');
+                i++;
+            }
+            if (i == end) {
+                arguments.pushLong(value);
+                Route route = match(node.longChild, data, next, arguments);
+                if (route != null) {
+                    return route;
+                }
+                arguments.popLong();
+            }
+        }
+
+        for (EnumParameter parameter : node.enumChildren) {
+            Enum<?> value = parameter.lookup(data, start, segmentLength);
+            if (value != null) {
+                arguments.pushEnum(value);
+                Route route = match(parameter.node, data, next, arguments);
+                if (route != null) {
+                    return route;
+                }
+                arguments.popEnum();
+            }
+        }
+
+        return node.fallback;
+    }
+
+    private static int routeId(String pattern, Enum<?>[][] parameters) {
+        StringBuilder signature = new StringBuilder(pattern);
+        for (Enum<?>[] values : parameters) {
+            if (values != null) {
+                for (Enum<?> value : values) {
+                    signature.append(SEPARATOR).append(value.name());
+                }
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(signature.toString().getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() & ROUTE_ID_MASK);
+    }
+
+    private static int utf8Length(String data) {
+        int bytes = 0;
+        for (int i = 0; i < data.length(); i++) {
+            char c = data.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    private record Route(int id, String pattern, CallbackAction action, Enum<?>[][] parameters) {
+
+        private String encode(CallbackArguments arguments) {
+            CompactCallbackCodec.Writer writer = new CompactCallbackCodec.Writer()
+                    .writeVarint(id);
+            int longIndex = 0;
+            int enumIndex = 0;
+            for (Enum<?>[] values : parameters) {
+                writer.writeVarint(values == null
+                        ? arguments.getLong(longIndex++)
+                        : arguments.getOrdinal(enumIndex++));
+            }
+            return writer.finish();
+        }
+    }
+
+    private static final class Node {
+
+        private String[] literalKeys = new String[0];
+
+        private Node[] literalNodes = new Node[0];
+
+        private EnumParameter[] enumChildren = new EnumParameter[0];
+
+        private Node longChild;
+
+        private Route route;
+
+        private Route fallback;
+
+        private Node literalChild(String key) {
+            for (int i = 0; i < literalKeys.length; i++) {
+                if (literalKeys[i].equals(key)) {
+                    return literalNodes[i];
+                }
+            }
+            Node child = new Node();
+            literalKeys = Arrays.copyOf(literalKeys, literalKeys.length + 1);
+            literalNodes = Arrays.copyOf(literalNodes, literalNodes.length + 1);
+            literalKeys[literalKeys.length - 1] = key;
+            literalNodes[literalNodes.length - 1] = child;
+            return child;
+        }
+
+        private EnumParameter enumChild(Class<?> type) {
+            for (EnumParameter parameter : enumChildren) {
+                if (parameter.type == type) {
+                    return parameter;
+                }
+            }
+            EnumParameter parameter = new EnumParameter(type, new Node());
+            enumChildren = Arrays.copyOf(enumChildren, enumChildren.length + 1);
+            enumChildren[enumChildren.length - 1] = parameter;
+            return parameter;
+        }
+    }
+
+    private static final class EnumParameter {
+
+        private final Class<?> type;
+
+        private final Node node;
+
+        private final String[] names;
+
+        private final Enum<?>[] values;
+
+        private EnumParameter(Class<?> type, Node node) {
+            this.type = type;
+            this.node = node;
+            this.values = (Enum<?>[]) type.getEnumConstants();
+            this.names = Arrays.stream(values).map(Enum::name).toArray(String[]::new);
+        }
+
+        private Enum<?> lookup(String data, int start, int length) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].length() == length && data.regionMatches(start, names[i], 0, length)) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+    }
+}
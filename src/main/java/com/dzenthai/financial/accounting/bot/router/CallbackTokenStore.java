@@ -0,0 +1,48 @@
+package com.dzenthai.financial.accounting.bot.router;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+@Component
+public class CallbackTokenStore {
+
+    static final char PREFIX = '!';
+
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis());
+
+    private final Map<String, String> tokens;
+
+    public CallbackTokenStore(@Value("${bot.callback.token-store.max-size}") int maxSize) {
+        this.tokens = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public String store(String data) {
+        String token = PREFIX + Long.toString(sequence.incrementAndGet(), Character.MAX_RADIX);
+        synchronized (this) {
+            tokens.put(token, data);
+        }
+        return token;
+    }
+
+    public synchronized String resolve(String token) {
+        return tokens.get(token);
+    }
+
+    public synchronized int getSize() {
+        return tokens.size();
+    }
+
+    static boolean isToken(String data) {
+        return !data.isEmpty() && data.charAt(0) == PREFIX;
+    }
+}
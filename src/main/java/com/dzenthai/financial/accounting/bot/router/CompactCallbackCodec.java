@@ -0,0 +1,115 @@
+package com.dzenthai.financial.accounting.bot.router;
+
+import java.util.Arrays;
+
+
+final class CompactCallbackCodec {
+
+    static final char PREFIX = '~';
+
+    private static final char[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+
+    private static final byte[] INDEX = new byte[128];
+
+    static {
+        Arrays.fill(INDEX, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            INDEX[ALPHABET[i]] = (byte) i;
+        }
+    }
+
+    private CompactCallbackCodec() {
+    }
+
+    static boolean isCompact(String data) {
+        return !data.isEmpty() && data.charAt(0) == PREFIX;
+    }
+
+    static final class Writer {
+
+        private final StringBuilder builder = new StringBuilder(16).append(PREFIX);
+
+        private int bits;
+
+        private int bitCount;
+
+        Writer writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            writeByte((int) value);
+            return this;
+        }
+
+        private void writeByte(int value) {
+            bits = (bits << 8) | (value & 0xFF);
+            bitCount += 8;
+            while (bitCount >= 6) {
+                bitCount -= 6;
+                builder.append(ALPHABET[(bits >>> bitCount) & 0x3F]);
+            }
+            bits &= (1 << bitCount) - 1;
+        }
+
+        String finish() {
+            if (bitCount > 0) {
+                builder.append(ALPHABET[(bits << (6 - bitCount)) & 0x3F]);
+                bits = 0;
+                bitCount = 0;
+            }
+            return builder.toString();
+        }
+    }
+
+    static final class Reader {
+
+        private final String data;
+
+        private int position = 1;
+
+        private int bits;
+
+        private int bitCount;
+
+        Reader(String data) {
+            this.data = data;
+        }
+
+        long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed compact callback data: " + data);
+        }
+
+        boolean hasRemaining() {
+            return bitCount + (data.length() - position) * 6 >= 8;
+        }
+
+        private int readByte() {
+            while (bitCount < 8) {
+                if (position >= data.length()) {
+                    throw new IllegalArgumentException("Truncated compact callback data: " + data);
+                }
+                char c = data.charAt(position++);
+                int value = c < INDEX.length ? INDEX[c] : -1;
+                if (value < 0) {
+                    throw new IllegalArgumentException("Invalid compact callback data: " + data);
+                }
+                bits = (bits << 6) | value;
+                bitCount += 6;
+            }
+            bitCount -= 8;
+            int result = (bits >>> bitCount) & 0xFF;
+            bits &= (1 << bitCount) - 1;
+            return result;
+        }
+    }
+}
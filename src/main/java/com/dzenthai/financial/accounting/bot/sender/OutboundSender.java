@@ -0,0 +1,347 @@
+package com.dzenthai.financial.accounting.bot.sender;
+
+import com.dzenthai.financial.accounting.bot.TelegramBot;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+@Slf4j
+@Component
+public class OutboundSender {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private static final long LANE_CLEANUP_PERIOD_SECONDS = 60;
+
+    private final ObjectProvider<TelegramBot> telegramBot;
+
+    private final TokenBucket globalBucket;
+
+    private final double chatRate;
+
+    private final double chatBurst;
+
+    private final int queueCapacity;
+
+    private final int maxRetries;
+
+    private final long shutdownTimeout;
+
+    private final Map<Long, ChatLane> lanes = new ConcurrentHashMap<>();
+
+    private final AtomicInteger queueSize = new AtomicInteger();
+
+    private final AtomicLong coalesced = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final Object drained = new Object();
+
+    private volatile boolean closed;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("telegram-sender").daemon().factory());
+
+    private final ExecutorService sendExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public OutboundSender(
+            ObjectProvider<TelegramBot> telegramBot,
+            @Value("${bot.sender.global-rate}") double globalRate,
+            @Value("${bot.sender.chat-rate}") double chatRate,
+            @Value("${bot.sender.chat-burst}") double chatBurst,
+            @Value("${bot.sender.queue-capacity}") int queueCapacity,
+            @Value("${bot.sender.max-retries}") int maxRetries,
+            @Value("${bot.sender.shutdown-timeout-ms}") long shutdownTimeout
+    ) {
+        this.telegramBot = telegramBot;
+        this.globalBucket = new TokenBucket(globalRate, globalRate);
+        this.chatRate = chatRate;
+        this.chatBurst = chatBurst;
+        this.queueCapacity = queueCapacity;
+        this.maxRetries = maxRetries;
+        this.shutdownTimeout = shutdownTimeout;
+        scheduler.scheduleAtFixedRate(this::removeIdleLanes,
+                LANE_CLEANUP_PERIOD_SECONDS, LANE_CLEANUP_PERIOD_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public boolean send(Long chatId, BotApiMethod<?> method) {
+        if (chatId == null) {
+            dropped.incrementAndGet();
+            log.warn("OutboundSender | No chat id, dropping {}", method.getMethod());
+            return false;
+        }
+        if (closed) {
+            dropped.incrementAndGet();
+            log.warn("OutboundSender | Sender is shut down, dropping {} for chat {}", method.getMethod(), chatId);
+            return false;
+        }
+        while (true) {
+            ChatLane lane = lanes.computeIfAbsent(chatId, key -> new ChatLane(key, new TokenBucket(chatRate, chatBurst)));
+            synchronized (lane) {
+                if (lane.retired) {
+                    continue;
+                }
+                if (coalesce(lane, method)) {
+                    coalesced.incrementAndGet();
+                    return true;
+                }
+                if (queueSize.incrementAndGet() > queueCapacity) {
+                    queueSize.decrementAndGet();
+                    dropped.incrementAndGet();
+                    log.warn("OutboundSender | Queue is full, dropping {} for chat {}", method.getMethod(), chatId);
+                    return false;
+                }
+                lane.queue.addLast(new Outbound(method));
+                if (!lane.active) {
+                    lane.active = true;
+                    schedule(lane, lane.bucket.nanosUntilAvailable());
+                }
+                return true;
+            }
+        }
+    }
+
+    public boolean tryAcquire(Long chatId) {
+        if (chatId == null || closed) {
+            return false;
+        }
+        while (true) {
+            ChatLane lane = lanes.computeIfAbsent(chatId, key -> new ChatLane(key, new TokenBucket(chatRate, chatBurst)));
+            synchronized (lane) {
+                if (lane.retired) {
+                    continue;
+                }
+                if (lane.active || lane.bucket.nanosUntilAvailable() > 0 || !globalBucket.tryAcquire()) {
+                    return false;
+                }
+                return lane.bucket.tryAcquire();
+            }
+        }
+    }
+
+    public int getQueueSize() {
+        return queueSize.get();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeout);
+        try {
+            synchronized (drained) {
+                long remaining;
+                while (queueSize.get() > 0 && (remaining = deadline - System.nanoTime()) > 0) {
+                    TimeUnit.NANOSECONDS.timedWait(drained, remaining);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (queueSize.get() > 0) {
+            log.warn("OutboundSender | {} messages still queued after {} ms, dropping", queueSize.get(), shutdownTimeout);
+        }
+        scheduler.shutdownNow();
+        sendExecutor.shutdownNow();
+    }
+
+    private boolean coalesce(ChatLane lane, BotApiMethod<?> method) {
+        if (!(method instanceof EditMessageText edit) || edit.getMessageId() == null) {
+            return false;
+        }
+        Outbound last = lane.queue.peekLast();
+        if (last != null && isSameMessage(last.method, edit)) {
+            last.method = edit;
+            return true;
+        }
+        Iterator<Outbound> iterator = lane.queue.iterator();
+        while (iterator.hasNext()) {
+            if (isSameMessage(iterator.next().method, edit)) {
+                iterator.remove();
+                release();
+                coalesced.incrementAndGet();
+            }
+        }
+        return false;
+    }
+
+    private boolean isSameMessage(BotApiMethod<?> queued, EditMessageText edit) {
+        return queued instanceof EditMessageText queuedEdit
+                && Objects.equals(queuedEdit.getMessageId(), edit.getMessageId());
+    }
+
+    private void schedule(ChatLane lane, long delayNanos) {
+        try {
+            scheduler.schedule(() -> dispatch(lane), delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            discard(lane);
+        }
+    }
+
+    private void discard(ChatLane lane) {
+        int size = lane.queue.size();
+        lane.queue.clear();
+        lane.active = false;
+        dropped.addAndGet(size);
+        for (int i = 0; i < size; i++) {
+            release();
+        }
+        if (size > 0) {
+            log.warn("OutboundSender | Sender is shut down, dropping {} queued messages for chat {}", size, lane.chatId);
+        }
+    }
+
+    private void release() {
+        if (queueSize.decrementAndGet() == 0 && closed) {
+            synchronized (drained) {
+                drained.notifyAll();
+            }
+        }
+    }
+
+    private void dispatch(ChatLane lane) {
+        Outbound outbound;
+        synchronized (lane) {
+            if (lane.queue.isEmpty()) {
+                lane.active = false;
+                return;
+            }
+            long laneWait = lane.bucket.nanosUntilAvailable();
+            if (laneWait > 0) {
+                schedule(lane, laneWait);
+                return;
+            }
+            if (!globalBucket.tryAcquire()) {
+                schedule(lane, globalBucket.nanosUntilAvailable());
+                return;
+            }
+            lane.bucket.tryAcquire();
+            outbound = lane.queue.pollFirst();
+        }
+        try {
+            sendExecutor.execute(() -> execute(lane, outbound));
+        } catch (RejectedExecutionException e) {
+            synchronized (lane) {
+                dropped.incrementAndGet();
+                release();
+                discard(lane);
+            }
+        }
+    }
+
+    private void execute(ChatLane lane, Outbound outbound) {
+        long retryAfterNanos = 0;
+        try {
+            telegramBot.getObject().execute(outbound.method);
+        } catch (TelegramApiRequestException e) {
+            retryAfterNanos = getRetryAfterNanos(e);
+            if (retryAfterNanos > 0 && outbound.attempts++ < maxRetries) {
+                log.warn("OutboundSender | Rate limited for chat {}, retrying in {} ms",
+                        lane.chatId, TimeUnit.NANOSECONDS.toMillis(retryAfterNanos));
+            } else {
+                retryAfterNanos = 0;
+                log.error("OutboundSender | Telegram api error for chat {} ", lane.chatId, e);
+            }
+        } catch (TelegramApiException e) {
+            log.error("OutboundSender | Telegram api error for chat {} ", lane.chatId, e);
+        } catch (RuntimeException e) {
+            log.error("OutboundSender | Error while sending to chat {} ", lane.chatId, e);
+        } finally {
+            complete(lane, outbound, retryAfterNanos);
+        }
+    }
+
+    private void complete(ChatLane lane, Outbound outbound, long retryAfterNanos) {
+        synchronized (lane) {
+            if (retryAfterNanos > 0) {
+                lane.queue.addFirst(outbound);
+                schedule(lane, retryAfterNanos);
+                return;
+            }
+            release();
+            if (lane.queue.isEmpty()) {
+                lane.active = false;
+            } else {
+                schedule(lane, lane.bucket.nanosUntilAvailable());
+            }
+        }
+    }
+
+    private long getRetryAfterNanos(TelegramApiRequestException e) {
+        if (e.getErrorCode() == null || e.getErrorCode() != TOO_MANY_REQUESTS) {
+            return 0;
+        }
+        if (e.getParameters() == null || e.getParameters().getRetryAfter() == null) {
+            return TimeUnit.SECONDS.toNanos(1);
+        }
+        return TimeUnit.SECONDS.toNanos(e.getParameters().getRetryAfter());
+    }
+
+    private void removeIdleLanes() {
+        lanes.values().forEach(lane -> {
+            synchronized (lane) {
+                if (!lane.active && lane.queue.isEmpty() && lane.bucket.isFull()) {
+                    lane.retired = true;
+                    lanes.remove(lane.chatId, lane);
+                }
+            }
+        });
+    }
+
+    private static final class ChatLane {
+
+        private final Long chatId;
+
+        private final TokenBucket bucket;
+
+        private final Deque<Outbound> queue = new ArrayDeque<>();
+
+        private boolean active;
+
+        private boolean retired;
+
+        private ChatLane(Long chatId, TokenBucket bucket) {
+            this.chatId = chatId;
+            this.bucket = bucket;
+        }
+    }
+
+    private static final class Outbound {
+
+        private BotApiMethod<?> method;
+
+        private int attempts;
+
+        private Outbound(BotApiMethod<?> method) {
+            this.method = method;
+        }
+    }
+}
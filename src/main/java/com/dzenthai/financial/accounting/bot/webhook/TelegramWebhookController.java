@@ -0,0 +1,77 @@
+package com.dzenthai.financial.accounting.bot.webhook;
+
+import com.dzenthai.financial.accounting.bot.TelegramBot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+
+@Slf4j
+@RestController
+@ConditionalOnProperty(name = "bot.transport", havingValue = "webhook")
+public class TelegramWebhookController {
+
+    private static final String SECRET_TOKEN_HEADER = "X-Telegram-Bot-Api-Secret-Token";
+
+    private static final String METHOD_FIELD = "method";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final TelegramBot telegramBot;
+
+    private final byte[] secretToken;
+
+    private final boolean replyInResponse;
+
+    public TelegramWebhookController(
+            TelegramBot telegramBot,
+            @Value("${bot.webhook.secret}") String secretToken,
+            @Value("${bot.webhook.reply-in-response}") boolean replyInResponse
+    ) {
+        this.telegramBot = telegramBot;
+        this.secretToken = secretToken.isBlank() ? new byte[0] : secretToken.getBytes(StandardCharsets.UTF_8);
+        this.replyInResponse = replyInResponse;
+    }
+
+    @PostMapping("${bot.webhook.path}")
+    public ResponseEntity<?> onUpdateReceived(
+            @RequestHeader(value = SECRET_TOKEN_HEADER, required = false) String token,
+            @RequestBody Update update
+    ) {
+        if (!isAuthorized(token)) {
+            log.warn("TelegramWebhookController | Rejected update with invalid secret token");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (!replyInResponse) {
+            telegramBot.onUpdateReceived(update);
+            return ResponseEntity.ok().build();
+        }
+        BotApiMethod<?> method = telegramBot.dispatchForResponse(update);
+        if (method == null) {
+            return ResponseEntity.ok().build();
+        }
+        ObjectNode body = objectMapper.valueToTree(method);
+        body.put(METHOD_FIELD, method.getMethod());
+        return ResponseEntity.ok(body);
+    }
+
+    private boolean isAuthorized(String token) {
+        if (secretToken.length == 0) {
+            return true;
+        }
+        return token != null && MessageDigest.isEqual(secretToken, token.getBytes(StandardCharsets.UTF_8));
+    }
+}
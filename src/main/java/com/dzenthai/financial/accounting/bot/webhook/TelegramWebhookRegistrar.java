@@ -0,0 +1,58 @@
+package com.dzenthai.financial.accounting.bot.webhook;
+
+import com.dzenthai.financial.accounting.bot.TelegramBot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.methods.updates.SetWebhook;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "bot.transport", havingValue = "webhook")
+public class TelegramWebhookRegistrar implements ApplicationRunner {
+
+    private final TelegramBot telegramBot;
+
+    private final String webhookUrl;
+
+    private final String secretToken;
+
+    private final boolean register;
+
+    public TelegramWebhookRegistrar(
+            TelegramBot telegramBot,
+            @Value("${bot.webhook.url}") String webhookUrl,
+            @Value("${bot.webhook.secret}") String secretToken,
+            @Value("${bot.webhook.register}") boolean register
+    ) {
+        this.telegramBot = telegramBot;
+        this.webhookUrl = webhookUrl;
+        this.secretToken = secretToken;
+        this.register = register;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!register) {
+            log.info("TelegramWebhookRegistrar | Webhook registration is disabled");
+            return;
+        }
+        SetWebhook setWebhook = SetWebhook.builder()
+                .url(webhookUrl)
+                .build();
+        if (!secretToken.isBlank()) {
+            setWebhook.setSecretToken(secretToken);
+        }
+        try {
+            telegramBot.execute(setWebhook);
+        } catch (TelegramApiException e) {
+            throw new RuntimeException(e);
+        }
+        log.info("TelegramWebhookRegistrar | Registered webhook {}", webhookUrl);
+    }
+}
@@ -11,6 +11,7 @@ public enum AccountData {
     ACCOUNT_DATETIME_SIXMONTH_,
     ACCOUNT_DATETIME_YEAR_,
     ACCOUNT_DATETIME_WEEK_,
+    ACCOUNT_DATETIME_CUSTOM_,
     ACCOUNT_GET_,
     ACCOUNT_DELETE_YES_,
     ACCOUNT_DELETE_NO_, ACCOUNT_DATETIME_DAY_,
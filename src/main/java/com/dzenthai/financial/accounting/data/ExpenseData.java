@@ -6,6 +6,7 @@ public enum ExpenseData {
     EXPENSE,
     EXPENSE_ADD_AMOUNT,
     EXPENSE_ADD_CATEGORY_,
+    EXPENSE_ADD_NOTE_SKIP,
     EXPENSE_EDIT_AMOUNT_,
     EXPENSE_EDIT_CATEGORY_,
     EXPENSE_EDIT_NOTE_,
@@ -15,6 +16,10 @@ public enum ExpenseData {
     EXPENSE_DELETE_NO_,
     EXPENSE_GET_,
     EXPENSE_REPORT_,
+    EXPENSE_PAGE_OLDER_,
+    EXPENSE_PAGE_NEWER_,
+    EXPENSE_FILTER,
+    EXPENSE_FILTER_,
 
     EXPENSE_LIMIT_ADD_,
     EXPENSE_LIMIT_DELETE_,
@@ -23,4 +28,6 @@ public enum ExpenseData {
     EXPENSE_BACK,
     EXPENSE_LIMIT,
     EXPENSE_LIMIT_EXCEEDED,
+    EXPENSE_LIMIT_EXCEEDED_OLDER_,
+    EXPENSE_LIMIT_EXCEEDED_NEWER_,
 }
@@ -6,6 +6,7 @@ public enum IncomeData {
     INCOME,
     INCOME_ADD_AMOUNT,
     INCOME_ADD_CATEGORY_,
+    INCOME_ADD_NOTE_SKIP,
     INCOME_EDIT_AMOUNT_,
     INCOME_EDIT_CATEGORY_,
     INCOME_EDIT_CATEGORY__,
@@ -16,5 +17,9 @@ public enum IncomeData {
     INCOME_DELETE_NO_,
     INCOME_GET_,
     INCOME_REPORT_,
+    INCOME_PAGE_OLDER_,
+    INCOME_PAGE_NEWER_,
+    INCOME_FILTER,
+    INCOME_FILTER_,
     INCOME_BACK,
 }
@@ -1,8 +1,11 @@
 package com.dzenthai.financial.accounting.entity;
 
+import com.dzenthai.financial.accounting.service.cache.SecondLevelCacheConfiguration;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -12,6 +15,8 @@ import java.util.List;
 @Getter
 @Setter
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfiguration.ACCOUNT_REGION)
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,7 +24,8 @@ import java.util.List;
 public class Account {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "accounts_seq")
+    @SequenceGenerator(name = "accounts_seq", sequenceName = "accounts_seq", allocationSize = 50)
     protected Long id;
 
     @Column(unique = true, nullable = false)
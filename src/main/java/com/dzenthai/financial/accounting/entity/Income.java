@@ -22,7 +22,8 @@ import java.time.LocalDateTime;
 public class Income {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "incomes_seq")
+    @SequenceGenerator(name = "incomes_seq", sequenceName = "incomes_seq", allocationSize = 50)
     protected Long id;
 
     @ManyToOne(targetEntity = Account.class, cascade = {
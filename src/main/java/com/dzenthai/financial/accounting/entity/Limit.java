@@ -1,9 +1,12 @@
 package com.dzenthai.financial.accounting.entity;
 
+import com.dzenthai.financial.accounting.service.cache.SecondLevelCacheConfiguration;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import java.math.BigDecimal;
@@ -14,6 +17,8 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfiguration.LIMIT_REGION)
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
@@ -21,13 +26,18 @@ import java.time.LocalDateTime;
 public class Limit {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "limits_seq")
+    @SequenceGenerator(name = "limits_seq", sequenceName = "limits_seq", allocationSize = 50)
     protected Long id;
 
     @DecimalMin(value = "1.0", message = "Сумма не может быть меньше нуля")
     @DecimalMax(value = "1000000000", message = "Сумма слишком большая")
     private BigDecimal limitAmount;
 
+    @Builder.Default
+    @Column(nullable = false)
+    private BigDecimal spent = BigDecimal.ZERO;
+
     @OneToOne(cascade = {CascadeType.MERGE, CascadeType.PERSIST, CascadeType.REFRESH})
     @JoinColumn(name = "account_id")
     private Account account;
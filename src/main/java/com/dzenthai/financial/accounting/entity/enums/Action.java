@@ -24,6 +24,7 @@ public enum Action {
     INCOME_EDIT_CATEGORY,
     INCOME_EDIT_NOTE,
     ACCOUNT_DATETIME,
+    ACCOUNT_DATETIME_CUSTOM,
 
 
 }
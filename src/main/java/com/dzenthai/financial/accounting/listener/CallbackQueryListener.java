@@ -1,11 +1,9 @@
 package com.dzenthai.financial.accounting.listener;
 
-import com.dzenthai.financial.accounting.bot.TelegramBot;
-import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
-import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
+import com.dzenthai.financial.accounting.bot.router.CallbackRouter;
 
 
 public interface CallbackQueryListener {
 
-    BotApiMethod<?> onCallbackQuery(CallbackQuery callbackQuery, String[] words, TelegramBot telegramBot);
+    void registerCallbackRoutes(CallbackRouter callbackRouter);
 }
@@ -0,0 +1,5 @@
+package com.dzenthai.financial.accounting.projection;
+
+
+public record AccountListItem(Long id, String name) {
+}
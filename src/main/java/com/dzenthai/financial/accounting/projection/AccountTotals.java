@@ -0,0 +1,17 @@
+package com.dzenthai.financial.accounting.projection;
+
+
+public record AccountTotals(Money incomes, Money expenses) {
+
+    public AccountTotals plus(AccountTotals other) {
+        return new AccountTotals(incomes.plus(other.incomes), expenses.plus(other.expenses));
+    }
+
+    public Money balance() {
+        return incomes.minus(expenses);
+    }
+
+    public boolean isEmpty() {
+        return incomes.isZero() && expenses.isZero();
+    }
+}
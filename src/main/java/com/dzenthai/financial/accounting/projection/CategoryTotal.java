@@ -0,0 +1,19 @@
+package com.dzenthai.financial.accounting.projection;
+
+import java.math.BigDecimal;
+
+
+public interface CategoryTotal {
+
+    String getCategory();
+
+    BigDecimal getAmount();
+
+    Long getCount();
+
+    BigDecimal getMinAmount();
+
+    BigDecimal getMaxAmount();
+
+    Boolean getTotal();
+}
@@ -0,0 +1,17 @@
+package com.dzenthai.financial.accounting.projection;
+
+import com.dzenthai.financial.accounting.entity.enums.ExpenseCategory;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+
+public record ExpenseDetails(
+        Long id,
+        ExpenseCategory category,
+        BigDecimal amount,
+        String note,
+        LocalDateTime datetime,
+        String accountName
+) {
+}
@@ -0,0 +1,14 @@
+package com.dzenthai.financial.accounting.projection;
+
+import com.dzenthai.financial.accounting.entity.enums.ExpenseCategory;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+
+public record ExpenseListItem(Long id, ExpenseCategory category, BigDecimal amount, LocalDateTime datetime) {
+
+    public PageCursor cursor() {
+        return new PageCursor(datetime, id);
+    }
+}
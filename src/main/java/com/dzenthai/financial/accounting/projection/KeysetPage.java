@@ -0,0 +1,48 @@
+package com.dzenthai.financial.accounting.projection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+
+public record KeysetPage<T>(List<T> items, PageCursor newer, PageCursor older) {
+
+    public static <T> KeysetPage<T> ofOlder(
+            List<T> rows,
+            int size,
+            boolean hasNewer,
+            Function<T, PageCursor> cursor
+    ) {
+        boolean hasOlder = rows.size() > size;
+        List<T> items = hasOlder ? rows.subList(0, size) : rows;
+        if (items.isEmpty()) {
+            return new KeysetPage<>(items, null, null);
+        }
+        return new KeysetPage<>(
+                items,
+                hasNewer ? cursor.apply(items.get(0)) : null,
+                hasOlder ? cursor.apply(items.get(items.size() - 1)) : null);
+    }
+
+    public static <T> KeysetPage<T> ofNewer(
+            List<T> rows,
+            int size,
+            Function<T, PageCursor> cursor
+    ) {
+        boolean hasNewer = rows.size() > size;
+        List<T> items = new ArrayList<>(hasNewer ? rows.subList(0, size) : rows);
+        if (items.isEmpty()) {
+            return new KeysetPage<>(items, null, null);
+        }
+        Collections.reverse(items);
+        return new KeysetPage<>(
+                items,
+                hasNewer ? cursor.apply(items.get(0)) : null,
+                cursor.apply(items.get(items.size() - 1)));
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+}
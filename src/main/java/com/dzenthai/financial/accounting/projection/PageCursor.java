@@ -0,0 +1,24 @@
+package com.dzenthai.financial.accounting.projection;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+
+public record PageCursor(LocalDateTime datetime, Long id) {
+
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+
+    private static final int NANOS_PER_MICRO = 1_000;
+
+    public static PageCursor of(long epochMicros, long id) {
+        LocalDateTime datetime = LocalDateTime.ofEpochSecond(
+                Math.floorDiv(epochMicros, MICROS_PER_SECOND),
+                (int) Math.floorMod(epochMicros, MICROS_PER_SECOND) * NANOS_PER_MICRO,
+                ZoneOffset.UTC);
+        return new PageCursor(datetime, id);
+    }
+
+    public long epochMicros() {
+        return datetime.toEpochSecond(ZoneOffset.UTC) * MICROS_PER_SECOND + datetime.getNano() / NANOS_PER_MICRO;
+    }
+}
@@ -2,21 +2,37 @@ package com.dzenthai.financial.accounting.repository;
 
 import com.dzenthai.financial.accounting.entity.Account;
 import com.dzenthai.financial.accounting.entity.User;
+import com.dzenthai.financial.accounting.projection.AccountListItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
 
 @Repository
-public interface AccountRepo extends JpaRepository<Account, Long> {
-
-    Optional<Account> findAccountById(Long id);
+public interface AccountRepo extends JpaRepository<Account, Long>, BulkInsertRepo<Account> {
 
     Optional<Account> findAccountByNameAndUser(String name, User user);
 
-    Optional<List<Account>> findAccountsByUser(User user);
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("""
+            SELECT new com.dzenthai.financial.accounting.projection.AccountListItem(a.id, a.name)
+            FROM Account a
+            WHERE a.user = :user
+            ORDER BY a.id
+            """)
+    List<AccountListItem> findListItemsByUser(@Param("user") User user);
+
+    @Transactional(readOnly = true)
+    boolean existsByUser(User user);
 
     void deleteAccountByIdAndUser(Long id, User user);
 }
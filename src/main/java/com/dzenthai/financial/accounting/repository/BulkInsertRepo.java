@@ -0,0 +1,9 @@
+package com.dzenthai.financial.accounting.repository;
+
+import java.util.Collection;
+
+
+public interface BulkInsertRepo<T> {
+
+    void insertAll(Collection<T> entities);
+}
@@ -0,0 +1,46 @@
+package com.dzenthai.financial.accounting.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+
+public class BulkInsertRepoImpl<T> implements BulkInsertRepo<T> {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final int batchSize;
+
+    public BulkInsertRepoImpl(@Value("${spring.jpa.properties.hibernate.jdbc.batch_size}") int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    @Transactional
+    public void insertAll(Collection<T> entities) {
+        List<T> batch = new ArrayList<>(batchSize);
+        for (T entity : entities) {
+            entityManager.persist(entity);
+            batch.add(entity);
+            if (batch.size() == batchSize) {
+                flush(batch);
+            }
+        }
+        flush(batch);
+    }
+
+    private void flush(List<T> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        batch.forEach(entityManager::detach);
+        batch.clear();
+    }
+}
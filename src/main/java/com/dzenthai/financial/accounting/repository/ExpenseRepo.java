@@ -2,8 +2,16 @@ package com.dzenthai.financial.accounting.repository;
 
 import com.dzenthai.financial.accounting.entity.Account;
 import com.dzenthai.financial.accounting.entity.Expense;
+import com.dzenthai.financial.accounting.entity.enums.ExpenseCategory;
+import com.dzenthai.financial.accounting.projection.CategoryTotal;
+import com.dzenthai.financial.accounting.projection.ExpenseDetails;
+import com.dzenthai.financial.accounting.projection.ExpenseListItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -13,10 +21,179 @@ import java.util.Optional;
 @Repository
 public interface ExpenseRepo extends JpaRepository<Expense, Long> {
 
-    Optional<List<Expense>> findByAccountAndDatetimeAfter(Account account, LocalDateTime date);
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.dzenthai.financial.accounting.projection.ExpenseListItem(e.id, e.category, e.amount, e.datetime)
+            FROM Expense e
+            WHERE e.account.id = :accountId
+              AND e.datetime > (SELECT a.compareDate FROM Account a WHERE a.id = :accountId)
+            ORDER BY e.datetime DESC, e.id DESC
+            """)
+    List<ExpenseListItem> findFirstPage(
+            @Param("accountId") Long accountId,
+            Pageable pageable
+    );
+
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.dzenthai.financial.accounting.projection.ExpenseListItem(e.id, e.category, e.amount, e.datetime)
+            FROM Expense e
+            WHERE e.account.id = :accountId
+              AND e.category = :category
+              AND e.datetime > (SELECT a.compareDate FROM Account a WHERE a.id = :accountId)
+            ORDER BY e.datetime DESC, e.id DESC
+            """)
+    List<ExpenseListItem> findFirstPageByCategory(
+            @Param("accountId") Long accountId,
+            @Param("category") ExpenseCategory category,
+            Pageable pageable
+    );
+
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.dzenthai.financial.accounting.projection.ExpenseListItem(e.id, e.category, e.amount, e.datetime)
+            FROM Expense e
+            WHERE e.account.id = :accountId
+              AND e.datetime > (SELECT a.compareDate FROM Account a WHERE a.id = :accountId)
+              AND e.datetime <= :datetime
+              AND (e.datetime < :datetime OR e.id < :id)
+            ORDER BY e.datetime DESC, e.id DESC
+            """)
+    List<ExpenseListItem> findPageOlderThan(
+            @Param("accountId") Long accountId,
+            @Param("datetime") LocalDateTime datetime,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.dzenthai.financial.accounting.projection.ExpenseListItem(e.id, e.category, e.amount, e.datetime)
+            FROM Expense e
+            WHERE e.account.id = :accountId
+              AND e.category = :category
+              AND e.datetime > (SELECT a.compareDate FROM Account a WHERE a.id = :accountId)
+              AND e.datetime <= :datetime
+              AND (e.datetime < :datetime OR e.id < :id)
+            ORDER BY e.datetime DESC, e.id DESC
+            """)
+    List<ExpenseListItem> findPageByCategoryOlderThan(
+            @Param("accountId") Long accountId,
+            @Param("category") ExpenseCategory category,
+            @Param("datetime") LocalDateTime datetime,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.dzenthai.financial.accounting.projection.ExpenseListItem(e.id, e.category, e.amount, e.datetime)
+            FROM Expense e
+            WHERE e.account.id = :accountId
+              AND e.datetime > (SELECT a.compareDate FROM Account a WHERE a.id = :accountId)
+              AND e.datetime >= :datetime
+              AND (e.datetime > :datetime OR e.id > :id)
+            ORDER BY e.datetime, e.id
+            """)
+    List<ExpenseListItem> findPageNewerThan(
+            @Param("accountId") Long accountId,
+            @Param("datetime") LocalDateTime datetime,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.dzenthai.financial.accounting.projection.ExpenseListItem(e.id, e.category, e.amount, e.datetime)
+            FROM Expense e
+            WHERE e.account.id = :accountId
+              AND e.category = :category
+              AND e.datetime > (SELECT a.compareDate FROM Account a WHERE a.id = :accountId)
+              AND e.datetime >= :datetime
+              AND (e.datetime > :datetime OR e.id > :id)
+            ORDER BY e.datetime, e.id
+            """)
+    List<ExpenseListItem> findPageByCategoryNewerThan(
+            @Param("accountId") Long accountId,
+            @Param("category") ExpenseCategory category,
+            @Param("datetime") LocalDateTime datetime,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.dzenthai.financial.accounting.projection.ExpenseDetails(
+                e.id, e.category, e.amount, e.note, e.datetime, a.name)
+            FROM Expense e
+            LEFT JOIN e.account a
+            WHERE e.id = :id
+            """)
+    Optional<ExpenseDetails> findDetailsById(@Param("id") Long id);
+
+    @Query(value = """
+            SELECT e.category AS category,
+                   SUM(e.amount) AS amount,
+                   COUNT(*) AS count,
+                   MIN(e.amount) AS minAmount,
+                   MAX(e.amount) AS maxAmount,
+                   GROUPING(e.category) = 1 AS total
+            FROM expenses e
+            WHERE e.account_id = :accountId AND e.datetime > :datetime AND e.amount IS NOT NULL
+            GROUP BY ROLLUP (e.category)
+            ORDER BY GROUPING(e.category), e.category
+            """, nativeQuery = true)
+    List<CategoryTotal> findCategoryTotalsByAccountAndDatetimeAfter(
+            @Param("accountId") Long accountId,
+            @Param("datetime") LocalDateTime datetime
+    );
 
     Optional<List<Expense>> findByAccount(Account account);
 
     Optional<Expense> findExpenseById(Long id);
 
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.dzenthai.financial.accounting.projection.ExpenseListItem(e.id, e.category, e.amount, e.datetime)
+            FROM Expense e
+            WHERE e.account.id = :accountId AND e.limitExceeded = true
+            ORDER BY e.datetime DESC, e.id DESC
+            """)
+    List<ExpenseListItem> findLimitExceededListItemsByAccountId(@Param("accountId") Long accountId, Pageable pageable);
+
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.dzenthai.financial.accounting.projection.ExpenseListItem(e.id, e.category, e.amount, e.datetime)
+            FROM Expense e
+            WHERE e.account.id = :accountId AND e.limitExceeded = true
+              AND e.datetime <= :datetime
+              AND (e.datetime < :datetime OR e.id < :id)
+            ORDER BY e.datetime DESC, e.id DESC
+            """)
+    List<ExpenseListItem> findLimitExceededPageOlderThan(
+            @Param("accountId") Long accountId,
+            @Param("datetime") LocalDateTime datetime,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.dzenthai.financial.accounting.projection.ExpenseListItem(e.id, e.category, e.amount, e.datetime)
+            FROM Expense e
+            WHERE e.account.id = :accountId AND e.limitExceeded = true
+              AND e.datetime >= :datetime
+              AND (e.datetime > :datetime OR e.id > :id)
+            ORDER BY e.datetime, e.id
+            """)
+    List<ExpenseListItem> findLimitExceededPageNewerThan(
+            @Param("accountId") Long accountId,
+            @Param("datetime") LocalDateTime datetime,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
+    @Transactional(readOnly = true)
+    boolean existsByAccountIdAndLimitExceededTrue(Long accountId);
+
 }
@@ -2,8 +2,16 @@ package com.dzenthai.financial.accounting.repository;
 
 import com.dzenthai.financial.accounting.entity.Account;
 import com.dzenthai.financial.accounting.entity.Income;
+import com.dzenthai.financial.accounting.entity.enums.IncomeCategory;
+import com.dzenthai.financial.accounting.projection.CategoryTotal;
+import com.dzenthai.financial.accounting.projection.IncomeDetails;
+import com.dzenthai.financial.accounting.projection.IncomeListItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -13,6 +21,131 @@ import java.util.Optional;
 @Repository
 public interface IncomeRepo extends JpaRepository<Income, Long> {
 
-    Optional<List<Income>> findByAccountAndDatetimeAfter(Account account, LocalDateTime date);
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.dzenthai.financial.accounting.projection.IncomeListItem(i.id, i.category, i.amount, i.datetime)
+            FROM Income i
+            WHERE i.account.id = :accountId
+              AND i.datetime > (SELECT a.compareDate FROM Account a WHERE a.id = :accountId)
+            ORDER BY i.datetime DESC, i.id DESC
+            """)
+    List<IncomeListItem> findFirstPage(
+            @Param("accountId") Long accountId,
+            Pageable pageable
+    );
+
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.dzenthai.financial.accounting.projection.IncomeListItem(i.id, i.category, i.amount, i.datetime)
+            FROM Income i
+            WHERE i.account.id = :accountId
+              AND i.category = :category
+              AND i.datetime > (SELECT a.compareDate FROM Account a WHERE a.id = :accountId)
+            ORDER BY i.datetime DESC, i.id DESC
+            """)
+    List<IncomeListItem> findFirstPageByCategory(
+            @Param("accountId") Long accountId,
+            @Param("category") IncomeCategory category,
+            Pageable pageable
+    );
+
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.dzenthai.financial.accounting.projection.IncomeListItem(i.id, i.category, i.amount, i.datetime)
+            FROM Income i
+            WHERE i.account.id = :accountId
+              AND i.datetime > (SELECT a.compareDate FROM Account a WHERE a.id = :accountId)
+              AND i.datetime <= :datetime
+              AND (i.datetime < :datetime OR i.id < :id)
+            ORDER BY i.datetime DESC, i.id DESC
+            """)
+    List<IncomeListItem> findPageOlderThan(
+            @Param("accountId") Long accountId,
+            @Param("datetime") LocalDateTime datetime,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.dzenthai.financial.accounting.projection.IncomeListItem(i.id, i.category, i.amount, i.datetime)
+            FROM Income i
+            WHERE i.account.id = :accountId
+              AND i.category = :category
+              AND i.datetime > (SELECT a.compareDate FROM Account a WHERE a.id = :accountId)
+              AND i.datetime <= :datetime
+              AND (i.datetime < :datetime OR i.id < :id)
+            ORDER BY i.datetime DESC, i.id DESC
+            """)
+    List<IncomeListItem> findPageByCategoryOlderThan(
+            @Param("accountId") Long accountId,
+            @Param("category") IncomeCategory category,
+            @Param("datetime") LocalDateTime datetime,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.dzenthai.financial.accounting.projection.IncomeListItem(i.id, i.category, i.amount, i.datetime)
+            FROM Income i
+            WHERE i.account.id = :accountId
+              AND i.datetime > (SELECT a.compareDate FROM Account a WHERE a.id = :accountId)
+              AND i.datetime >= :datetime
+              AND (i.datetime > :datetime OR i.id > :id)
+            ORDER BY i.datetime, i.id
+            """)
+    List<IncomeListItem> findPageNewerThan(
+            @Param("accountId") Long accountId,
+            @Param("datetime") LocalDateTime datetime,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.dzenthai.financial.accounting.projection.IncomeListItem(i.id, i.category, i.amount, i.datetime)
+            FROM Income i
+            WHERE i.account.id = :accountId
+              AND i.category = :category
+              AND i.datetime > (SELECT a.compareDate FROM Account a WHERE a.id = :accountId)
+              AND i.datetime >= :datetime
+              AND (i.datetime > :datetime OR i.id > :id)
+            ORDER BY i.datetime, i.id
+            """)
+    List<IncomeListItem> findPageByCategoryNewerThan(
+            @Param("accountId") Long accountId,
+            @Param("category") IncomeCategory category,
+            @Param("datetime") LocalDateTime datetime,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.dzenthai.financial.accounting.projection.IncomeDetails(
+                i.id, i.category, i.amount, i.note, i.datetime, a.name)
+            FROM Income i
+            LEFT JOIN i.account a
+            WHERE i.id = :id
+            """)
+    Optional<IncomeDetails> findDetailsById(@Param("id") Long id);
+
+    @Query(value = """
+            SELECT i.category AS category,
+                   SUM(i.amount) AS amount,
+                   COUNT(*) AS count,
+                   MIN(i.amount) AS minAmount,
+                   MAX(i.amount) AS maxAmount,
+                   GROUPING(i.category) = 1 AS total
+            FROM incomes i
+            WHERE i.account_id = :accountId AND i.datetime > :datetime AND i.amount IS NOT NULL
+            GROUP BY ROLLUP (i.category)
+            ORDER BY GROUPING(i.category), i.category
+            """, nativeQuery = true)
+    List<CategoryTotal> findCategoryTotalsByAccountAndDatetimeAfter(
+            @Param("accountId") Long accountId,
+            @Param("datetime") LocalDateTime datetime
+    );
 
 }
@@ -2,8 +2,12 @@ package com.dzenthai.financial.accounting.repository;
 
 import com.dzenthai.financial.accounting.entity.Account;
 import com.dzenthai.financial.accounting.entity.Limit;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -11,6 +15,15 @@ import java.util.Optional;
 @Repository
 public interface LimitRepo extends JpaRepository<Limit, Long> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Limit> findLimitByAccount(Account account);
 
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Optional<Limit> findLimitByAccountId(Long accountId);
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    boolean existsByAccountId(Long accountId);
+
 }
@@ -2,7 +2,10 @@ package com.dzenthai.financial.accounting.repository;
 
 import com.dzenthai.financial.accounting.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -12,6 +15,13 @@ public interface UserRepo extends JpaRepository<User, Long> {
 
     Optional<User> findUserByChatId(Long chatId);
 
-    boolean existsByChatId(Long chatId);
+    @Transactional
+    @Query(value = """
+            INSERT INTO users (chat_id, action)
+            VALUES (:chatId, 'FREE')
+            ON CONFLICT (chat_id) DO NOTHING
+            RETURNING id
+            """, nativeQuery = true)
+    Optional<Long> insertIfAbsent(@Param("chatId") Long chatId);
 
 }
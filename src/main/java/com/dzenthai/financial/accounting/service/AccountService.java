@@ -1,12 +1,16 @@
 package com.dzenthai.financial.accounting.service;
 
 import com.dzenthai.financial.accounting.entity.Account;
-import com.dzenthai.financial.accounting.entity.Expense;
-import com.dzenthai.financial.accounting.entity.Income;
 import com.dzenthai.financial.accounting.entity.User;
 import com.dzenthai.financial.accounting.entity.enums.Action;
+import com.dzenthai.financial.accounting.projection.AccountListItem;
+import com.dzenthai.financial.accounting.projection.AccountTotals;
 import com.dzenthai.financial.accounting.repository.AccountRepo;
+import com.dzenthai.financial.accounting.service.analytics.AnalyticsStore;
 import com.dzenthai.financial.accounting.service.builder.MessageBuilder;
+import com.dzenthai.financial.accounting.service.builder.MessageTemplate;
+import com.dzenthai.financial.accounting.service.cache.ScreenCache;
+import com.dzenthai.financial.accounting.service.cache.ScreenCache.RenderedScreen;
 import com.dzenthai.financial.accounting.service.factory.AccountKeyboardFactory;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -17,9 +21,10 @@ import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
 import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 import org.telegram.telegrambots.meta.api.objects.Message;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 
@@ -27,35 +32,57 @@ import java.util.List;
 @Service
 public class AccountService {
 
+    private static final DateTimeFormatter PERIOD_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+    private static final MessageTemplate ACCOUNT_TOTALS_TEMPLATE = MessageTemplate.compile("""
+            🕒 {}:
+            
+            ✨ Доходы: {}
+            💸 Расходы: {}
+            
+            💰 Баланс: {}
+            """);
+
+    private static final MessageTemplate CUSTOM_PERIOD_TEMPLATE = MessageTemplate.compile("""
+            🕒 За период {} - {}:
+            
+            ✨ Доходы: {}
+            💸 Расходы: {}
+            
+            💰 Баланс: {}
+            """);
+
     @PersistenceContext
     private EntityManager entityManager;
     private final AccountKeyboardFactory accountKeyboardFactory;
     private final MessageBuilder messageBuilder;
     private final AccountRepo accountRepo;
     private final UserService userService;
-    private final ExpenseService expenseService;
-    private final IncomeService incomeService;
+    private final AccountTotalsService accountTotalsService;
+    private final ScreenCache screenCache;
+    private final AnalyticsStore analyticsStore;
 
     public AccountService(
             AccountKeyboardFactory accountKeyboardFactory,
             MessageBuilder messageBuilder,
             AccountRepo accountRepo,
             UserService userService,
-            ExpenseService expenseService,
-            IncomeService incomeService
+            AccountTotalsService accountTotalsService,
+            ScreenCache screenCache,
+            AnalyticsStore analyticsStore
     ) {
         this.accountKeyboardFactory = accountKeyboardFactory;
         this.messageBuilder = messageBuilder;
         this.accountRepo = accountRepo;
         this.userService = userService;
-        this.expenseService = expenseService;
-        this.incomeService = incomeService;
+        this.accountTotalsService = accountTotalsService;
+        this.screenCache = screenCache;
+        this.analyticsStore = analyticsStore;
     }
 
     public BotApiMethod<?> accountMenu(BotApiObject botApiObject) {
         User user = userService.findUserByBotApiObject(botApiObject);
-        List<Account> account = getAllAccountsByUser(user);
-        if (account.isEmpty()) {
+        if (!accountRepo.existsByUser(user)) {
             return messageBuilder.buildMessage("""
                             Меню счетов. 🏛️
                             
@@ -120,12 +147,14 @@ public class AccountService {
     }
 
     @Transactional
-    public BotApiMethod<?> deleteAccount(CallbackQuery callbackQuery, String accountId) {
+    public BotApiMethod<?> deleteAccount(CallbackQuery callbackQuery, Long accountId) {
         Long chatId = callbackQuery.getMessage().getChatId();
         User user = userService.findUserByBotApiObject(callbackQuery);
-        Account account = getAccountById(Long.valueOf(accountId));
+        Account account = getAccountById(accountId);
         if (account != null) {
+            analyticsStore.removeAccount(account.getId());
             accountRepo.deleteAccountByIdAndUser(account.getId(), user);
+            screenCache.invalidate(account.getId());
             userService.updateUserAction(chatId, Action.FREE);
             return messageBuilder.buildMessage(
                     "Счет с названием - %s удален!".formatted(account.getName()),
@@ -136,8 +165,8 @@ public class AccountService {
     }
 
     @Transactional
-    public BotApiMethod<?> setAccountDatetime(CallbackQuery callbackQuery, String accountId, LocalDateTime datetime) {
-        Account account = getAccountById(Long.valueOf(accountId));
+    public BotApiMethod<?> setAccountDatetime(CallbackQuery callbackQuery, Long accountId, LocalDateTime datetime) {
+        Account account = getAccountById(accountId);
         updateCompareDate(account, datetime);
         return messageBuilder.buildMessage(
                 "Дата и время успешно установлены!",
@@ -145,28 +174,62 @@ public class AccountService {
                 accountKeyboardFactory.backToAccount(accountId));
     }
 
-    public BotApiMethod<?> getAccount(CallbackQuery callbackQuery, String id) {
-        Account account = getAccountById(Long.valueOf(id));
-        BigDecimal totalIncomes = incomeService
-                .getAllIncomesByAccountAndDateAfter(account, account.getCompareDate())
-                .stream()
-                .map(Income::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal totalExpenses = expenseService
-                .getAllExpensesByAccountAndDateAfter(account, account.getCompareDate())
-                .stream()
-                .map(Expense::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal balance = totalIncomes.subtract(totalExpenses);
-        if (totalExpenses.compareTo(BigDecimal.ZERO) == 0 && totalIncomes.compareTo(BigDecimal.ZERO) == 0) {
-            return messageBuilder.buildMessage("""
+    public BotApiMethod<?> getCustomPeriod(Message message) {
+        Long chatId = message.getChatId();
+        User user = userService.findUserByBotApiObject(message);
+        Long accountId = user.getCurrentAccountId();
+        String[] dates = message.getText().split("-");
+        if (dates.length > 2) {
+            return periodError(message, accountId,
+                    "Неверный формат периода. Пожалуйста, введите период в формате ДД.ММ.ГГГГ - ДД.ММ.ГГГГ.");
+        }
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = LocalDate.parse(dates[0].trim(), PERIOD_FORMATTER);
+            to = dates.length > 1 ? LocalDate.parse(dates[1].trim(), PERIOD_FORMATTER) : from;
+        } catch (DateTimeParseException e) {
+            return periodError(message, accountId,
+                    "Неверный формат периода. Пожалуйста, введите период в формате ДД.ММ.ГГГГ - ДД.ММ.ГГГГ.");
+        }
+        if (to.isBefore(from)) {
+            return periodError(message, accountId, "Ошибка: дата окончания периода не может быть раньше даты начала.");
+        }
+        AccountTotals totals = accountTotalsService.getTotals(accountId, from, to.plusDays(1));
+        userService.updateUserAction(chatId, Action.FREE);
+        String text = CUSTOM_PERIOD_TEMPLATE.render()
+                .text(from.format(PERIOD_FORMATTER))
+                .text(to.format(PERIOD_FORMATTER))
+                .money(totals.incomes())
+                .money(totals.expenses())
+                .money(totals.balance())
+                .end()
+                .toString();
+        return messageBuilder.buildMessage(text,
+                message,
+                accountKeyboardFactory.backToAccount(accountId));
+    }
+
+    private BotApiMethod<?> periodError(Message message, Long accountId, String text) {
+        return messageBuilder.buildMessage(text, message, accountKeyboardFactory.backToAccount(accountId));
+    }
+
+    public BotApiMethod<?> getAccount(CallbackQuery callbackQuery, Long id) {
+        RenderedScreen screen = screenCache.get(ScreenCache.Screen.ACCOUNT, id, () -> renderAccount(id));
+        return messageBuilder.buildMessage(screen.text(), callbackQuery, screen.keyboard());
+    }
+
+    private RenderedScreen renderAccount(Long id) {
+        Account account = getAccountById(id);
+        AccountTotals totals = accountTotalsService.getTotals(account.getId(), account.getCompareDate());
+        if (totals.isEmpty()) {
+            return new RenderedScreen("""
                             В данный момент ваш список доходов и расходов пуст.
                             
                             Добавьте первый доход или трату, чтобы начать учет.
                             
                             Выберите интересующий вас пункт меню:
                             """,
-                    callbackQuery,
                     accountKeyboardFactory.accountOperationKeyboard(id)
             );
         }
@@ -191,29 +254,26 @@ public class AccountService {
         } else {
             datetime = "За указанный период";
         }
-        return messageBuilder.buildMessage("""
-                        🕒 %s:
-                        
-                        ✨ Доходы: %s
-                        💸 Расходы: %s
-                        
-                        💰 Баланс: %s
-                        """.formatted(datetime, totalIncomes, totalExpenses, balance),
-                callbackQuery,
-                accountKeyboardFactory.accountOperationKeyboard(id)
-        );
+        String text = ACCOUNT_TOTALS_TEMPLATE.render()
+                .text(datetime)
+                .money(totals.incomes())
+                .money(totals.expenses())
+                .money(totals.balance())
+                .end()
+                .toString();
+        return new RenderedScreen(text, accountKeyboardFactory.accountOperationKeyboard(id));
     }
 
     public Account getAccountById(Long id) {
-        return accountRepo.findAccountById(id).orElse(null);
+        return accountRepo.findById(id).orElse(null);
     }
 
     public Account getAccountByNameAndUser(String name, User user) {
         return accountRepo.findAccountByNameAndUser(name, user).orElse(null);
     }
 
-    public List<Account> getAllAccountsByUser(User user) {
-        return accountRepo.findAccountsByUser(user).orElse(null);
+    public List<AccountListItem> getAccountListItems(User user) {
+        return accountRepo.findListItemsByUser(user);
     }
 
     @Transactional
@@ -223,6 +283,7 @@ public class AccountService {
                 .setParameter("newDate", newDate)
                 .setParameter("accountId", account.getId())
                 .executeUpdate();
+        screenCache.invalidate(account.getId());
     }
 
 }
@@ -0,0 +1,196 @@
+package com.dzenthai.financial.accounting.service;
+
+import com.dzenthai.financial.accounting.projection.AccountTotals;
+import com.dzenthai.financial.accounting.projection.Money;
+import com.dzenthai.financial.accounting.service.analytics.AccountTimeIndex;
+import com.dzenthai.financial.accounting.service.analytics.AnalyticsStore;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.query.NativeQuery;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+
+@Slf4j
+@Service
+public class AccountTotalsService {
+
+    private static final String TOTALS_TABLE = "account_daily_totals";
+
+    private static final String DAILY_TOTALS_QUERY = """
+            SELECT account_id, day, SUM(incomes) AS incomes, SUM(expenses) AS expenses
+            FROM (
+                SELECT account_id, CAST(datetime AS date) AS day, amount AS incomes, 0 AS expenses
+                FROM incomes
+                WHERE account_id IS NOT NULL AND datetime IS NOT NULL AND amount IS NOT NULL
+                UNION ALL
+                SELECT account_id, CAST(datetime AS date), 0, amount
+                FROM expenses
+                WHERE account_id IS NOT NULL AND datetime IS NOT NULL AND amount IS NOT NULL
+            ) raw
+            GROUP BY account_id, day
+            """;
+
+    private static final String APPLY_INCOME_QUERY = """
+            INSERT INTO account_daily_totals (account_id, day, incomes, expenses)
+            SELECT i.account_id, CAST(i.datetime AS date), :sign * i.amount, 0
+            FROM incomes i
+            WHERE i.id = :id AND i.account_id IS NOT NULL AND i.datetime IS NOT NULL AND i.amount IS NOT NULL
+            ON CONFLICT (account_id, day)
+            DO UPDATE SET incomes = account_daily_totals.incomes + EXCLUDED.incomes
+            RETURNING account_id, day, incomes, expenses
+            """;
+
+    private static final String APPLY_EXPENSE_QUERY = """
+            INSERT INTO account_daily_totals (account_id, day, incomes, expenses)
+            SELECT e.account_id, CAST(e.datetime AS date), 0, :sign * e.amount
+            FROM expenses e
+            WHERE e.id = :id AND e.account_id IS NOT NULL AND e.datetime IS NOT NULL AND e.amount IS NOT NULL
+            ON CONFLICT (account_id, day)
+            DO UPDATE SET expenses = account_daily_totals.expenses + EXCLUDED.expenses
+            RETURNING account_id, day, incomes, expenses
+            """;
+
+    private static final String PARTIAL_DAY_QUERY = """
+            SELECT
+                COALESCE((SELECT SUM(i.amount) FROM incomes i
+                          WHERE i.account_id = :accountId AND i.datetime > :since AND i.datetime < :nextDay), 0),
+                COALESCE((SELECT SUM(e.amount) FROM expenses e
+                          WHERE e.account_id = :accountId AND e.datetime > :since AND e.datetime < :nextDay), 0)
+            """;
+
+    private static final String RANGE_QUERY = """
+            SELECT COALESCE(SUM(t.incomes), 0), COALESCE(SUM(t.expenses), 0)
+            FROM account_daily_totals t
+            WHERE t.account_id = :accountId AND t.day >= :from AND t.day < :to
+            """;
+
+    private static final String MISMATCHED_ACCOUNTS_QUERY = """
+            SELECT DISTINCT COALESCE(r.account_id, t.account_id)
+            FROM (%s) r
+            FULL OUTER JOIN account_daily_totals t ON t.account_id = r.account_id AND t.day = r.day
+            WHERE COALESCE(r.incomes, 0) <> COALESCE(t.incomes, 0)
+               OR COALESCE(r.expenses, 0) <> COALESCE(t.expenses, 0)
+            """.formatted(DAILY_TOTALS_QUERY);
+
+    private static final String REBUILD_QUERY = """
+            INSERT INTO account_daily_totals (account_id, day, incomes, expenses)
+            SELECT d.account_id, d.day, d.incomes, d.expenses
+            FROM (%s) d
+            WHERE d.account_id = :accountId
+            """.formatted(DAILY_TOTALS_QUERY);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final AnalyticsStore analyticsStore;
+
+    private final AccountTimeIndex accountTimeIndex;
+
+    public AccountTotalsService(AnalyticsStore analyticsStore, AccountTimeIndex accountTimeIndex) {
+        this.analyticsStore = analyticsStore;
+        this.accountTimeIndex = accountTimeIndex;
+    }
+
+    public AccountTotals getTotals(Long accountId, LocalDateTime since) {
+        AccountTotals totals = analyticsStore.getTotals(accountId, since);
+        if (totals != null) {
+            return totals;
+        }
+        LocalDate day = since.toLocalDate();
+        Object[] row = (Object[]) entityManager.createNativeQuery(PARTIAL_DAY_QUERY)
+                .setParameter("accountId", accountId)
+                .setParameter("since", since)
+                .setParameter("nextDay", day.plusDays(1).atStartOfDay())
+                .getSingleResult();
+        AccountTotals partialDay = new AccountTotals(Money.of((BigDecimal) row[0]), Money.of((BigDecimal) row[1]));
+        return partialDay.plus(getTotals(accountId, day.plusDays(1), LocalDate.now().plusDays(1)));
+    }
+
+    public AccountTotals getTotals(Long accountId, LocalDate from, LocalDate to) {
+        AccountTotals totals = accountTimeIndex.getTotals(accountId, from, to);
+        if (totals != null) {
+            return totals;
+        }
+        Object[] row = (Object[]) entityManager.createNativeQuery(RANGE_QUERY)
+                .setParameter("accountId", accountId)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getSingleResult();
+        return new AccountTotals(Money.of((BigDecimal) row[0]), Money.of((BigDecimal) row[1]));
+    }
+
+    @Transactional
+    public void addIncome(Long incomeId) {
+        apply(APPLY_INCOME_QUERY, incomeId, 1);
+    }
+
+    @Transactional
+    public void removeIncome(Long incomeId) {
+        apply(APPLY_INCOME_QUERY, incomeId, -1);
+    }
+
+    @Transactional
+    public void addExpense(Long expenseId) {
+        apply(APPLY_EXPENSE_QUERY, expenseId, 1);
+    }
+
+    @Transactional
+    public void removeExpense(Long expenseId) {
+        apply(APPLY_EXPENSE_QUERY, expenseId, -1);
+    }
+
+    @Transactional
+    public void rebuild(Long accountId) {
+        createTotalsUpdate("DELETE FROM account_daily_totals WHERE account_id = :accountId")
+                .setParameter("accountId", accountId)
+                .executeUpdate();
+        createTotalsUpdate(REBUILD_QUERY)
+                .setParameter("accountId", accountId)
+                .executeUpdate();
+        accountTimeIndex.invalidate(accountId);
+    }
+
+    @Transactional
+    @Scheduled(cron = "${bot.totals.verify-cron}")
+    public void verify() {
+        @SuppressWarnings("unchecked")
+        List<Number> accountIds = entityManager.createNativeQuery(MISMATCHED_ACCOUNTS_QUERY).getResultList();
+        if (accountIds.isEmpty()) {
+            log.info("AccountTotalsService | Daily totals verified, no mismatches found");
+            return;
+        }
+        log.warn("AccountTotalsService | Daily totals mismatch for accounts {}, rebuilding", accountIds);
+        for (Number accountId : accountIds) {
+            rebuild(accountId.longValue());
+        }
+    }
+
+    private void apply(String query, Long id, int sign) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = createTotalsUpdate(query)
+                .addScalar("account_id", Long.class)
+                .addScalar("day", LocalDate.class)
+                .addScalar("incomes", BigDecimal.class)
+                .addScalar("expenses", BigDecimal.class)
+                .setParameter("sign", sign)
+                .setParameter("id", id)
+                .getResultList();
+        for (Object[] row : rows) {
+            accountTimeIndex.set((Long) row[0], (LocalDate) row[1], (BigDecimal) row[2], (BigDecimal) row[3]);
+        }
+    }
+
+    private NativeQuery<?> createTotalsUpdate(String query) {
+        return entityManager.createNativeQuery(query)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(TOTALS_TABLE);
+    }
+}
@@ -6,15 +6,34 @@ import com.dzenthai.financial.accounting.entity.Limit;
 import com.dzenthai.financial.accounting.entity.User;
 import com.dzenthai.financial.accounting.entity.enums.Action;
 import com.dzenthai.financial.accounting.entity.enums.ExpenseCategory;
+import com.dzenthai.financial.accounting.projection.CategoryTotal;
+import com.dzenthai.financial.accounting.projection.ExpenseDetails;
+import com.dzenthai.financial.accounting.projection.ExpenseListItem;
+import com.dzenthai.financial.accounting.projection.KeysetPage;
+import com.dzenthai.financial.accounting.projection.Money;
+import com.dzenthai.financial.accounting.projection.PageCursor;
 import com.dzenthai.financial.accounting.repository.ExpenseRepo;
+import com.dzenthai.financial.accounting.service.analytics.AnalyticsStore;
+import com.dzenthai.financial.accounting.service.analytics.CategoryAggregator;
+import com.dzenthai.financial.accounting.service.analytics.CategoryAggregator.CategoryStats;
 import com.dzenthai.financial.accounting.service.builder.MessageBuilder;
+import com.dzenthai.financial.accounting.service.builder.MessageTemplate;
+import com.dzenthai.financial.accounting.service.cache.ScreenCache;
+import com.dzenthai.financial.accounting.service.cache.ScreenCache.RenderedScreen;
+import com.dzenthai.financial.accounting.service.draft.TransactionDraft;
+import com.dzenthai.financial.accounting.service.draft.TransactionDraftStore;
 import com.dzenthai.financial.accounting.service.factory.ExpenseKeyboardFactory;
 import com.dzenthai.financial.accounting.service.manager.ExpenseManager;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.telegram.telegrambots.meta.api.interfaces.BotApiObject;
 import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
@@ -22,19 +41,35 @@ import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 import org.telegram.telegrambots.meta.api.objects.Message;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 
 @Slf4j
 @Service
 public class ExpenseService {
 
+    private static final MessageTemplate CATEGORY_TEMPLATE = MessageTemplate.compile("""
+            
+            Категория: {}
+            Сумма: {}
+            Процент: {}%
+            """);
+
+    private static final MessageTemplate LIMIT_MENU_TEMPLATE = MessageTemplate.compile("""
+            Меню лимитов
+            
+            💰 Сумма расходов: {}
+            
+            ⚡ Лимит: {}
+            
+            {} Остаток: {}
+            
+            Выберите интересующий вас пункт меню:
+            """);
+
     @PersistenceContext
     private EntityManager entityManager;
     private final ExpenseRepo expenseRepo;
@@ -44,6 +79,12 @@ public class ExpenseService {
     private final AccountService accountService;
     private final LimitService limitService;
     private final ExpenseManager expenseManager;
+    private final AccountTotalsService accountTotalsService;
+    private final TransactionDraftStore transactionDraftStore;
+    private final Validator validator;
+    private final int pageSize;
+    private final ScreenCache screenCache;
+    private final AnalyticsStore analyticsStore;
 
     public ExpenseService(
             ExpenseRepo expenseRepo,
@@ -52,7 +93,13 @@ public class ExpenseService {
             UserService userService,
             @Lazy AccountService accountService,
             @Lazy LimitService limitService,
-            @Lazy ExpenseManager expenseManager) {
+            @Lazy ExpenseManager expenseManager,
+            AccountTotalsService accountTotalsService,
+            TransactionDraftStore transactionDraftStore,
+            Validator validator,
+            @Value("${bot.page.size}") int pageSize,
+            ScreenCache screenCache,
+            AnalyticsStore analyticsStore) {
         this.expenseRepo = expenseRepo;
         this.expenseKeyboardFactory = expenseKeyboardFactory;
         this.messageBuilder = messageBuilder;
@@ -60,6 +107,12 @@ public class ExpenseService {
         this.accountService = accountService;
         this.limitService = limitService;
         this.expenseManager = expenseManager;
+        this.accountTotalsService = accountTotalsService;
+        this.transactionDraftStore = transactionDraftStore;
+        this.validator = validator;
+        this.pageSize = pageSize;
+        this.screenCache = screenCache;
+        this.analyticsStore = analyticsStore;
     }
 
     public BotApiMethod<?> expenseMenu(BotApiObject botApiObject) {
@@ -93,27 +146,71 @@ public class ExpenseService {
         return null;
     }
 
-    @Transactional
+    public BotApiMethod<?> getExpensePage(
+            CallbackQuery callbackQuery,
+            ExpenseCategory category,
+            PageCursor cursor,
+            boolean older
+    ) {
+        User user = userService.findUserByBotApiObject(callbackQuery);
+        Long accountId = user.getCurrentAccountId();
+        KeysetPage<ExpenseListItem> page;
+        if (cursor == null) {
+            page = getFirstExpensePage(accountId, category);
+        } else if (older) {
+            page = getOlderExpensePage(accountId, category, cursor);
+        } else {
+            page = getNewerExpensePage(accountId, category, cursor);
+        }
+        return messageBuilder.buildMessage("""
+                        Меню расходов. 💸
+                        
+                        Нажмите на один из ваших расходов, чтобы посмотреть подробности.
+                        
+                        Выберите интересующий вас пункт меню:
+                        """,
+                callbackQuery,
+                expenseKeyboardFactory.expenseMenuKeyboard(accountId, category, page));
+    }
+
+    public KeysetPage<ExpenseListItem> getFirstExpensePage(Long accountId, ExpenseCategory category) {
+        PageRequest limit = PageRequest.ofSize(pageSize + 1);
+        List<ExpenseListItem> rows = category == null
+                ? expenseRepo.findFirstPage(accountId, limit)
+                : expenseRepo.findFirstPageByCategory(accountId, category, limit);
+        return KeysetPage.ofOlder(rows, pageSize, false, ExpenseListItem::cursor);
+    }
+
+    private KeysetPage<ExpenseListItem> getOlderExpensePage(Long accountId, ExpenseCategory category, PageCursor cursor) {
+        PageRequest limit = PageRequest.ofSize(pageSize + 1);
+        List<ExpenseListItem> rows = category == null
+                ? expenseRepo.findPageOlderThan(accountId, cursor.datetime(), cursor.id(), limit)
+                : expenseRepo.findPageByCategoryOlderThan(accountId, category, cursor.datetime(), cursor.id(), limit);
+        KeysetPage<ExpenseListItem> page = KeysetPage.ofOlder(rows, pageSize, true, ExpenseListItem::cursor);
+        return page.isEmpty() ? getFirstExpensePage(accountId, category) : page;
+    }
+
+    private KeysetPage<ExpenseListItem> getNewerExpensePage(Long accountId, ExpenseCategory category, PageCursor cursor) {
+        PageRequest limit = PageRequest.ofSize(pageSize + 1);
+        List<ExpenseListItem> rows = category == null
+                ? expenseRepo.findPageNewerThan(accountId, cursor.datetime(), cursor.id(), limit)
+                : expenseRepo.findPageByCategoryNewerThan(accountId, category, cursor.datetime(), cursor.id(), limit);
+        KeysetPage<ExpenseListItem> page = KeysetPage.ofNewer(rows, pageSize, ExpenseListItem::cursor);
+        return page.isEmpty() ? getFirstExpensePage(accountId, category) : page;
+    }
+
     public BotApiMethod<?> saveAmountExpense(Message message) {
         Long chatId = message.getChatId();
         String messageText = message.getText();
         try {
             BigDecimal amount = new BigDecimal(messageText);
-            User user = userService.findUserByBotApiObject(message);
-            Account account = accountService.getAccountById(user.getCurrentAccountId());
-            Expense expense = Expense.builder()
-                    .account(account)
-                    .amount(amount)
-                    .build();
-
-            expenseRepo.save(expense);
-
-            userService.updateCurrentExpenseId(chatId, expense.getId(), Action.EXPENSE_ADD_CATEGORY);
-
-            if (limitService.hasLimitExceeded(account, expense)) {
-                updateLimitExceeded(expense, true);
+            Set<ConstraintViolation<Expense>> violations = validator.validateValue(Expense.class, "amount", amount);
+            if (!violations.isEmpty()) {
+                throw new ConstraintViolationException(violations);
             }
-
+            User user = userService.findUserByBotApiObject(message);
+            transactionDraftStore.put(chatId,
+                    new TransactionDraft<>(ExpenseCategory.class, user.getCurrentAccountId(), amount));
             return expenseManager.askForExpenseCategoryToAdd(message);
 
         } catch (NumberFormatException e) {
@@ -124,32 +221,46 @@ public class ExpenseService {
         }
     }
 
-    @Transactional
     public BotApiMethod<?> saveExpenseCategory(CallbackQuery callbackQuery, ExpenseCategory expenseCategory) {
-        User user = userService.findUserByBotApiObject(callbackQuery);
-        Expense expense = getExpenseById(user.getCurrentExpenseId());
-        updateExpenseCategory(expense, expenseCategory);
-        updateExpenseNote(expense, "-");
+        Long chatId = callbackQuery.getMessage().getChatId();
+        TransactionDraft<ExpenseCategory> draft = transactionDraftStore.get(chatId, ExpenseCategory.class);
+        if (draft == null) {
+            return draftExpired(callbackQuery);
+        }
+        draft.setCategory(expenseCategory);
         return expenseManager.askForExpenseNoteToAdd(callbackQuery);
     }
 
     @Transactional
     public BotApiMethod<?> saveNoteExpense(Message message) {
-        User user = userService.findUserByBotApiObject(message);
-        Expense expense = getExpenseById(user.getCurrentExpenseId());
-        updateExpenseNote(expense, message.getText());
-        updateExpenseDate(expense, LocalDateTime.now());
-        userService.updateCurrentExpenseId(user.getChatId(), expense.getId(), Action.FREE);
+        TransactionDraft<ExpenseCategory> draft = transactionDraftStore.get(message.getChatId(), ExpenseCategory.class);
+        if (draft == null || draft.getCategory() == null) {
+            return draftExpired(message);
+        }
+        saveExpense(draft, message.getText());
+        transactionDraftStore.removeAfterCommit(message.getChatId(), draft);
         return expenseMenu(message);
     }
 
-    public BotApiMethod<?> getExpense(CallbackQuery callbackQuery, String expenseId) {
-        Expense expense = getExpenseById(Long.parseLong(expenseId));
-        String category = expense.getCategory().getDisplayName();
-        String accountName = expense.getAccount().getName();
-        LocalDateTime datetime = expense.getDatetime();
-        String note = expense.getNote();
-        String amount = expense.getAmount().toString();
+    @Transactional
+    public BotApiMethod<?> skipNoteExpense(CallbackQuery callbackQuery) {
+        Long chatId = callbackQuery.getMessage().getChatId();
+        TransactionDraft<ExpenseCategory> draft = transactionDraftStore.get(chatId, ExpenseCategory.class);
+        if (draft == null || draft.getCategory() == null) {
+            return draftExpired(callbackQuery);
+        }
+        saveExpense(draft, "-");
+        transactionDraftStore.removeAfterCommit(chatId, draft);
+        return expenseMenu(callbackQuery);
+    }
+
+    public BotApiMethod<?> getExpense(CallbackQuery callbackQuery, Long expenseId) {
+        ExpenseDetails expense = expenseRepo.findDetailsById(expenseId).orElse(null);
+        String category = expense.category().getDisplayName();
+        String accountName = expense.accountName();
+        LocalDateTime datetime = expense.datetime();
+        String note = expense.note();
+        String amount = expense.amount().toString();
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy \nВремя: HH:mm:ss");
         String formattedDateTime = datetime.format(formatter);
         return messageBuilder.buildMessage("""
@@ -166,7 +277,7 @@ public class ExpenseService {
                 expenseKeyboardFactory.editAndDeleteExpenseKeyboard(expenseId));
     }
 
-    public BotApiMethod<?> editExpense(CallbackQuery callbackQuery, String expenseId) {
+    public BotApiMethod<?> editExpense(CallbackQuery callbackQuery, Long expenseId) {
         return messageBuilder.buildMessage("""
                         Выберите опцию, которую хотите отредактировать.
                         """,
@@ -208,9 +319,9 @@ public class ExpenseService {
 
 
     @Transactional
-    public BotApiMethod<?> editExpenseCategory(CallbackQuery callbackQuery, ExpenseCategory expenseCategory, String expenseId) {
+    public BotApiMethod<?> editExpenseCategory(CallbackQuery callbackQuery, ExpenseCategory expenseCategory, Long expenseId) {
         User user = userService.findUserByBotApiObject(callbackQuery);
-        Expense expense = getExpenseById(Long.valueOf(expenseId));
+        Expense expense = getExpenseById(expenseId);
         updateExpenseCategory(expense, expenseCategory);
         userService.updateCurrentExpenseId(user.getChatId(), null, Action.FREE);
         return expenseMenu(callbackQuery);
@@ -226,8 +337,13 @@ public class ExpenseService {
         return expenseMenu(message);
     }
 
-    public BotApiMethod<?> deleteExpense(CallbackQuery callbackQuery, String expenseId) {
-        Expense expense = getExpenseById(Long.parseLong(expenseId));
+    @Transactional
+    public BotApiMethod<?> deleteExpense(CallbackQuery callbackQuery, Long expenseId) {
+        Expense expense = getExpenseById(expenseId);
+        screenCache.invalidate(expense.getAccount().getId());
+        accountTotalsService.removeExpense(expense.getId());
+        limitService.removeExpense(expense.getId());
+        analyticsStore.remove(AnalyticsStore.Kind.EXPENSE, expense.getAccount().getId(), expense.getId());
         expenseRepo.delete(expense);
         return messageBuilder.buildMessage(
                 "Трата успешно удалена!",
@@ -235,42 +351,30 @@ public class ExpenseService {
                 expenseKeyboardFactory.backToExpenseMenu("↩️ Назад в меню трат"));
     }
 
-    public BotApiMethod<?> getExpenseReport(CallbackQuery callbackQuery, String expenseId) {
-
-        Account account = accountService.getAccountById(Long.valueOf(expenseId));
-
-        List<Expense> expenses = getAllExpensesByAccountAndDateAfter(account, LocalDateTime.now().minusMonths(1));
+    public BotApiMethod<?> getExpenseReport(CallbackQuery callbackQuery, Long accountId) {
+        RenderedScreen screen = screenCache.get(
+                ScreenCache.Screen.EXPENSE_REPORT, accountId, () -> renderExpenseReport(accountId));
+        return messageBuilder.buildMessage(screen.text(), callbackQuery, screen.keyboard());
+    }
 
-        Map<ExpenseCategory, BigDecimal> expenseMap = expenses.stream()
-                .collect(Collectors.groupingBy(
-                        Expense::getCategory,
-                        Collectors.reducing(BigDecimal.ZERO, Expense::getAmount, BigDecimal::add)
-                ));
+    private RenderedScreen renderExpenseReport(Long accountId) {
 
-        BigDecimal totalAmount = expenses.stream()
-                .map(Expense::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        CategoryAggregator<ExpenseCategory> aggregator = aggregateCategories(accountId, LocalDateTime.now().minusMonths(1));
 
-        StringBuilder report = new StringBuilder("Отчет по тратам:\n");
+        List<CategoryStats<ExpenseCategory>> categories = aggregator.getStats();
 
-        expenseMap.forEach((category, amount) -> {
-            BigDecimal percentage = amount.divide(totalAmount, 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100))
-                    .setScale(2, RoundingMode.HALF_UP);
+        StringBuilder report = new StringBuilder(CATEGORY_TEMPLATE.getEstimatedLength() * (categories.size() + 1))
+                .append("Отчет по тратам:\n");
 
-            report.append(String.format("""
-                            
-                            Категория: %s
-                            Сумма: %s
-                            Процент: %.2f%%
-                            """,
-                    category.getDisplayName(), amount, percentage));
-        });
+        for (CategoryStats<ExpenseCategory> stats : categories) {
+            CATEGORY_TEMPLATE.appendTo(report)
+                    .text(stats.category().getDisplayName())
+                    .money(stats.sum())
+                    .percent(stats.shareBasisPoints())
+                    .end();
+        }
 
-        return messageBuilder.buildMessage(
-                report.toString(),
-                callbackQuery,
-                expenseKeyboardFactory.backToExpenseMenu("↩️ Назад"));
+        return new RenderedScreen(report.toString(), expenseKeyboardFactory.backToExpenseMenu("↩️ Назад"));
     }
 
     @Transactional
@@ -286,6 +390,7 @@ public class ExpenseService {
                     .datetime(LocalDateTime.now())
                     .build();
             limitService.addLimit(limit);
+            screenCache.invalidate(account.getId());
             userService.updateUserAction(user.getChatId(), Action.FREE);
 
             return messageBuilder.buildMessage(
@@ -302,10 +407,11 @@ public class ExpenseService {
     }
 
     @Transactional
-    public BotApiMethod<?> deleteLimit(CallbackQuery callbackQuery, String accountId) {
-        Account account = accountService.getAccountById(Long.valueOf(accountId));
+    public BotApiMethod<?> deleteLimit(CallbackQuery callbackQuery, Long accountId) {
+        Account account = accountService.getAccountById(accountId);
         Limit limit = limitService.getLimitByAccount(account);
         if (limit != null) {
+            screenCache.invalidate(accountId);
             String updateLimitExceeded = "UPDATE Expense e SET e.limitExceeded = false WHERE e.account = :account";
             entityManager.createQuery(updateLimitExceeded)
                     .setParameter("account", account)
@@ -320,11 +426,16 @@ public class ExpenseService {
 
     public BotApiMethod<?> getLimitMenu(CallbackQuery callbackQuery) {
         User user = userService.findUserByBotApiObject(callbackQuery);
-        Account account = accountService.getAccountById(user.getCurrentAccountId());
-        Limit limit = limitService.getLimitByAccount(account);
-        List<Expense> expenses = getAllExpensesByAccount(account);
+        Long accountId = user.getCurrentAccountId();
+        RenderedScreen screen = screenCache.get(
+                ScreenCache.Screen.LIMIT_MENU, accountId, () -> renderLimitMenu(callbackQuery, accountId));
+        return messageBuilder.buildMessage(screen.text(), callbackQuery, screen.keyboard());
+    }
+
+    private RenderedScreen renderLimitMenu(CallbackQuery callbackQuery, Long accountId) {
+        Limit limit = limitService.getLimitByAccountId(accountId);
         if (limit == null) {
-            return messageBuilder.buildMessage("""
+            return new RenderedScreen("""
                             Добро пожаловать в меню лимитов!
                             
                             Здесь вы можете установить лимит для вашего счета,
@@ -332,69 +443,108 @@ public class ExpenseService {
                             
                             Нажмите на кнопку "Установить лимит", чтобы начать работу с лимитом.
                             """,
-                    callbackQuery,
                     expenseKeyboardFactory.getLimitMenuKeyboard(callbackQuery));
         }
-        BigDecimal totalExpenses = expenses.stream()
-                .map(Expense::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        Money totalExpenses = Money.of(limit.getSpent());
 
-        BigDecimal availableBalance =  limit.getLimitAmount().subtract(totalExpenses);
+        Money limitAmount = Money.of(limit.getLimitAmount());
+
+        Money availableBalance = limitAmount.minus(totalExpenses);
 
         String emoji = "🟢";
 
-        if (availableBalance.compareTo(BigDecimal.ZERO) < 0) {
+        if (availableBalance.isNegative()) {
             emoji = "🔴";
-            availableBalance = BigDecimal.valueOf(0);
+            availableBalance = Money.ZERO;
         }
-        return messageBuilder.buildMessage("""
-                Меню лимитов
-                
-                💰 Сумма расходов: %s
-                
-                ⚡ Лимит: %s
-                
-                %s Остаток: %s
-                
-                Выберите интересующий вас пункт меню:
-                """.formatted(totalExpenses, limit.getLimitAmount(), emoji, availableBalance),
-                callbackQuery,
-                expenseKeyboardFactory.getLimitMenuKeyboard(callbackQuery));
+        String text = LIMIT_MENU_TEMPLATE.render()
+                .money(totalExpenses)
+                .money(limitAmount)
+                .text(emoji)
+                .money(availableBalance)
+                .end()
+                .toString();
+        return new RenderedScreen(text, expenseKeyboardFactory.getLimitMenuKeyboard(callbackQuery));
     }
 
-    public BotApiMethod<?> getAllLimitExceededExpenses(CallbackQuery callbackQuery) {
+    public BotApiMethod<?> getAllLimitExceededExpenses(CallbackQuery callbackQuery, PageCursor cursor, boolean older) {
         User user = userService.findUserByBotApiObject(callbackQuery);
-        Account account = accountService.getAccountById(user.getCurrentAccountId());
-        List<Expense> expenses = getAllExpensesByAccount(account).stream().filter(Expense::isLimitExceeded).toList();
-
+        Long accountId = user.getCurrentAccountId();
+        KeysetPage<ExpenseListItem> page;
+        if (cursor == null) {
+            page = getFirstLimitExceededPage(accountId);
+        } else if (older) {
+            page = getOlderLimitExceededPage(accountId, cursor);
+        } else {
+            page = getNewerLimitExceededPage(accountId, cursor);
+        }
         return messageBuilder.buildMessage(
                 "Траты превысившие лимит:",
                 callbackQuery,
-                expenseKeyboardFactory.getAllLimitExceededExpensesKeyboard(expenses));
+                expenseKeyboardFactory.getAllLimitExceededExpensesKeyboard(page));
     }
 
-    public Expense getExpenseById(Long id) {
-        return expenseRepo.findExpenseById(id).orElse(null);
+    private KeysetPage<ExpenseListItem> getFirstLimitExceededPage(Long accountId) {
+        List<ExpenseListItem> rows = expenseRepo.findLimitExceededListItemsByAccountId(
+                accountId, PageRequest.ofSize(pageSize + 1));
+        return KeysetPage.ofOlder(rows, pageSize, false, ExpenseListItem::cursor);
+    }
+
+    private KeysetPage<ExpenseListItem> getOlderLimitExceededPage(Long accountId, PageCursor cursor) {
+        List<ExpenseListItem> rows = expenseRepo.findLimitExceededPageOlderThan(
+                accountId, cursor.datetime(), cursor.id(), PageRequest.ofSize(pageSize + 1));
+        KeysetPage<ExpenseListItem> page = KeysetPage.ofOlder(rows, pageSize, true, ExpenseListItem::cursor);
+        return page.isEmpty() ? getFirstLimitExceededPage(accountId) : page;
+    }
+
+    private KeysetPage<ExpenseListItem> getNewerLimitExceededPage(Long accountId, PageCursor cursor) {
+        List<ExpenseListItem> rows = expenseRepo.findLimitExceededPageNewerThan(
+                accountId, cursor.datetime(), cursor.id(), PageRequest.ofSize(pageSize + 1));
+        KeysetPage<ExpenseListItem> page = KeysetPage.ofNewer(rows, pageSize, ExpenseListItem::cursor);
+        return page.isEmpty() ? getFirstLimitExceededPage(accountId) : page;
     }
 
-    public List<Expense> getAllExpensesByAccount(Account account) {
-        return expenseRepo.findByAccount(account).orElse(null);
+    private CategoryAggregator<ExpenseCategory> aggregateCategories(Long accountId, LocalDateTime since) {
+        CategoryAggregator<ExpenseCategory> aggregator = new CategoryAggregator<>(ExpenseCategory.class);
+        if (analyticsStore.aggregate(AnalyticsStore.Kind.EXPENSE, accountId, since, aggregator)) {
+            return aggregator;
+        }
+        for (CategoryTotal categoryTotal : expenseRepo.findCategoryTotalsByAccountAndDatetimeAfter(accountId, since)) {
+            if (categoryTotal.getTotal()) {
+                aggregator.setTotal(categoryTotal.getAmount() != null ? Money.of(categoryTotal.getAmount()) : Money.ZERO);
+                continue;
+            }
+            aggregator.add(
+                    ExpenseCategory.valueOf(categoryTotal.getCategory()),
+                    Money.of(categoryTotal.getAmount()),
+                    categoryTotal.getCount(),
+                    Money.of(categoryTotal.getMinAmount()),
+                    Money.of(categoryTotal.getMaxAmount()));
+        }
+        return aggregator;
     }
 
-    public List<Expense> getAllExpensesByAccountAndDateAfter(Account account, LocalDateTime datetime) {
-        entityManager.clear();
-        return expenseRepo.findByAccountAndDatetimeAfter(account, datetime).orElse(Collections.emptyList());
+    public Expense getExpenseById(Long id) {
+        return expenseRepo.findExpenseById(id).orElse(null);
+    }
 
+    public boolean hasLimitExceededExpenses(Long accountId) {
+        return expenseRepo.existsByAccountIdAndLimitExceededTrue(accountId);
     }
 
     @Transactional
     public void updateExpenseAmount(Expense expense, BigDecimal newAmount) {
         if (newAmount != null) {
             String updateQuery = "UPDATE Expense e SET e.amount = :newAmount WHERE e.id = :expenseId";
-            entityManager.createQuery(updateQuery)
-                    .setParameter("newAmount", newAmount)
-                    .setParameter("expenseId", expense.getId())
-                    .executeUpdate();
+            updateTotals(expense, () -> {
+                limitService.removeExpense(expense.getId());
+                entityManager.createQuery(updateQuery)
+                        .setParameter("newAmount", newAmount)
+                        .setParameter("expenseId", expense.getId())
+                        .executeUpdate();
+                limitService.addExpense(expense.getId());
+            });
+            analyticsStore.updateAmount(AnalyticsStore.Kind.EXPENSE, expense.getAccount().getId(), expense.getId(), newAmount);
         }
     }
 
@@ -402,10 +552,12 @@ public class ExpenseService {
     public void updateExpenseCategory(Expense expense, ExpenseCategory newCategory) {
         if (newCategory != null) {
             String updateQuery = "UPDATE Expense e SET e.category = :newCategory WHERE e.id = :expenseId";
+            screenCache.invalidate(expense.getAccount().getId());
             entityManager.createQuery(updateQuery)
                     .setParameter("newCategory", newCategory)
                     .setParameter("expenseId", expense.getId())
                     .executeUpdate();
+            analyticsStore.updateCategory(AnalyticsStore.Kind.EXPENSE, expense.getAccount().getId(), expense.getId(), newCategory);
         }
     }
 
@@ -420,23 +572,37 @@ public class ExpenseService {
         }
     }
 
-    @Transactional
-    public void updateExpenseDate(Expense expense, LocalDateTime newDate) {
-        if (newDate != null) {
-            String updateQuery = "UPDATE Expense e SET e.datetime = :newDate WHERE e.id = :expenseId";
-            entityManager.createQuery(updateQuery)
-                    .setParameter("newDate", newDate)
-                    .setParameter("expenseId", expense.getId())
-                    .executeUpdate();
-        }
+    private void updateTotals(Expense expense, Runnable update) {
+        screenCache.invalidate(expense.getAccount().getId());
+        accountTotalsService.removeExpense(expense.getId());
+        update.run();
+        accountTotalsService.addExpense(expense.getId());
     }
 
-    @Transactional
-    public void updateLimitExceeded(Expense expense, boolean exceeded) {
-        String updateLimitExceeded = "UPDATE Expense e SET e.limitExceeded = :isLimitExceed WHERE e.id = :expenseId";
-        entityManager.createQuery(updateLimitExceeded)
-                .setParameter("isLimitExceed", exceeded)
-                .setParameter("expenseId", expense.getId())
-                .executeUpdate();
+    private void saveExpense(TransactionDraft<ExpenseCategory> draft, String note) {
+        screenCache.invalidate(draft.getAccountId());
+        Account account = entityManager.getReference(Account.class, draft.getAccountId());
+        Expense expense = Expense.builder()
+                .account(account)
+                .amount(draft.getAmount())
+                .category(draft.getCategory())
+                .note(note)
+                .datetime(LocalDateTime.now())
+                .limitExceeded(limitService.wouldExceedLimit(account, draft.getAmount()))
+                .build();
+        expenseRepo.saveAndFlush(expense);
+        analyticsStore.put(AnalyticsStore.Kind.EXPENSE, draft.getAccountId(), expense.getId(), expense.getDatetime(),
+                expense.getAmount(), expense.getCategory());
+        limitService.addExpense(expense.getId());
+        accountTotalsService.addExpense(expense.getId());
+    }
+
+    private BotApiMethod<?> draftExpired(BotApiObject botApiObject) {
+        User user = userService.findUserByBotApiObject(botApiObject);
+        userService.updateCurrentExpenseId(user.getChatId(), null, Action.FREE);
+        return messageBuilder.buildMessage(
+                "Время добавления траты истекло. Пожалуйста, начните заново.",
+                botApiObject,
+                expenseKeyboardFactory.backToExpenseMenu("↩️ Назад в меню трат"));
     }
 }
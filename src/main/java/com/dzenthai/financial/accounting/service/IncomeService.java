@@ -5,15 +5,34 @@ import com.dzenthai.financial.accounting.entity.Income;
 import com.dzenthai.financial.accounting.entity.User;
 import com.dzenthai.financial.accounting.entity.enums.Action;
 import com.dzenthai.financial.accounting.entity.enums.IncomeCategory;
+import com.dzenthai.financial.accounting.projection.CategoryTotal;
+import com.dzenthai.financial.accounting.projection.IncomeDetails;
+import com.dzenthai.financial.accounting.projection.IncomeListItem;
+import com.dzenthai.financial.accounting.projection.KeysetPage;
+import com.dzenthai.financial.accounting.projection.Money;
+import com.dzenthai.financial.accounting.projection.PageCursor;
 import com.dzenthai.financial.accounting.repository.IncomeRepo;
+import com.dzenthai.financial.accounting.service.analytics.AnalyticsStore;
+import com.dzenthai.financial.accounting.service.analytics.CategoryAggregator;
+import com.dzenthai.financial.accounting.service.analytics.CategoryAggregator.CategoryStats;
 import com.dzenthai.financial.accounting.service.builder.MessageBuilder;
+import com.dzenthai.financial.accounting.service.builder.MessageTemplate;
+import com.dzenthai.financial.accounting.service.cache.ScreenCache;
+import com.dzenthai.financial.accounting.service.cache.ScreenCache.RenderedScreen;
+import com.dzenthai.financial.accounting.service.draft.TransactionDraft;
+import com.dzenthai.financial.accounting.service.draft.TransactionDraftStore;
 import com.dzenthai.financial.accounting.service.factory.IncomeKeyboardFactory;
 import com.dzenthai.financial.accounting.service.manager.IncomeManager;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.telegram.telegrambots.meta.api.interfaces.BotApiObject;
 import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
@@ -21,42 +40,61 @@ import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 import org.telegram.telegrambots.meta.api.objects.Message;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 
 @Slf4j
 @Service
 public class IncomeService {
 
+    private static final MessageTemplate CATEGORY_TEMPLATE = MessageTemplate.compile("""
+            
+            Категория: {}
+            Сумма: {}
+            Процент: {}%
+            """);
+
     @PersistenceContext
     private EntityManager entityManager;
     private final IncomeRepo incomeRepo;
     private final IncomeKeyboardFactory incomeKeyboardFactory;
     private final MessageBuilder messageBuilder;
-    private final AccountService accountService;
     private final UserService userService;
     private final IncomeManager incomeManager;
+    private final AccountTotalsService accountTotalsService;
+    private final TransactionDraftStore transactionDraftStore;
+    private final Validator validator;
+    private final int pageSize;
+    private final ScreenCache screenCache;
+    private final AnalyticsStore analyticsStore;
 
     public IncomeService(
             IncomeRepo incomeRepo,
             @Lazy IncomeKeyboardFactory incomeKeyboardFactory,
             MessageBuilder messageBuilder,
-            @Lazy AccountService accountService,
             UserService userService,
-            @Lazy IncomeManager incomeManager
+            @Lazy IncomeManager incomeManager,
+            AccountTotalsService accountTotalsService,
+            TransactionDraftStore transactionDraftStore,
+            Validator validator,
+            @Value("${bot.page.size}") int pageSize,
+            ScreenCache screenCache,
+            AnalyticsStore analyticsStore
     ) {
         this.incomeRepo = incomeRepo;
         this.incomeKeyboardFactory = incomeKeyboardFactory;
         this.messageBuilder = messageBuilder;
-        this.accountService = accountService;
         this.userService = userService;
         this.incomeManager = incomeManager;
+        this.accountTotalsService = accountTotalsService;
+        this.transactionDraftStore = transactionDraftStore;
+        this.validator = validator;
+        this.pageSize = pageSize;
+        this.screenCache = screenCache;
+        this.analyticsStore = analyticsStore;
     }
 
     public BotApiMethod<?> incomeMenu(BotApiObject botApiObject) {
@@ -91,20 +129,71 @@ public class IncomeService {
         return null;
     }
 
+    public BotApiMethod<?> getIncomePage(
+            CallbackQuery callbackQuery,
+            IncomeCategory category,
+            PageCursor cursor,
+            boolean older
+    ) {
+        User user = userService.findUserByBotApiObject(callbackQuery);
+        Long accountId = user.getCurrentAccountId();
+        KeysetPage<IncomeListItem> page;
+        if (cursor == null) {
+            page = getFirstIncomePage(accountId, category);
+        } else if (older) {
+            page = getOlderIncomePage(accountId, category, cursor);
+        } else {
+            page = getNewerIncomePage(accountId, category, cursor);
+        }
+        return messageBuilder.buildMessage("""
+                        Меню доходов. ✨
+                        
+                        Нажмите на один из ваших доходов, чтобы посмотреть подробности.
+                        
+                        Выберите интересующий вас пункт меню:
+                        """,
+                callbackQuery,
+                incomeKeyboardFactory.incomeMenuKeyboard(accountId, category, page));
+    }
+
+    public KeysetPage<IncomeListItem> getFirstIncomePage(Long accountId, IncomeCategory category) {
+        PageRequest limit = PageRequest.ofSize(pageSize + 1);
+        List<IncomeListItem> rows = category == null
+                ? incomeRepo.findFirstPage(accountId, limit)
+                : incomeRepo.findFirstPageByCategory(accountId, category, limit);
+        return KeysetPage.ofOlder(rows, pageSize, false, IncomeListItem::cursor);
+    }
+
+    private KeysetPage<IncomeListItem> getOlderIncomePage(Long accountId, IncomeCategory category, PageCursor cursor) {
+        PageRequest limit = PageRequest.ofSize(pageSize + 1);
+        List<IncomeListItem> rows = category == null
+                ? incomeRepo.findPageOlderThan(accountId, cursor.datetime(), cursor.id(), limit)
+                : incomeRepo.findPageByCategoryOlderThan(accountId, category, cursor.datetime(), cursor.id(), limit);
+        KeysetPage<IncomeListItem> page = KeysetPage.ofOlder(rows, pageSize, true, IncomeListItem::cursor);
+        return page.isEmpty() ? getFirstIncomePage(accountId, category) : page;
+    }
+
+    private KeysetPage<IncomeListItem> getNewerIncomePage(Long accountId, IncomeCategory category, PageCursor cursor) {
+        PageRequest limit = PageRequest.ofSize(pageSize + 1);
+        List<IncomeListItem> rows = category == null
+                ? incomeRepo.findPageNewerThan(accountId, cursor.datetime(), cursor.id(), limit)
+                : incomeRepo.findPageByCategoryNewerThan(accountId, category, cursor.datetime(), cursor.id(), limit);
+        KeysetPage<IncomeListItem> page = KeysetPage.ofNewer(rows, pageSize, IncomeListItem::cursor);
+        return page.isEmpty() ? getFirstIncomePage(accountId, category) : page;
+    }
+
     public BotApiMethod<?> saveAmountIncome(Message message) {
         Long chatId = message.getChatId();
         String messageText = message.getText();
         try {
             BigDecimal amount = new BigDecimal(messageText);
+            Set<ConstraintViolation<Income>> violations = validator.validateValue(Income.class, "amount", amount);
+            if (!violations.isEmpty()) {
+                throw new ConstraintViolationException(violations);
+            }
             User user = userService.findUserByBotApiObject(message);
-            Account account = accountService.getAccountById(user.getCurrentAccountId());
-            Income income = Income.builder()
-                    .account(account)
-                    .amount(amount)
-                    .build();
-
-            incomeRepo.save(income);
-            userService.updateCurrentIncomeId(chatId, income.getId(), Action.INCOME_ADD_CATEGORY);
+            transactionDraftStore.put(chatId,
+                    new TransactionDraft<>(IncomeCategory.class, user.getCurrentAccountId(), amount));
             return incomeManager.askForIncomeCategoryToAdd(message);
 
         } catch (NumberFormatException e) {
@@ -115,33 +204,46 @@ public class IncomeService {
         }
     }
 
-
-    @Transactional
     public BotApiMethod<?> saveIncomeCategory(CallbackQuery callbackQuery, IncomeCategory incomeCategory) {
-        User user = userService.findUserByBotApiObject(callbackQuery);
-        Income income = getIncomeById(user.getCurrentIncomeId());
-        updateIncomeCategory(income, incomeCategory);
-        updateIncomeNote(income, "-");
-        updateIncomeDate(income, LocalDateTime.now());
+        Long chatId = callbackQuery.getMessage().getChatId();
+        TransactionDraft<IncomeCategory> draft = transactionDraftStore.get(chatId, IncomeCategory.class);
+        if (draft == null) {
+            return draftExpired(callbackQuery);
+        }
+        draft.setCategory(incomeCategory);
         return incomeManager.askForIncomeNoteToAdd(callbackQuery);
     }
 
     @Transactional
     public BotApiMethod<?> saveNoteIncome(Message message) {
-        User user = userService.findUserByBotApiObject(message);
-        Income income = getIncomeById(user.getCurrentIncomeId());
-        updateIncomeNote(income, message.getText());
-        userService.updateCurrentIncomeId(user.getId(), null, Action.FREE);
+        TransactionDraft<IncomeCategory> draft = transactionDraftStore.get(message.getChatId(), IncomeCategory.class);
+        if (draft == null || draft.getCategory() == null) {
+            return draftExpired(message);
+        }
+        saveIncome(draft, message.getText());
+        transactionDraftStore.removeAfterCommit(message.getChatId(), draft);
         return incomeMenu(message);
     }
 
-    public BotApiMethod<?> getIncome(CallbackQuery callbackQuery, String incomeId) {
-        Income income = getIncomeById(Long.parseLong(incomeId));
-        String category = income.getCategory().getDisplayName();
-        String accountName = income.getAccount().getName();
-        LocalDateTime datetime = income.getDatetime();
-        String note = income.getNote();
-        String amount = income.getAmount().toString();
+    @Transactional
+    public BotApiMethod<?> skipNoteIncome(CallbackQuery callbackQuery) {
+        Long chatId = callbackQuery.getMessage().getChatId();
+        TransactionDraft<IncomeCategory> draft = transactionDraftStore.get(chatId, IncomeCategory.class);
+        if (draft == null || draft.getCategory() == null) {
+            return draftExpired(callbackQuery);
+        }
+        saveIncome(draft, "-");
+        transactionDraftStore.removeAfterCommit(chatId, draft);
+        return incomeMenu(callbackQuery);
+    }
+
+    public BotApiMethod<?> getIncome(CallbackQuery callbackQuery, Long incomeId) {
+        IncomeDetails income = incomeRepo.findDetailsById(incomeId).orElse(null);
+        String category = income.category().getDisplayName();
+        String accountName = income.accountName();
+        LocalDateTime datetime = income.datetime();
+        String note = income.note();
+        String amount = income.amount().toString();
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy \nВремя: HH:mm:ss");
         String formattedDateTime = datetime.format(formatter);
         return messageBuilder.buildMessage("""
@@ -158,7 +260,7 @@ public class IncomeService {
                 incomeKeyboardFactory.editAndDeleteIncomeKeyboard(incomeId));
     }
 
-    public BotApiMethod<?> editIncome(CallbackQuery callbackQuery, String incomeId) {
+    public BotApiMethod<?> editIncome(CallbackQuery callbackQuery, Long incomeId) {
         return messageBuilder.buildMessage("""
                         Выберите опцию, которую хотите отредактировать.
                         """,
@@ -201,9 +303,9 @@ public class IncomeService {
 
 
     @Transactional
-    public BotApiMethod<?> editIncomeCategory(CallbackQuery callbackQuery, IncomeCategory incomeCategory, String incomeId) {
+    public BotApiMethod<?> editIncomeCategory(CallbackQuery callbackQuery, IncomeCategory incomeCategory, Long incomeId) {
         User user = userService.findUserByBotApiObject(callbackQuery);
-        Income income = getIncomeById(Long.valueOf(incomeId));
+        Income income = getIncomeById(incomeId);
         updateIncomeCategory(income, incomeCategory);
         userService.updateCurrentExpenseId(user.getChatId(), null, Action.FREE);
         return incomeMenu(callbackQuery);
@@ -219,8 +321,12 @@ public class IncomeService {
         return incomeMenu(message);
     }
 
-    public BotApiMethod<?> deleteIncome(CallbackQuery callbackQuery, String incomeId) {
-        Income income = getIncomeById(Long.valueOf(incomeId));
+    @Transactional
+    public BotApiMethod<?> deleteIncome(CallbackQuery callbackQuery, Long incomeId) {
+        Income income = getIncomeById(incomeId);
+        screenCache.invalidate(income.getAccount().getId());
+        accountTotalsService.removeIncome(income.getId());
+        analyticsStore.remove(AnalyticsStore.Kind.INCOME, income.getAccount().getId(), income.getId());
         incomeRepo.delete(income);
         return messageBuilder.buildMessage(
                 "Доход успешно удалена!",
@@ -228,47 +334,50 @@ public class IncomeService {
                 incomeKeyboardFactory.backToMainMenu("↩️ Назад в меню доходов"));
     }
 
-    public BotApiMethod<?> getIncomeReport(CallbackQuery callbackQuery, String incomeId) {
-
-        Account account = accountService.getAccountById(Long.valueOf(incomeId));
-
-        List<Income> incomes = getAllIncomesByAccountAndDateAfter(account, LocalDateTime.now().minusMonths(1));
+    public BotApiMethod<?> getIncomeReport(CallbackQuery callbackQuery, Long accountId) {
+        RenderedScreen screen = screenCache.get(
+                ScreenCache.Screen.INCOME_REPORT, accountId, () -> renderIncomeReport(accountId));
+        return messageBuilder.buildMessage(screen.text(), callbackQuery, screen.keyboard());
+    }
 
-        Map<IncomeCategory, BigDecimal> incomeMap = incomes.stream()
-                .collect(Collectors.groupingBy(
-                        Income::getCategory,
-                        Collectors.reducing(BigDecimal.ZERO, Income::getAmount, BigDecimal::add)
-                ));
+    private RenderedScreen renderIncomeReport(Long accountId) {
 
-        BigDecimal totalAmount = incomes.stream()
-                .map(Income::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        CategoryAggregator<IncomeCategory> aggregator = aggregateCategories(accountId, LocalDateTime.now().minusMonths(1));
 
-        StringBuilder report = new StringBuilder("Отчет по доходам:\n");
+        List<CategoryStats<IncomeCategory>> categories = aggregator.getStats();
 
-        incomeMap.forEach((category, amount) -> {
-            BigDecimal percentage = amount.divide(totalAmount, 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100))
-                    .setScale(2, RoundingMode.HALF_UP);
+        StringBuilder report = new StringBuilder(CATEGORY_TEMPLATE.getEstimatedLength() * (categories.size() + 1))
+                .append("Отчет по доходам:\n");
 
-            report.append(String.format("""
-                            
-                            Категория: %s
-                            Сумма: %s
-                            Процент: %.2f%%
-                            """,
-                    category.getDisplayName(), amount, percentage));
-        });
+        for (CategoryStats<IncomeCategory> stats : categories) {
+            CATEGORY_TEMPLATE.appendTo(report)
+                    .text(stats.category().getDisplayName())
+                    .money(stats.sum())
+                    .percent(stats.shareBasisPoints())
+                    .end();
+        }
 
-        return messageBuilder.buildMessage(
-                report.toString(),
-                callbackQuery,
-                incomeKeyboardFactory.backToMainMenu("Назад"));
+        return new RenderedScreen(report.toString(), incomeKeyboardFactory.backToMainMenu("Назад"));
     }
 
-    public List<Income> getAllIncomesByAccountAndDateAfter(Account account, LocalDateTime datetime) {
-        entityManager.clear();
-        return incomeRepo.findByAccountAndDatetimeAfter(account, datetime).orElse(Collections.emptyList());
+    private CategoryAggregator<IncomeCategory> aggregateCategories(Long accountId, LocalDateTime since) {
+        CategoryAggregator<IncomeCategory> aggregator = new CategoryAggregator<>(IncomeCategory.class);
+        if (analyticsStore.aggregate(AnalyticsStore.Kind.INCOME, accountId, since, aggregator)) {
+            return aggregator;
+        }
+        for (CategoryTotal categoryTotal : incomeRepo.findCategoryTotalsByAccountAndDatetimeAfter(accountId, since)) {
+            if (categoryTotal.getTotal()) {
+                aggregator.setTotal(categoryTotal.getAmount() != null ? Money.of(categoryTotal.getAmount()) : Money.ZERO);
+                continue;
+            }
+            aggregator.add(
+                    IncomeCategory.valueOf(categoryTotal.getCategory()),
+                    Money.of(categoryTotal.getAmount()),
+                    categoryTotal.getCount(),
+                    Money.of(categoryTotal.getMinAmount()),
+                    Money.of(categoryTotal.getMaxAmount()));
+        }
+        return aggregator;
     }
 
     private Income getIncomeById(Long incomeId) {
@@ -279,10 +388,11 @@ public class IncomeService {
     public void updateIncomeAmount(Income income, BigDecimal newAmount) {
         if (newAmount != null) {
             String updateQuery = "UPDATE Income i SET i.amount = :newAmount WHERE i.id = :incomeId";
-            entityManager.createQuery(updateQuery)
+            updateTotals(income, () -> entityManager.createQuery(updateQuery)
                     .setParameter("newAmount", newAmount)
                     .setParameter("incomeId", income.getId())
-                    .executeUpdate();
+                    .executeUpdate());
+            analyticsStore.updateAmount(AnalyticsStore.Kind.INCOME, income.getAccount().getId(), income.getId(), newAmount);
         }
     }
 
@@ -290,10 +400,12 @@ public class IncomeService {
     public void updateIncomeCategory(Income income, IncomeCategory newCategory) {
         if (newCategory != null) {
             String updateQuery = "UPDATE Income i SET i.category = :newCategory WHERE i.id = :incomeId";
+            screenCache.invalidate(income.getAccount().getId());
             entityManager.createQuery(updateQuery)
                     .setParameter("newCategory", newCategory)
                     .setParameter("incomeId", income.getId())
                     .executeUpdate();
+            analyticsStore.updateCategory(AnalyticsStore.Kind.INCOME, income.getAccount().getId(), income.getId(), newCategory);
         }
     }
 
@@ -308,14 +420,34 @@ public class IncomeService {
         }
     }
 
-    @Transactional
-    public void updateIncomeDate(Income income, LocalDateTime newDate) {
-        if (newDate != null) {
-            String updateQuery = "UPDATE Income i SET i.datetime = :newDate WHERE i.id = :incomeId";
-            entityManager.createQuery(updateQuery)
-                    .setParameter("newDate", newDate)
-                    .setParameter("incomeId", income.getId())
-                    .executeUpdate();
-        }
+    private void updateTotals(Income income, Runnable update) {
+        screenCache.invalidate(income.getAccount().getId());
+        accountTotalsService.removeIncome(income.getId());
+        update.run();
+        accountTotalsService.addIncome(income.getId());
+    }
+
+    private void saveIncome(TransactionDraft<IncomeCategory> draft, String note) {
+        screenCache.invalidate(draft.getAccountId());
+        Income income = Income.builder()
+                .account(entityManager.getReference(Account.class, draft.getAccountId()))
+                .amount(draft.getAmount())
+                .category(draft.getCategory())
+                .note(note)
+                .datetime(LocalDateTime.now())
+                .build();
+        incomeRepo.saveAndFlush(income);
+        analyticsStore.put(AnalyticsStore.Kind.INCOME, draft.getAccountId(), income.getId(), income.getDatetime(),
+                income.getAmount(), income.getCategory());
+        accountTotalsService.addIncome(income.getId());
+    }
+
+    private BotApiMethod<?> draftExpired(BotApiObject botApiObject) {
+        User user = userService.findUserByBotApiObject(botApiObject);
+        userService.updateCurrentIncomeId(user.getChatId(), null, Action.FREE);
+        return messageBuilder.buildMessage(
+                "Время добавления дохода истекло. Пожалуйста, начните заново.",
+                botApiObject,
+                incomeKeyboardFactory.backToMainMenu("↩️ Назад в меню доходов"));
     }
 }
@@ -1,31 +1,65 @@
 package com.dzenthai.financial.accounting.service;
 
 import com.dzenthai.financial.accounting.entity.Account;
-import com.dzenthai.financial.accounting.entity.Expense;
 import com.dzenthai.financial.accounting.entity.Limit;
+import com.dzenthai.financial.accounting.projection.Money;
 import com.dzenthai.financial.accounting.repository.LimitRepo;
+import com.dzenthai.financial.accounting.service.analytics.AnalyticsStore;
+import com.dzenthai.financial.accounting.service.cache.EntityCacheEvictor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 
 @Service
 public class LimitService {
 
+    private static final String ADJUST_SPENT_QUERY = """
+            UPDATE limits l
+            SET spent = l.spent + :sign * e.amount
+            FROM expenses e
+            WHERE e.id = :expenseId AND l.account_id = e.account_id AND e.amount IS NOT NULL
+            RETURNING l.id
+            """;
+
+    private static final String INIT_SPENT_QUERY = """
+            UPDATE limits l
+            SET spent = COALESCE((SELECT SUM(e.amount) FROM expenses e WHERE e.account_id = l.account_id), 0)
+            WHERE l.id = :limitId
+            RETURNING l.id
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private final LimitRepo limitRepo;
 
-    private final ExpenseService expenseService;
+    private final EntityCacheEvictor entityCacheEvictor;
 
-    public LimitService(LimitRepo limitRepo, ExpenseService expenseService) {
+    private final AnalyticsStore analyticsStore;
+
+    public LimitService(LimitRepo limitRepo, EntityCacheEvictor entityCacheEvictor, AnalyticsStore analyticsStore) {
         this.limitRepo = limitRepo;
-        this.expenseService = expenseService;
+        this.entityCacheEvictor = entityCacheEvictor;
+        this.analyticsStore = analyticsStore;
     }
 
     public Limit getLimitByAccount(Account account) {
         return limitRepo.findLimitByAccount(account).orElse(null);
     }
 
+    public Limit getLimitByAccountId(Long accountId) {
+        return limitRepo.findLimitByAccountId(accountId).orElse(null);
+    }
+
+    public boolean hasLimit(Long accountId) {
+        return limitRepo.existsByAccountId(accountId);
+    }
+
     @Transactional
     public void deleteLimit(Limit limit) {
         limitRepo.delete(limit);
@@ -33,20 +67,46 @@ public class LimitService {
 
     @Transactional
     public void addLimit(Limit limit) {
-        limitRepo.save(limit);
-    }
-
-    public boolean hasLimitExceeded(Account account, Expense expense) {
-        Limit limit = getLimitByAccount(account);
-        if (limit != null) {
-            BigDecimal expenses =
-                   expenseService.getAllExpensesByAccount(account)
-                            .stream()
-                            .map(Expense::getAmount)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add)
-                            .add(expense.getAmount());
-            return expenses.compareTo(limit.getLimitAmount()) > 0;
+        limitRepo.saveAndFlush(limit);
+        evictUpdated(entityManager.createNativeQuery(INIT_SPENT_QUERY)
+                .setParameter("limitId", limit.getId())
+                .getResultList());
+    }
+
+    @Transactional
+    public void addExpense(Long expenseId) {
+        adjustSpent(expenseId, 1);
+    }
+
+    @Transactional
+    public void removeExpense(Long expenseId) {
+        adjustSpent(expenseId, -1);
+    }
+
+    public boolean wouldExceedLimit(Account account, BigDecimal amount) {
+        Money spent = analyticsStore.getSum(AnalyticsStore.Kind.EXPENSE, account.getId());
+        if (spent != null) {
+            Limit limit = getLimitByAccountId(account.getId());
+            return limit != null && spent.plus(Money.of(amount)).compareTo(Money.of(limit.getLimitAmount())) > 0;
+        }
+        String exceededQuery = "SELECT COUNT(l) FROM Limit l WHERE l.account = :account AND l.spent + :amount > l.limitAmount";
+        Long count = entityManager.createQuery(exceededQuery, Long.class)
+                .setParameter("account", account)
+                .setParameter("amount", amount)
+                .getSingleResult();
+        return count > 0;
+    }
+
+    private void adjustSpent(Long expenseId, int sign) {
+        evictUpdated(entityManager.createNativeQuery(ADJUST_SPENT_QUERY)
+                .setParameter("sign", sign)
+                .setParameter("expenseId", expenseId)
+                .getResultList());
+    }
+
+    private void evictUpdated(List<?> limitIds) {
+        for (Object limitId : limitIds) {
+            entityCacheEvictor.evict(Limit.class, ((Number) limitId).longValue());
         }
-        return false;
     }
 }
@@ -1,15 +1,16 @@
 package com.dzenthai.financial.accounting.service;
 
+import com.dzenthai.financial.accounting.bot.ChatIds;
 import com.dzenthai.financial.accounting.entity.User;
 import com.dzenthai.financial.accounting.entity.enums.Action;
 import com.dzenthai.financial.accounting.repository.UserRepo;
+import com.dzenthai.financial.accounting.service.cache.DialogStateWriter;
+import com.dzenthai.financial.accounting.service.cache.UserSessionCache;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
 import org.telegram.telegrambots.meta.api.interfaces.BotApiObject;
-import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
-import org.telegram.telegrambots.meta.api.objects.Message;
 
 
 @Service
@@ -17,37 +18,117 @@ public class UserService {
 
     private final UserRepo userRepo;
 
+    private final UserSessionCache userSessionCache;
+
+    private final DialogStateWriter dialogStateWriter;
+
+    private final ThreadLocal<DialogState> currentDialogState = new ThreadLocal<>();
+
     @PersistenceContext
     private EntityManager entityManager;
 
-    public UserService(UserRepo userRepo) {
+    public UserService(
+            UserRepo userRepo,
+            UserSessionCache userSessionCache,
+            DialogStateWriter dialogStateWriter
+    ) {
         this.userRepo = userRepo;
+        this.userSessionCache = userSessionCache;
+        this.dialogStateWriter = dialogStateWriter;
     }
 
-    public User findUserByBotApiObject(BotApiObject botApiObject) {
-        Long chatId = null;
-        if (botApiObject instanceof CallbackQuery callbackQuery) {
-            chatId = callbackQuery.getMessage().getChatId();
-        } else if (botApiObject instanceof Message message) {
-            chatId = message.getChatId();
+    public User beginUpdate(Long chatId) {
+        User user = getOrRegisterUser(chatId);
+        currentDialogState.set(new DialogState(user));
+        return user;
+    }
+
+    public void completeUpdate() {
+        DialogState dialogState = currentDialogState.get();
+        currentDialogState.remove();
+        if (dialogState == null || !dialogState.dirty) {
+            return;
+        }
+        try {
+            dialogStateWriter.write(dialogState.user);
+        } catch (RuntimeException e) {
+            userSessionCache.invalidate(dialogState.user.getChatId());
+            throw e;
+        }
+    }
+
+    public void abortUpdate() {
+        DialogState dialogState = currentDialogState.get();
+        currentDialogState.remove();
+        if (dialogState != null && dialogState.dirty) {
+            userSessionCache.invalidate(dialogState.user.getChatId());
+        }
+    }
+
+    public User getOrRegisterUser(Long chatId) {
+        User user = findUserByChatId(chatId);
+        if (user == null) {
+            user = userRepo.insertIfAbsent(chatId)
+                    .map(id -> User.builder()
+                            .id(id)
+                            .chatId(chatId)
+                            .action(Action.FREE)
+                            .build())
+                    .orElseGet(() -> userRepo.findUserByChatId(chatId).orElseThrow());
+            userSessionCache.put(user);
+        }
+        return user;
+    }
+
+    public User findUserByChatId(Long chatId) {
+        DialogState dialogState = currentDialogState.get();
+        if (dialogState != null && dialogState.user.getChatId().equals(chatId)) {
+            return dialogState.user;
+        }
+        User user = userSessionCache.get(chatId);
+        if (user == null) {
+            user = dialogStateWriter.getPending(chatId);
+            if (user == null) {
+                user = userRepo.findUserByChatId(chatId).orElse(null);
+            }
+            if (user != null) {
+                userSessionCache.put(user);
+            }
         }
+        return user;
+    }
+
+    public User findUserByBotApiObject(BotApiObject botApiObject) {
+        Long chatId = ChatIds.of(botApiObject);
         if (chatId != null) {
-            return userRepo.findUserByChatId(chatId).orElse(null);
+            return findUserByChatId(chatId);
         }
         return null;
     }
 
     @Transactional
     public void updateUserAction(Long chatId, Action action) {
+        User user = getDialogStateUser(chatId);
+        if (user != null) {
+            user.setAction(action);
+            return;
+        }
         String updateQuery = "UPDATE User u SET u.action = :newAction WHERE u.chatId = :chatId";
         entityManager.createQuery(updateQuery)
                 .setParameter("newAction", action)
                 .setParameter("chatId", chatId)
                 .executeUpdate();
+        userSessionCache.invalidate(chatId);
     }
 
     @Transactional
     public void updateCurrentAccountId(Long chatId, Long currentAccountId, Action action) {
+        User user = getDialogStateUser(chatId);
+        if (user != null) {
+            user.setCurrentAccountId(currentAccountId);
+            user.setAction(action);
+            return;
+        }
         String updateQuery = "UPDATE User u SET u.currentAccountId = :currentAccountId, u.action = :newAction WHERE u.chatId = :chatId";
         entityManager.createQuery(updateQuery)
                 .setParameter("currentAccountId", currentAccountId)
@@ -56,10 +137,17 @@ public class UserService {
                 .executeUpdate();
 
         entityManager.flush();
+        userSessionCache.invalidate(chatId);
     }
 
     @Transactional
     public void updateCurrentExpenseId(Long chatId, Long currentExpenseId, Action action) {
+        User user = getDialogStateUser(chatId);
+        if (user != null) {
+            user.setCurrentExpenseId(currentExpenseId);
+            user.setAction(action);
+            return;
+        }
         String updateQuery = "UPDATE User u SET u.currentExpenseId = :currentExpenseId, u.action = :newAction WHERE u.chatId = :chatId";
         entityManager.createQuery(updateQuery)
                 .setParameter("currentExpenseId", currentExpenseId)
@@ -68,10 +156,17 @@ public class UserService {
                 .executeUpdate();
 
         entityManager.flush();
+        userSessionCache.invalidate(chatId);
     }
 
     @Transactional
     public void updateCurrentIncomeId(Long chatId, Long currentIncomeId, Action action) {
+        User user = getDialogStateUser(chatId);
+        if (user != null) {
+            user.setCurrentIncomeId(currentIncomeId);
+            user.setAction(action);
+            return;
+        }
         String updateQuery = "UPDATE User u SET u.currentIncomeId = :currentIncomeId, u.action = :newAction WHERE u.chatId = :chatId";
         entityManager.createQuery(updateQuery)
                 .setParameter("currentIncomeId", currentIncomeId)
@@ -80,5 +175,26 @@ public class UserService {
                 .executeUpdate();
 
         entityManager.flush();
+        userSessionCache.invalidate(chatId);
+    }
+
+    private User getDialogStateUser(Long chatId) {
+        DialogState dialogState = currentDialogState.get();
+        if (dialogState == null || !dialogState.user.getChatId().equals(chatId)) {
+            return null;
+        }
+        dialogState.dirty = true;
+        return dialogState.user;
+    }
+
+    private static final class DialogState {
+
+        private final User user;
+
+        private boolean dirty;
+
+        private DialogState(User user) {
+            this.user = user;
+        }
     }
 }
@@ -0,0 +1,187 @@
+package com.dzenthai.financial.accounting.service.analytics;
+
+import com.dzenthai.financial.accounting.projection.AccountTotals;
+import com.dzenthai.financial.accounting.projection.Money;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+@Slf4j
+@Component
+public class AccountTimeIndex {
+
+    private static final String DAILY_TOTALS_QUERY = """
+            SELECT day, incomes, expenses
+            FROM account_daily_totals
+            WHERE account_id = :accountId
+            ORDER BY day
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Map<Long, DailyTotalsIndex> indexes;
+
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    public AccountTimeIndex(@Value("${bot.analytics.time-index.max-accounts}") int maxAccounts) {
+        this.indexes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, DailyTotalsIndex> eldest) {
+                if (size() > maxAccounts) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public AccountTotals getTotals(Long accountId, LocalDate from, LocalDate to) {
+        DailyTotalsIndex index = acquire(accountId);
+        if (index == null) {
+            return null;
+        }
+        synchronized (this) {
+            return new AccountTotals(
+                    Money.ofMinor(index.sumIncomes(from.toEpochDay(), to.toEpochDay())),
+                    Money.ofMinor(index.sumExpenses(from.toEpochDay(), to.toEpochDay())));
+        }
+    }
+
+    public void set(Long accountId, LocalDate day, BigDecimal incomes, BigDecimal expenses) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        setNow(accountId, day, incomes, expenses);
+                    } else {
+                        invalidateNow(accountId);
+                    }
+                }
+            });
+        } else {
+            setNow(accountId, day, incomes, expenses);
+        }
+    }
+
+    public void invalidate(Long accountId) {
+        invalidateNow(accountId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidateNow(accountId);
+                }
+            });
+        }
+    }
+
+    public synchronized int getSize() {
+        return indexes.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    private DailyTotalsIndex acquire(Long accountId) {
+        long loadedGeneration;
+        synchronized (this) {
+            DailyTotalsIndex index = indexes.get(accountId);
+            if (index != null) {
+                hits.incrementAndGet();
+                return index;
+            }
+            loadedGeneration = generation;
+        }
+        misses.incrementAndGet();
+        DailyTotalsIndex loaded = load(accountId);
+        if (loaded == null) {
+            return null;
+        }
+        synchronized (this) {
+            DailyTotalsIndex current = indexes.get(accountId);
+            if (current != null) {
+                return current;
+            }
+            if (generation == loadedGeneration) {
+                indexes.put(accountId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    private synchronized void setNow(Long accountId, LocalDate day, BigDecimal incomes, BigDecimal expenses) {
+        generation++;
+        DailyTotalsIndex index = indexes.get(accountId);
+        if (index == null) {
+            return;
+        }
+        try {
+            index.set(day.toEpochDay(), Money.ofExact(incomes).minorUnits(), Money.ofExact(expenses).minorUnits());
+        } catch (ArithmeticException e) {
+            log.warn("AccountTimeIndex | Totals of account {} do not fit into minor units, dropping index", accountId);
+            indexes.remove(accountId);
+        }
+    }
+
+    private synchronized void invalidateNow(Long accountId) {
+        generation++;
+        indexes.remove(accountId);
+    }
+
+    private DailyTotalsIndex load(Long accountId) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery(DAILY_TOTALS_QUERY)
+                .unwrap(NativeQuery.class)
+                .addScalar("day", LocalDate.class)
+                .addScalar("incomes", BigDecimal.class)
+                .addScalar("expenses", BigDecimal.class)
+                .setParameter("accountId", accountId)
+                .getResultList();
+        long originDay = rows.isEmpty() ? LocalDate.now().toEpochDay() : ((LocalDate) rows.get(0)[0]).toEpochDay();
+        long lastDay = rows.isEmpty() ? originDay : ((LocalDate) rows.get(rows.size() - 1)[0]).toEpochDay();
+        DailyTotalsIndex index = new DailyTotalsIndex(originDay, Math.toIntExact(lastDay - originDay + 1));
+        try {
+            for (Object[] row : rows) {
+                index.set(
+                        ((LocalDate) row[0]).toEpochDay(),
+                        Money.ofExact((BigDecimal) row[1]).minorUnits(),
+                        Money.ofExact((BigDecimal) row[2]).minorUnits());
+            }
+        } catch (ArithmeticException e) {
+            log.warn("AccountTimeIndex | Totals of account {} do not fit into minor units, using database", accountId);
+            return null;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,376 @@
+package com.dzenthai.financial.accounting.service.analytics;
+
+import com.dzenthai.financial.accounting.entity.Account;
+import com.dzenthai.financial.accounting.projection.AccountTotals;
+import com.dzenthai.financial.accounting.projection.Money;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+
+@Slf4j
+@Component
+public class AnalyticsStore {
+
+    public enum Kind {
+        EXPENSE,
+        INCOME
+    }
+
+    private static final String ACCOUNTS_QUERY = "SELECT a.id FROM Account a WHERE a.user.id = :userId";
+
+    private static final String EXPENSES_QUERY = """
+            SELECT e.id, e.account.id, e.datetime, e.amount, e.category
+            FROM Expense e
+            WHERE e.account.user.id = :userId AND e.datetime IS NOT NULL AND e.amount IS NOT NULL
+            """;
+
+    private static final String INCOMES_QUERY = """
+            SELECT i.id, i.account.id, i.datetime, i.amount, i.category
+            FROM Income i
+            WHERE i.account.user.id = :userId AND i.datetime IS NOT NULL AND i.amount IS NOT NULL
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final boolean enabled;
+
+    private final long memoryBudget;
+
+    private final Map<Long, UserColumns> users = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Map<Long, Long> owners = new HashMap<>();
+
+    private long usedBytes;
+
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    public AnalyticsStore(
+            @Value("${bot.analytics.enabled}") boolean enabled,
+            @Value("${bot.analytics.memory-budget-bytes}") long memoryBudget
+    ) {
+        this.enabled = enabled;
+        this.memoryBudget = memoryBudget;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public AccountTotals getTotals(Long accountId, LocalDateTime since) {
+        UserColumns columns = acquire(accountId);
+        if (columns == null) {
+            return null;
+        }
+        long after = TransactionColumns.toTimestamp(since);
+        return read(columns, user -> new AccountTotals(
+                Money.ofMinor(user.incomes.sum(accountId, after)),
+                Money.ofMinor(user.expenses.sum(accountId, after))));
+    }
+
+    public Money getSum(Kind kind, Long accountId) {
+        UserColumns columns = acquire(accountId);
+        if (columns == null) {
+            return null;
+        }
+        return read(columns, user -> Money.ofMinor(user.get(kind).sum(accountId, Long.MIN_VALUE)));
+    }
+
+    public boolean aggregate(Kind kind, Long accountId, LocalDateTime since, CategoryAggregator<?> aggregator) {
+        UserColumns columns = acquire(accountId);
+        if (columns == null) {
+            return false;
+        }
+        long after = TransactionColumns.toTimestamp(since);
+        return read(columns, user -> {
+            user.get(kind).aggregate(accountId, after, aggregator);
+            return true;
+        });
+    }
+
+    public void put(Kind kind, Long accountId, Long id, LocalDateTime datetime, BigDecimal amount, Enum<?> category) {
+        if (datetime == null || amount == null) {
+            return;
+        }
+        apply(accountId, columns -> columns.get(kind).put(
+                id,
+                accountId,
+                TransactionColumns.toTimestamp(datetime),
+                Money.ofExact(amount).minorUnits(),
+                category.ordinal()));
+    }
+
+    public void updateAmount(Kind kind, Long accountId, Long id, BigDecimal amount) {
+        apply(accountId, columns -> columns.get(kind).updateAmount(id, Money.ofExact(amount).minorUnits()));
+    }
+
+    public void updateCategory(Kind kind, Long accountId, Long id, Enum<?> category) {
+        apply(accountId, columns -> columns.get(kind).updateCategory(id, category.ordinal()));
+    }
+
+    public void remove(Kind kind, Long accountId, Long id) {
+        apply(accountId, columns -> columns.get(kind).remove(id));
+    }
+
+    public void removeAccount(Long accountId) {
+        apply(accountId, columns -> {
+            columns.expenses.removeAccount(accountId);
+            columns.incomes.removeAccount(accountId);
+            forget(accountId, columns);
+        });
+    }
+
+    public synchronized int getSize() {
+        return users.size();
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    private UserColumns acquire(Long accountId) {
+        if (!enabled || accountId == null) {
+            return null;
+        }
+        long loadedGeneration;
+        synchronized (this) {
+            Long userId = owners.get(accountId);
+            if (userId != null) {
+                hits.incrementAndGet();
+                return users.get(userId);
+            }
+            loadedGeneration = generation;
+        }
+        misses.incrementAndGet();
+        Long userId = findOwner(accountId);
+        if (userId == null) {
+            return null;
+        }
+        UserColumns loaded = load(userId);
+        if (loaded == null) {
+            return null;
+        }
+        synchronized (this) {
+            UserColumns current = users.get(userId);
+            if (current != null) {
+                if (current.accountIds.add(accountId)) {
+                    owners.put(accountId, userId);
+                }
+                return current;
+            }
+            if (generation == loadedGeneration) {
+                users.put(userId, loaded);
+                for (Long id : loaded.accountIds) {
+                    owners.put(id, userId);
+                }
+                loaded.accountedBytes = loaded.estimatedBytes();
+                usedBytes += loaded.accountedBytes;
+                evictOverBudget();
+            }
+        }
+        return loaded;
+    }
+
+    private void apply(Long accountId, Consumer<UserColumns> change) {
+        if (!enabled || accountId == null) {
+            return;
+        }
+        Long userId = findOwner(accountId);
+        if (userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyNow(userId, accountId, change);
+                }
+            });
+        } else {
+            applyNow(userId, accountId, change);
+        }
+    }
+
+    private <T> T read(UserColumns columns, Function<UserColumns, T> reader) {
+        long stamp = columns.lock.readLock();
+        try {
+            return reader.apply(columns);
+        } finally {
+            columns.lock.unlockRead(stamp);
+        }
+    }
+
+    private void applyNow(Long userId, Long accountId, Consumer<UserColumns> change) {
+        UserColumns columns;
+        synchronized (this) {
+            generation++;
+            columns = users.get(userId);
+            if (columns == null) {
+                return;
+            }
+            if (columns.accountIds.add(accountId)) {
+                owners.put(accountId, userId);
+            }
+        }
+        long bytes;
+        long stamp = columns.lock.writeLock();
+        try {
+            change.accept(columns);
+            bytes = columns.estimatedBytes();
+        } catch (ArithmeticException e) {
+            log.warn("AnalyticsStore | Amount does not fit into minor units, dropping columns of user {}", userId);
+            bytes = -1;
+        } finally {
+            columns.lock.unlockWrite(stamp);
+        }
+        resize(userId, columns, bytes);
+    }
+
+    private synchronized void resize(Long userId, UserColumns columns, long bytes) {
+        if (users.get(userId) != columns) {
+            return;
+        }
+        if (bytes < 0) {
+            evict(userId);
+            return;
+        }
+        usedBytes += bytes - columns.accountedBytes;
+        columns.accountedBytes = bytes;
+        evictOverBudget();
+    }
+
+    private synchronized void forget(Long accountId, UserColumns columns) {
+        columns.accountIds.remove(accountId);
+        owners.remove(accountId);
+    }
+
+    private Long findOwner(Long accountId) {
+        synchronized (this) {
+            Long userId = owners.get(accountId);
+            if (userId != null) {
+                return userId;
+            }
+        }
+        Account account = entityManager.find(Account.class, accountId);
+        return account != null && account.getUser() != null ? account.getUser().getId() : null;
+    }
+
+    private UserColumns load(Long userId) {
+        List<Long> accountIds = entityManager.createQuery(ACCOUNTS_QUERY, Long.class)
+                .setParameter("userId", userId)
+                .getResultList();
+        List<Object[]> expenses = entityManager.createQuery(EXPENSES_QUERY, Object[].class)
+                .setParameter("userId", userId)
+                .getResultList();
+        List<Object[]> incomes = entityManager.createQuery(INCOMES_QUERY, Object[].class)
+                .setParameter("userId", userId)
+                .getResultList();
+        try {
+            Set<Long> ids = ConcurrentHashMap.newKeySet();
+            ids.addAll(accountIds);
+            return new UserColumns(ids, toColumns(expenses), toColumns(incomes));
+        } catch (ArithmeticException e) {
+            log.warn("AnalyticsStore | Amounts of user {} do not fit into minor units, using database", userId);
+            return null;
+        }
+    }
+
+    private TransactionColumns toColumns(List<Object[]> rows) {
+        TransactionColumns columns = new TransactionColumns(rows.size());
+        for (Object[] row : rows) {
+            columns.append(
+                    (Long) row[0],
+                    (Long) row[1],
+                    TransactionColumns.toTimestamp((LocalDateTime) row[2]),
+                    Money.ofExact((BigDecimal) row[3]).minorUnits(),
+                    ((Enum<?>) row[4]).ordinal());
+        }
+        return columns;
+    }
+
+    private void evictOverBudget() {
+        Iterator<Map.Entry<Long, UserColumns>> iterator = users.entrySet().iterator();
+        while (usedBytes > memoryBudget && iterator.hasNext()) {
+            Map.Entry<Long, UserColumns> eldest = iterator.next();
+            iterator.remove();
+            release(eldest.getValue());
+        }
+    }
+
+    private void evict(Long userId) {
+        UserColumns columns = users.remove(userId);
+        if (columns != null) {
+            release(columns);
+        }
+    }
+
+    private void release(UserColumns columns) {
+        usedBytes -= columns.accountedBytes;
+        owners.keySet().removeAll(columns.accountIds);
+        evictions.incrementAndGet();
+    }
+
+    private static final class UserColumns {
+
+        private final Set<Long> accountIds;
+
+        private final TransactionColumns expenses;
+
+        private final TransactionColumns incomes;
+
+        private final StampedLock lock = new StampedLock();
+
+        private long accountedBytes;
+
+        private UserColumns(Set<Long> accountIds, TransactionColumns expenses, TransactionColumns incomes) {
+            this.accountIds = accountIds;
+            this.expenses = expenses;
+            this.incomes = incomes;
+        }
+
+        private TransactionColumns get(Kind kind) {
+            return kind == Kind.EXPENSE ? expenses : incomes;
+        }
+
+        private long estimatedBytes() {
+            return expenses.estimatedBytes() + incomes.estimatedBytes();
+        }
+    }
+}
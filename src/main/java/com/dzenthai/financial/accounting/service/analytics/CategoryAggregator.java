@@ -0,0 +1,120 @@
+package com.dzenthai.financial.accounting.service.analytics;
+
+import com.dzenthai.financial.accounting.projection.Money;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+public final class CategoryAggregator<C extends Enum<C>> {
+
+    private final C[] categories;
+
+    private final long[] sums;
+
+    private final long[] counts;
+
+    private final long[] mins;
+
+    private final long[] maxs;
+
+    private Money total;
+
+    public CategoryAggregator(Class<C> type) {
+        this.categories = type.getEnumConstants();
+        this.sums = new long[categories.length];
+        this.counts = new long[categories.length];
+        this.mins = new long[categories.length];
+        this.maxs = new long[categories.length];
+        Arrays.fill(mins, Long.MAX_VALUE);
+        Arrays.fill(maxs, Long.MIN_VALUE);
+    }
+
+    public void add(C category, Money amount) {
+        add(category.ordinal(), amount.minorUnits());
+    }
+
+    public void add(C category, Money sum, long count, Money min, Money max) {
+        add(category.ordinal(), sum.minorUnits(), count, min.minorUnits(), max.minorUnits());
+    }
+
+    public CategoryAggregator<C> merge(CategoryAggregator<C> other) {
+        if (this.total != null || other.total != null) {
+            this.total = getTotal().plus(other.getTotal());
+        }
+        for (int i = 0; i < categories.length; i++) {
+            if (other.counts[i] > 0) {
+                add(i, other.sums[i], other.counts[i], other.mins[i], other.maxs[i]);
+            }
+        }
+        return this;
+    }
+
+    public void setTotal(Money total) {
+        this.total = total;
+    }
+
+    public Money getTotal() {
+        if (this.total != null) {
+            return this.total;
+        }
+        long total = 0;
+        for (long sum : sums) {
+            total = Math.addExact(total, sum);
+        }
+        return Money.ofMinor(total);
+    }
+
+    public long getCount() {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return getCount() == 0;
+    }
+
+    public List<CategoryStats<C>> getStats() {
+        Money total = getTotal();
+        List<CategoryStats<C>> stats = new ArrayList<>(categories.length);
+        for (int i = 0; i < categories.length; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            Money sum = Money.ofMinor(sums[i]);
+            stats.add(new CategoryStats<>(
+                    categories[i],
+                    sum,
+                    counts[i],
+                    Money.ofMinor(mins[i]),
+                    Money.ofMinor(maxs[i]),
+                    sum.basisPointsOf(total)));
+        }
+        return stats;
+    }
+
+    void add(int ordinal, long amount) {
+        add(ordinal, amount, 1, amount, amount);
+    }
+
+    private void add(int ordinal, long sum, long count, long min, long max) {
+        sums[ordinal] = Math.addExact(sums[ordinal], sum);
+        counts[ordinal] += count;
+        mins[ordinal] = Math.min(mins[ordinal], min);
+        maxs[ordinal] = Math.max(maxs[ordinal], max);
+    }
+
+    public record CategoryStats<C extends Enum<C>>(
+            C category,
+            Money sum,
+            long count,
+            Money min,
+            Money max,
+            long shareBasisPoints
+    ) {
+    }
+}
@@ -0,0 +1,115 @@
+package com.dzenthai.financial.accounting.service.analytics;
+
+import java.util.Arrays;
+
+
+final class DailyTotalsIndex {
+
+    private static final int INITIAL_CAPACITY = 32;
+
+    private long originDay;
+
+    private int length;
+
+    private long[] incomes;
+
+    private long[] expenses;
+
+    private long[] incomeTree;
+
+    private long[] expenseTree;
+
+    DailyTotalsIndex(long originDay, int capacity) {
+        this.originDay = originDay;
+        int initial = Math.max(INITIAL_CAPACITY, capacity);
+        this.incomes = new long[initial];
+        this.expenses = new long[initial];
+        this.incomeTree = new long[initial + 1];
+        this.expenseTree = new long[initial + 1];
+    }
+
+    void set(long epochDay, long income, long expense) {
+        if (epochDay < originDay) {
+            shift(Math.toIntExact(originDay - epochDay));
+        }
+        int index = Math.toIntExact(epochDay - originDay);
+        if (index >= incomes.length) {
+            resize(Math.max(index + 1, incomes.length * 2));
+        }
+        add(incomeTree, index, Math.subtractExact(income, incomes[index]));
+        add(expenseTree, index, Math.subtractExact(expense, expenses[index]));
+        incomes[index] = income;
+        expenses[index] = expense;
+        length = Math.max(length, index + 1);
+    }
+
+    long sumIncomes(long fromDay, long toDay) {
+        return sum(incomeTree, fromDay, toDay);
+    }
+
+    long sumExpenses(long fromDay, long toDay) {
+        return sum(expenseTree, fromDay, toDay);
+    }
+
+    private long sum(long[] tree, long fromDay, long toDay) {
+        int from = clamp(fromDay);
+        int to = clamp(toDay);
+        return from >= to ? 0 : prefix(tree, to) - prefix(tree, from);
+    }
+
+    private int clamp(long epochDay) {
+        return (int) Math.min(Math.max(epochDay - originDay, 0), length);
+    }
+
+    private long prefix(long[] tree, int count) {
+        long total = 0;
+        for (int i = count; i > 0; i -= i & -i) {
+            total += tree[i];
+        }
+        return total;
+    }
+
+    private void add(long[] tree, int index, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private void shift(int days) {
+        long[] shiftedIncomes = new long[incomes.length + days];
+        long[] shiftedExpenses = new long[expenses.length + days];
+        System.arraycopy(incomes, 0, shiftedIncomes, days, length);
+        System.arraycopy(expenses, 0, shiftedExpenses, days, length);
+        incomes = shiftedIncomes;
+        expenses = shiftedExpenses;
+        originDay -= days;
+        length += days;
+        rebuild();
+    }
+
+    private void resize(int capacity) {
+        incomes = Arrays.copyOf(incomes, capacity);
+        expenses = Arrays.copyOf(expenses, capacity);
+        rebuild();
+    }
+
+    private void rebuild() {
+        incomeTree = build(incomes);
+        expenseTree = build(expenses);
+    }
+
+    private static long[] build(long[] values) {
+        long[] tree = new long[values.length + 1];
+        System.arraycopy(values, 0, tree, 1, values.length);
+        for (int i = 1; i < tree.length; i++) {
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+        return tree;
+    }
+}
@@ -0,0 +1,98 @@
+package com.dzenthai.financial.accounting.service.analytics;
+
+import java.util.Arrays;
+
+
+final class IdIndex {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private static final int ABSENT = -1;
+
+    private long[] keys;
+
+    private int[] positions;
+
+    private int mask;
+
+    private int size;
+
+    IdIndex(int expectedSize) {
+        allocate(Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize * 2 - 1)) << 1);
+    }
+
+    int get(long id) {
+        for (int slot = slot(id); ; slot = (slot + 1) & mask) {
+            if (positions[slot] == ABSENT) {
+                return ABSENT;
+            }
+            if (keys[slot] == id) {
+                return positions[slot];
+            }
+        }
+    }
+
+    void put(long id, int position) {
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        int slot = slot(id);
+        while (positions[slot] != ABSENT) {
+            if (keys[slot] == id) {
+                positions[slot] = position;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = id;
+        positions[slot] = position;
+        size++;
+    }
+
+    void remove(long id) {
+        int gap = slot(id);
+        while (positions[gap] != ABSENT && keys[gap] != id) {
+            gap = (gap + 1) & mask;
+        }
+        if (positions[gap] == ABSENT) {
+            return;
+        }
+        for (int next = (gap + 1) & mask; positions[next] != ABSENT; next = (next + 1) & mask) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                positions[gap] = positions[next];
+                gap = next;
+            }
+        }
+        positions[gap] = ABSENT;
+        size--;
+    }
+
+    long estimatedBytes() {
+        return (long) keys.length * (Long.BYTES + Integer.BYTES);
+    }
+
+    private int slot(long id) {
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldPositions = positions;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldPositions[i] != ABSENT) {
+                put(oldKeys[i], oldPositions[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        positions = new int[capacity];
+        Arrays.fill(positions, ABSENT);
+        mask = capacity - 1;
+        size = 0;
+    }
+}
@@ -0,0 +1,149 @@
+package com.dzenthai.financial.accounting.service.analytics;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+
+
+final class TransactionColumns {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final int BYTES_PER_ROW = Long.BYTES * 4 + Byte.BYTES;
+
+    private long[] ids;
+
+    private long[] accountIds;
+
+    private long[] timestamps;
+
+    private long[] amounts;
+
+    private byte[] categories;
+
+    private final IdIndex positions;
+
+    private int size;
+
+    TransactionColumns(int capacity) {
+        int initial = Math.max(INITIAL_CAPACITY, capacity);
+        this.ids = new long[initial];
+        this.accountIds = new long[initial];
+        this.timestamps = new long[initial];
+        this.amounts = new long[initial];
+        this.categories = new byte[initial];
+        this.positions = new IdIndex(initial);
+    }
+
+    static long toTimestamp(LocalDateTime datetime) {
+        return ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), datetime);
+    }
+
+    void append(long id, long accountId, long timestamp, long amount, int category) {
+        grow();
+        positions.put(id, size);
+        set(size++, id, accountId, timestamp, amount, category);
+    }
+
+    void put(long id, long accountId, long timestamp, long amount, int category) {
+        int index = positions.get(id);
+        if (index < 0) {
+            append(id, accountId, timestamp, amount, category);
+        } else {
+            set(index, id, accountId, timestamp, amount, category);
+        }
+    }
+
+    void updateAmount(long id, long amount) {
+        int index = positions.get(id);
+        if (index >= 0) {
+            amounts[index] = amount;
+        }
+    }
+
+    void updateCategory(long id, int category) {
+        int index = positions.get(id);
+        if (index >= 0) {
+            categories[index] = (byte) category;
+        }
+    }
+
+    void remove(long id) {
+        int index = positions.get(id);
+        if (index >= 0) {
+            removeAt(index);
+        }
+    }
+
+    void removeAccount(long accountId) {
+        int index = 0;
+        while (index < size) {
+            if (accountIds[index] == accountId) {
+                removeAt(index);
+            } else {
+                index++;
+            }
+        }
+    }
+
+    long sum(long accountId, long after) {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            if (accountIds[i] == accountId && timestamps[i] > after) {
+                total = Math.addExact(total, amounts[i]);
+            }
+        }
+        return total;
+    }
+
+    void aggregate(long accountId, long after, CategoryAggregator<?> aggregator) {
+        for (int i = 0; i < size; i++) {
+            if (accountIds[i] == accountId && timestamps[i] > after) {
+                aggregator.add(categories[i], amounts[i]);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    long estimatedBytes() {
+        return (long) ids.length * BYTES_PER_ROW + positions.estimatedBytes();
+    }
+
+    private void set(int index, long id, long accountId, long timestamp, long amount, int category) {
+        ids[index] = id;
+        accountIds[index] = accountId;
+        timestamps[index] = timestamp;
+        amounts[index] = amount;
+        categories[index] = (byte) category;
+    }
+
+    private void removeAt(int index) {
+        positions.remove(ids[index]);
+        int last = --size;
+        if (index == last) {
+            return;
+        }
+        ids[index] = ids[last];
+        accountIds[index] = accountIds[last];
+        timestamps[index] = timestamps[last];
+        amounts[index] = amounts[last];
+        categories[index] = categories[last];
+        positions.put(ids[index], index);
+    }
+
+    private void grow() {
+        if (size < ids.length) {
+            return;
+        }
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        accountIds = Arrays.copyOf(accountIds, capacity);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+    }
+}
@@ -0,0 +1,120 @@
+package com.dzenthai.financial.accounting.service.builder;
+
+import com.dzenthai.financial.accounting.projection.Money;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+public final class MessageTemplate {
+
+    public static final String PLACEHOLDER = "{}";
+
+    private static final int ARGUMENT_LENGTH_ESTIMATE = 16;
+
+    private final String[] segments;
+
+    private final int estimatedLength;
+
+    private MessageTemplate(String[] segments) {
+        this.segments = segments;
+        int literalLength = 0;
+        for (String segment : segments) {
+            literalLength += segment.length();
+        }
+        this.estimatedLength = literalLength + (segments.length - 1) * ARGUMENT_LENGTH_ESTIMATE;
+    }
+
+    public static MessageTemplate compile(String pattern) {
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        int index;
+        while ((index = pattern.indexOf(PLACEHOLDER, start)) >= 0) {
+            segments.add(pattern.substring(start, index));
+            start = index + PLACEHOLDER.length();
+        }
+        segments.add(pattern.substring(start));
+        return new MessageTemplate(segments.toArray(String[]::new));
+    }
+
+    public int getArity() {
+        return segments.length - 1;
+    }
+
+    public int getEstimatedLength() {
+        return estimatedLength;
+    }
+
+    public Writer render() {
+        return appendTo(new StringBuilder(estimatedLength));
+    }
+
+    public Writer appendTo(StringBuilder target) {
+        return new Writer(target);
+    }
+
+    private static void appendFixed(StringBuilder target, long value, int scale) {
+        long divisor = 1;
+        for (int i = 0; i < scale; i++) {
+            divisor *= 10;
+        }
+        if (value < 0) {
+            target.append('-');
+        }
+        long whole = Math.abs(value / divisor);
+        long fraction = Math.abs(value % divisor);
+        target.append(whole).append('.');
+        for (long digit = divisor / 10; digit > 1 && fraction < digit; digit /= 10) {
+            target.append('0');
+        }
+        target.append(fraction);
+    }
+
+    public final class Writer {
+
+        private final StringBuilder target;
+
+        private int index;
+
+        private Writer(StringBuilder target) {
+            this.target = target;
+            target.append(segments[0]);
+            this.index = 1;
+        }
+
+        public Writer text(String value) {
+            target.append(value);
+            return next();
+        }
+
+        public Writer number(long value) {
+            target.append(value);
+            return next();
+        }
+
+        public Writer money(Money value) {
+            appendFixed(target, value.minorUnits(), Money.SCALE);
+            return next();
+        }
+
+        public Writer percent(long basisPoints) {
+            appendFixed(target, basisPoints, 2);
+            return next();
+        }
+
+        public StringBuilder end() {
+            if (index != segments.length) {
+                throw new IllegalStateException("Message template expects " + getArity() + " arguments");
+            }
+            return target;
+        }
+
+        private Writer next() {
+            if (index >= segments.length) {
+                throw new IllegalStateException("Message template expects " + getArity() + " arguments");
+            }
+            target.append(segments[index++]);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.dzenthai.financial.accounting.service.cache;
+
+import com.dzenthai.financial.accounting.entity.User;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+
+@Slf4j
+@Component
+public class DialogStateWriter {
+
+    private static final String UPDATE_QUERY = """
+            UPDATE users
+            SET action = ?, current_account_id = ?, current_expense_id = ?, current_income_id = ?
+            WHERE chat_id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final boolean writeBehind;
+
+    private final Map<Long, User> pending = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler;
+
+    public DialogStateWriter(
+            JdbcTemplate jdbcTemplate,
+            @Value("${bot.user.write-behind.enabled}") boolean writeBehind,
+            @Value("${bot.user.write-behind.interval-ms}") long intervalMs
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeBehind = writeBehind;
+        if (writeBehind) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("dialog-state-writer").daemon().factory());
+            this.scheduler.scheduleWithFixedDelay(this::flush, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    public void write(User user) {
+        if (writeBehind) {
+            pending.put(user.getChatId(), copy(user));
+            return;
+        }
+        jdbcTemplate.update(UPDATE_QUERY, ps -> bind(ps, user));
+    }
+
+    public User getPending(Long chatId) {
+        User user = pending.get(chatId);
+        return user != null ? copy(user) : null;
+    }
+
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<User> batch = new ArrayList<>(pending.values());
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_QUERY, batch, batch.size(), this::bind);
+            log.debug("DialogStateWriter | Flushed dialog state for {} chats", batch.size());
+        } catch (RuntimeException e) {
+            log.error("DialogStateWriter | Error while flushing dialog state ", e);
+            return;
+        }
+        batch.forEach(user -> pending.remove(user.getChatId(), user));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            flush();
+        }
+    }
+
+    private void bind(PreparedStatement ps, User user) throws SQLException {
+        ps.setString(1, user.getAction() != null ? user.getAction().name() : null);
+        ps.setObject(2, user.getCurrentAccountId(), Types.BIGINT);
+        ps.setObject(3, user.getCurrentExpenseId(), Types.BIGINT);
+        ps.setObject(4, user.getCurrentIncomeId(), Types.BIGINT);
+        ps.setLong(5, user.getChatId());
+    }
+
+    private User copy(User user) {
+        return User.builder()
+                .id(user.getId())
+                .chatId(user.getChatId())
+                .action(user.getAction())
+                .currentAccountId(user.getCurrentAccountId())
+                .currentExpenseId(user.getCurrentExpenseId())
+                .currentIncomeId(user.getCurrentIncomeId())
+                .build();
+    }
+}
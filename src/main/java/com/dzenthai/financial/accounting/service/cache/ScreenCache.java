@@ -0,0 +1,119 @@
+package com.dzenthai.financial.accounting.service.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+
+@Component
+public class ScreenCache {
+
+    public enum Screen {
+        ACCOUNT,
+        LIMIT_MENU,
+        EXPENSE_REPORT,
+        INCOME_REPORT
+    }
+
+    private final long ttlNanos;
+
+    private final Map<Key, Entry> entries;
+
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    public ScreenCache(
+            @Value("${bot.cache.screen.max-size}") int maxSize,
+            @Value("${bot.cache.screen.ttl-seconds}") long ttlSeconds
+    ) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public RenderedScreen get(Screen screen, Long accountId, Supplier<RenderedScreen> renderer) {
+        Key key = new Key(screen, accountId, LocalDate.now());
+        long version = getVersion(accountId);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.version == version && System.nanoTime() - entry.renderedAt <= ttlNanos) {
+                hits.incrementAndGet();
+                return entry.screen;
+            }
+        }
+        misses.incrementAndGet();
+        RenderedScreen rendered = renderer.get();
+        synchronized (this) {
+            entries.put(key, new Entry(rendered, version, System.nanoTime()));
+        }
+        return rendered;
+    }
+
+    public void invalidate(Long accountId) {
+        if (accountId == null) {
+            return;
+        }
+        bumpVersion(accountId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    bumpVersion(accountId);
+                }
+            });
+        }
+    }
+
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public double getHitRatio() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    private long getVersion(Long accountId) {
+        return versions.getOrDefault(accountId, 0L);
+    }
+
+    private void bumpVersion(Long accountId) {
+        versions.put(accountId, sequence.incrementAndGet());
+    }
+
+    public record RenderedScreen(String text, InlineKeyboardMarkup keyboard) {
+    }
+
+    private record Key(Screen screen, Long accountId, LocalDate period) {
+    }
+
+    private record Entry(RenderedScreen screen, long version, long renderedAt) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.dzenthai.financial.accounting.service.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+
+@Slf4j
+@Component
+public class SecondLevelCacheStatistics {
+
+    private final Statistics statistics;
+
+    public SecondLevelCacheStatistics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public long getHits() {
+        return statistics.getSecondLevelCacheHitCount();
+    }
+
+    public long getMisses() {
+        return statistics.getSecondLevelCacheMissCount();
+    }
+
+    public long getPuts() {
+        return statistics.getSecondLevelCachePutCount();
+    }
+
+    public long getQueryCacheHits() {
+        return statistics.getQueryCacheHitCount();
+    }
+
+    public long getQueryCacheMisses() {
+        return statistics.getQueryCacheMissCount();
+    }
+
+    public double getHitRatio() {
+        long total = getHits() + getMisses();
+        return total == 0 ? 0 : (double) getHits() / total;
+    }
+
+    @Scheduled(fixedDelayString = "${bot.cache.l2.statistics-interval-ms}")
+    public void logStatistics() {
+        if (!statistics.isStatisticsEnabled()) {
+            return;
+        }
+        log.info("SecondLevelCacheStatistics | Entity cache hits={}, misses={}, puts={}, query cache hits={}, misses={}",
+                getHits(), getMisses(), getPuts(), getQueryCacheHits(), getQueryCacheMisses());
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics != null) {
+                log.debug("SecondLevelCacheStatistics | Region {}: hits={}, misses={}, puts={}",
+                        region,
+                        regionStatistics.getHitCount(),
+                        regionStatistics.getMissCount(),
+                        regionStatistics.getPutCount());
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.dzenthai.financial.accounting.service.cache;
+
+import com.dzenthai.financial.accounting.entity.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+@Slf4j
+@Component
+public class UserSessionCache {
+
+    private final long ttlNanos;
+
+    private final Map<Long, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    public UserSessionCache(
+            @Value("${bot.cache.user.max-size}") int maxSize,
+            @Value("${bot.cache.user.ttl-seconds}") long ttlSeconds
+    ) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized User get(Long chatId) {
+        Entry entry = entries.get(chatId);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (System.nanoTime() - entry.loadedAt > ttlNanos) {
+            entries.remove(chatId);
+            evictions.incrementAndGet();
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.user;
+    }
+
+    public synchronized void put(User user) {
+        entries.put(user.getChatId(), new Entry(user, System.nanoTime()));
+    }
+
+    public synchronized void invalidate(Long chatId) {
+        entries.remove(chatId);
+    }
+
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public double getHitRatio() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    @Scheduled(fixedDelayString = "${bot.cache.user.statistics-interval-ms}")
+    public void logStatistics() {
+        log.info("UserSessionCache | Size={}, hits={}, misses={}, evictions={}, hit ratio={}",
+                getSize(), getHits(), getMisses(), getEvictions(), String.format("%.2f", getHitRatio()));
+    }
+
+    private record Entry(User user, long loadedAt) {
+    }
+}
@@ -0,0 +1,28 @@
+package com.dzenthai.financial.accounting.service.draft;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+
+@Getter
+public class TransactionDraft<C extends Enum<C>> {
+
+    private final Class<C> categoryType;
+
+    private final Long accountId;
+
+    private final BigDecimal amount;
+
+    private final long createdAt = System.nanoTime();
+
+    @Setter
+    private C category;
+
+    public TransactionDraft(Class<C> categoryType, Long accountId, BigDecimal amount) {
+        this.categoryType = categoryType;
+        this.accountId = accountId;
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,74 @@
+package com.dzenthai.financial.accounting.service.draft;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+
+@Slf4j
+@Component
+public class TransactionDraftStore {
+
+    private final long ttlNanos;
+
+    private final Map<Long, TransactionDraft<?>> drafts = new ConcurrentHashMap<>();
+
+    public TransactionDraftStore(@Value("${bot.draft.ttl-seconds}") long ttlSeconds) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    public void put(Long chatId, TransactionDraft<?> draft) {
+        drafts.put(chatId, draft);
+    }
+
+    public <C extends Enum<C>> TransactionDraft<C> get(Long chatId, Class<C> categoryType) {
+        return cast(drafts.get(chatId), categoryType);
+    }
+
+    public void removeAfterCommit(Long chatId, TransactionDraft<?> draft) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    drafts.remove(chatId, draft);
+                }
+            });
+        } else {
+            drafts.remove(chatId, draft);
+        }
+    }
+
+    public int getSize() {
+        return drafts.size();
+    }
+
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.MINUTES)
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        int before = drafts.size();
+        drafts.values().removeIf(draft -> isExpired(draft, now));
+        int purged = before - drafts.size();
+        if (purged > 0) {
+            log.debug("TransactionDraftStore | Purged {} expired drafts", purged);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <C extends Enum<C>> TransactionDraft<C> cast(TransactionDraft<?> draft, Class<C> categoryType) {
+        if (draft == null || draft.getCategoryType() != categoryType || isExpired(draft, System.nanoTime())) {
+            return null;
+        }
+        return (TransactionDraft<C>) draft;
+    }
+
+    private boolean isExpired(TransactionDraft<?> draft, long now) {
+        return now - draft.getCreatedAt() > ttlNanos;
+    }
+}
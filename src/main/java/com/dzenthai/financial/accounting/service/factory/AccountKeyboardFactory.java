@@ -5,6 +5,7 @@ import com.dzenthai.financial.accounting.data.ExpenseData;
 import com.dzenthai.financial.accounting.data.IncomeData;
 import com.dzenthai.financial.accounting.entity.Account;
 import com.dzenthai.financial.accounting.entity.User;
+import com.dzenthai.financial.accounting.projection.AccountListItem;
 import com.dzenthai.financial.accounting.service.AccountService;
 import com.dzenthai.financial.accounting.service.UserService;
 import org.springframework.context.annotation.Lazy;
@@ -25,6 +26,16 @@ public class AccountKeyboardFactory {
 
     private final UserService userService;
 
+    private final KeyboardTemplate accountOperationKeyboard;
+
+    private final KeyboardTemplate deleteAccountKeyboard;
+
+    private final KeyboardTemplate editAccountDatetimeKeyboard;
+
+    private final KeyboardTemplate backToAccountKeyboard;
+
+    private final KeyboardTemplate backToAccountMenuKeyboard;
+
     public AccountKeyboardFactory(
             KeyboardFactory keyboardFactory,
             @Lazy AccountService accountService,
@@ -33,6 +44,44 @@ public class AccountKeyboardFactory {
         this.keyboardFactory = keyboardFactory;
         this.accountService = accountService;
         this.userService = userService;
+        this.accountOperationKeyboard = keyboardFactory.createInlineKeyboardTemplate(
+                List.of("✨ Доходы", "💸 Расходы", "🗑️ Удалить счет", "🕒 Дата и время", "↩️ Назад"),
+                List.of(2, 2, 1),
+                List.of(
+                        IncomeData.INCOME.name(),
+                        ExpenseData.EXPENSE.name(),
+                        AccountData.ACCOUNT_DELETE_.name() + KeyboardTemplate.ID,
+                        AccountData.ACCOUNT_DATETIME_.name() + KeyboardTemplate.ID,
+                        AccountData.ACCOUNT.name())
+        );
+        this.deleteAccountKeyboard = keyboardFactory.createInlineKeyboardTemplate(
+                List.of("✅ Да", "❌ Нет"),
+                List.of(2),
+                List.of(AccountData.ACCOUNT_DELETE_YES_.name() + KeyboardTemplate.ID,
+                        AccountData.ACCOUNT_DELETE_NO_.name() + KeyboardTemplate.ID)
+        );
+        this.editAccountDatetimeKeyboard = keyboardFactory.createInlineKeyboardTemplate(
+                List.of("📍 День", "📍 Неделя", "📍 Месяц", "📍 Полгода", "📍 Год", "📍 Свой период", "↩️ Назад"),
+                List.of(2, 3, 1, 1),
+                List.of(
+                        AccountData.ACCOUNT_DATETIME_DAY_.name() + KeyboardTemplate.ID,
+                        AccountData.ACCOUNT_DATETIME_WEEK_.name() + KeyboardTemplate.ID,
+                        AccountData.ACCOUNT_DATETIME_MONTH_.name() + KeyboardTemplate.ID,
+                        AccountData.ACCOUNT_DATETIME_SIXMONTH_.name() + KeyboardTemplate.ID,
+                        AccountData.ACCOUNT_DATETIME_YEAR_.name() + KeyboardTemplate.ID,
+                        AccountData.ACCOUNT_DATETIME_CUSTOM_.name() + KeyboardTemplate.ID,
+                        AccountData.ACCOUNT_GET_.name() + KeyboardTemplate.ID)
+        );
+        this.backToAccountKeyboard = keyboardFactory.createInlineKeyboardTemplate(
+                List.of("👤 Перейти к счету"),
+                List.of(1),
+                List.of(AccountData.ACCOUNT_GET_.name() + KeyboardTemplate.ID)
+        );
+        this.backToAccountMenuKeyboard = keyboardFactory.createInlineKeyboardTemplate(
+                List.of("🏛️ Меню счетов"),
+                List.of(1),
+                List.of(AccountData.ACCOUNT.name())
+        );
     }
 
     public InlineKeyboardMarkup accountMenuKeyboard(BotApiObject botApiObject) {
@@ -43,11 +92,11 @@ public class AccountKeyboardFactory {
 
         User user = userService.findUserByBotApiObject(botApiObject);
 
-        List<Account> accounts = accountService.getAllAccountsByUser(user);
+        List<AccountListItem> accounts = accountService.getAccountListItems(user);
 
-        for (Account account : accounts) {
-            text.add(account.getName());
-            data.add(AccountData.ACCOUNT_GET_.name() + account.getId());
+        for (AccountListItem account : accounts) {
+            text.add(account.name());
+            data.add(AccountData.ACCOUNT_GET_.name() + account.id());
         }
 
         configureButtonRows(config, accounts);
@@ -59,56 +108,16 @@ public class AccountKeyboardFactory {
         return keyboardFactory.createInlineKeyboard(text, config, data);
     }
 
-    public InlineKeyboardMarkup accountOperationKeyboard(String accountId) {
-
-        List<String> text = new ArrayList<>();
-        List<Integer> config = new ArrayList<>();
-        List<String> data = new ArrayList<>();
-
-        text.add("✨ Доходы");
-        data.add(IncomeData.INCOME.name());
-
-        text.add("💸 Расходы");
-        data.add(ExpenseData.EXPENSE.name());
-
-        config.add(2);
-
-        text.add("🗑️ Удалить счет");
-        data.add(AccountData.ACCOUNT_DELETE_.name() + accountId);
-
-        text.add("🕒 Дата и время");
-        data.add(AccountData.ACCOUNT_DATETIME_.name() + accountId);
-
-        config.add(2);
-
-        text.add("↩️ Назад");
-        data.add(AccountData.ACCOUNT.name());
-        config.add(1);
-
-        return keyboardFactory.createInlineKeyboard(text, config, data);
+    public InlineKeyboardMarkup accountOperationKeyboard(Long accountId) {
+        return accountOperationKeyboard.render(accountId);
     }
 
-    public InlineKeyboardMarkup deleteAccountKeyboard(String accountId) {
-        return keyboardFactory.createInlineKeyboard(
-                List.of("✅ Да", "❌ Нет"),
-                List.of(2),
-                List.of(AccountData.ACCOUNT_DELETE_YES_.name() + accountId,
-                        AccountData.ACCOUNT_DELETE_NO_.name() + accountId)
-        );
+    public InlineKeyboardMarkup deleteAccountKeyboard(Long accountId) {
+        return deleteAccountKeyboard.render(accountId);
     }
 
-    public InlineKeyboardMarkup editAccountDatetimeKeyboard(String accountId) {
-        return keyboardFactory.createInlineKeyboard(
-                List.of("📍 День", "📍 Неделя", "📍 Месяц", "📍 Полгода", "📍 Год", "↩️ Назад"),
-                List.of(2, 3, 1),
-                List.of(
-                        AccountData.ACCOUNT_DATETIME_DAY_.name() + accountId,
-                        AccountData.ACCOUNT_DATETIME_WEEK_.name() + accountId,
-                        AccountData.ACCOUNT_DATETIME_MONTH_.name() + accountId,
-                        AccountData.ACCOUNT_DATETIME_SIXMONTH_.name() + accountId,
-                        AccountData.ACCOUNT_DATETIME_YEAR_.name() + accountId,
-                        AccountData.ACCOUNT_GET_.name() + accountId)
-        );
+    public InlineKeyboardMarkup editAccountDatetimeKeyboard(Long accountId) {
+        return editAccountDatetimeKeyboard.render(accountId);
     }
 
 
@@ -122,20 +131,12 @@ public class AccountKeyboardFactory {
         return keyboardFactory.createInlineKeyboard(text, config, data);
     }
 
-    public InlineKeyboardMarkup backToAccount(String accountId) {
-        return keyboardFactory.createInlineKeyboard(
-                List.of("👤 Перейти к счету"),
-                List.of(1),
-                List.of(AccountData.ACCOUNT_GET_.name() + accountId)
-        );
+    public InlineKeyboardMarkup backToAccount(Long accountId) {
+        return backToAccountKeyboard.render(accountId);
     }
 
     public InlineKeyboardMarkup backToAccountMenu() {
-        return keyboardFactory.createInlineKeyboard(
-                List.of("🏛️ Меню счетов"),
-                List.of(1),
-                List.of(AccountData.ACCOUNT.name())
-        );
+        return backToAccountMenuKeyboard.render();
     }
 
     private void configureButtonRows(List<Integer> config, List<?> objects) {
@@ -2,12 +2,11 @@ package com.dzenthai.financial.accounting.service.factory;
 
 import com.dzenthai.financial.accounting.data.AccountData;
 import com.dzenthai.financial.accounting.data.ExpenseData;
-import com.dzenthai.financial.accounting.entity.Account;
-import com.dzenthai.financial.accounting.entity.Expense;
-import com.dzenthai.financial.accounting.entity.Limit;
 import com.dzenthai.financial.accounting.entity.User;
 import com.dzenthai.financial.accounting.entity.enums.ExpenseCategory;
-import com.dzenthai.financial.accounting.service.AccountService;
+import com.dzenthai.financial.accounting.projection.ExpenseListItem;
+import com.dzenthai.financial.accounting.projection.KeysetPage;
+import com.dzenthai.financial.accounting.projection.PageCursor;
 import com.dzenthai.financial.accounting.service.ExpenseService;
 import com.dzenthai.financial.accounting.service.LimitService;
 import com.dzenthai.financial.accounting.service.UserService;
@@ -16,10 +15,11 @@ import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.meta.api.interfaces.BotApiObject;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
 
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 @Slf4j
@@ -30,50 +30,143 @@ public class ExpenseKeyboardFactory {
 
     private final UserService userService;
 
-    private final AccountService accountService;
-
     private final ExpenseService expenseService;
 
     private final LimitService limitService;
 
+    private final KeyboardTemplate addExpenseCategoryKeyboard;
+
+    private final KeyboardTemplate editExpenseCategoryKeyboard;
+
+    private final KeyboardTemplate editAndDeleteExpenseKeyboard;
+
+    private final KeyboardTemplate editExpenseKeyboard;
+
+    private final KeyboardTemplate deleteExpenseKeyboard;
+
+    private final KeyboardTemplate deleteLimitKeyboard;
+
+    private final KeyboardTemplate skipExpenseNoteKeyboard;
+
+    private final KeyboardTemplate filterExpenseCategoryKeyboard;
+
+    private final Map<String, KeyboardTemplate> backToExpenseMenuKeyboards = new ConcurrentHashMap<>();
+
+    private final Map<String, KeyboardTemplate> backToLimitMenuKeyboards = new ConcurrentHashMap<>();
+
     public ExpenseKeyboardFactory(
             KeyboardFactory keyboardFactory,
             UserService userService,
-            AccountService accountService,
             ExpenseService expenseService,
             LimitService limitService
     ) {
         this.keyboardFactory = keyboardFactory;
         this.userService = userService;
-        this.accountService = accountService;
         this.expenseService = expenseService;
         this.limitService = limitService;
+        this.addExpenseCategoryKeyboard = createCategoryKeyboard(ExpenseData.EXPENSE_ADD_CATEGORY_.name(), "");
+        this.editExpenseCategoryKeyboard = createCategoryKeyboard(
+                ExpenseData.EXPENSE_EDIT_CATEGORY_.name(), "_" + KeyboardTemplate.ID);
+        this.editAndDeleteExpenseKeyboard = keyboardFactory.createInlineKeyboardTemplate(
+                List.of("🛠️ Изменить", "🗑️ Удалить", "↩️ Назад"),
+                List.of(2, 1),
+                List.of(
+                        ExpenseData.EXPENSE_EDIT_.name() + KeyboardTemplate.ID,
+                        ExpenseData.EXPENSE_DELETE_.name() + KeyboardTemplate.ID,
+                        ExpenseData.EXPENSE_BACK.name()
+                )
+        );
+        this.editExpenseKeyboard = keyboardFactory.createInlineKeyboardTemplate(
+                List.of("💰 Сумма", "🛒 Категория трат", "📌 Описание", "↩️ Назад"),
+                List.of(1, 1, 1, 1),
+                List.of(
+                        ExpenseData.EXPENSE_EDIT_AMOUNT_.name() + KeyboardTemplate.ID,
+                        ExpenseData.EXPENSE_EDIT_CATEGORY_.name() + KeyboardTemplate.ID,
+                        ExpenseData.EXPENSE_EDIT_NOTE_.name() + KeyboardTemplate.ID,
+                        ExpenseData.EXPENSE_GET_.name() + KeyboardTemplate.ID
+                )
+        );
+        this.deleteExpenseKeyboard = keyboardFactory.createInlineKeyboardTemplate(
+                List.of("✅ Да", "❌ Нет"),
+                List.of(2),
+                List.of(ExpenseData.EXPENSE_DELETE_YES_.name() + KeyboardTemplate.ID,
+                        ExpenseData.EXPENSE_DELETE_NO_.name() + KeyboardTemplate.ID)
+        );
+        this.deleteLimitKeyboard = keyboardFactory.createInlineKeyboardTemplate(
+                List.of("✅ Да", "❌ Нет"),
+                List.of(2),
+                List.of(ExpenseData.EXPENSE_LIMIT_DELETE_YES_.name() + KeyboardTemplate.ID,
+                        ExpenseData.EXPENSE_LIMIT_DELETE_NO_.name() + KeyboardTemplate.ID)
+        );
+        this.skipExpenseNoteKeyboard = keyboardFactory.createInlineKeyboardTemplate(
+                List.of("⏩ Пропустить"),
+                List.of(1),
+                List.of(ExpenseData.EXPENSE_ADD_NOTE_SKIP.name())
+        );
+        this.filterExpenseCategoryKeyboard = createCategoryKeyboard(ExpenseData.EXPENSE_FILTER_.name(), "");
     }
 
     public InlineKeyboardMarkup expenseMenuKeyboard(BotApiObject botApiObject) {
 
+        User user = userService.findUserByBotApiObject(botApiObject);
+
+        Long accountId = Objects.requireNonNull(user).getCurrentAccountId();
+
+        return expenseMenuKeyboard(accountId, null, expenseService.getFirstExpensePage(accountId, null));
+
+    }
+
+    public InlineKeyboardMarkup expenseMenuKeyboard(
+            Long accountId,
+            ExpenseCategory category,
+            KeysetPage<ExpenseListItem> page
+    ) {
+
         List<String> text = new ArrayList<>();
         List<Integer> config = new ArrayList<>();
         List<String> data = new ArrayList<>();
 
-        User user = userService.findUserByBotApiObject(botApiObject);
+        List<ExpenseListItem> expenses = page.items();
 
-        Account account = accountService.getAccountById(Objects.requireNonNull(user).getCurrentAccountId());
+        for (ExpenseListItem expense : expenses) {
+            text.add(expense.category().getDisplayName() + expense.amount());
+            config.add(1);
+            data.add(ExpenseData.EXPENSE_GET_.name() + expense.id());
+        }
 
-        List<Expense> expenses = expenseService.getAllExpensesByAccountAndDateAfter(account, account.getCompareDate());
+        String filter = category != null ? category.name() + "_" : "";
+        int navigation = 0;
 
-        Limit limit = limitService.getLimitByAccount(account);
+        if (page.newer() != null) {
+            text.add("⬅️ Новее");
+            data.add(ExpenseData.EXPENSE_PAGE_NEWER_.name() + filter + cursorData(page.newer()));
+            navigation++;
+        }
+
+        if (page.older() != null) {
+            text.add("Старее ➡️");
+            data.add(ExpenseData.EXPENSE_PAGE_OLDER_.name() + filter + cursorData(page.older()));
+            navigation++;
+        }
 
-        for (Expense expense : expenses) {
-            text.add(expense.getCategory().getDisplayName() + expense.getAmount());
+        if (navigation > 0) {
+            config.add(navigation);
+        }
+
+        if (category != null) {
+            text.add("❌ Сбросить фильтр");
+            data.add(ExpenseData.EXPENSE.name());
+            config.add(1);
+        } else if (!expenses.isEmpty()) {
+            text.add("🔎 Фильтр по категории");
+            data.add(ExpenseData.EXPENSE_FILTER.name());
             config.add(1);
-            data.add(ExpenseData.EXPENSE_GET_.name() + expense.getId());
         }
 
         if (!expenses.isEmpty()) {
 
             text.add("Посмотреть отчет");
-            data.add(ExpenseData.EXPENSE_REPORT_.name() + account.getId());
+            data.add(ExpenseData.EXPENSE_REPORT_.name() + accountId);
 
             text.add("Меню лимитов");
             data.add(ExpenseData.EXPENSE_LIMIT.name());
@@ -85,95 +178,42 @@ public class ExpenseKeyboardFactory {
         data.add(ExpenseData.EXPENSE_ADD_AMOUNT.name());
 
         text.add("↩️ Назад");
-        data.add(AccountData.ACCOUNT_GET_.name() + account.getId());
+        data.add(AccountData.ACCOUNT_GET_.name() + accountId);
 
         config.add(2);
 
-        if (expenses.isEmpty() && limit != null) {
+        if (expenses.isEmpty() && category == null && limitService.hasLimit(accountId)) {
             text.add("🗑️ Удалить лимит");
             config.add(1);
-            data.add(ExpenseData.EXPENSE_LIMIT_DELETE_.name() + account.getId());
+            data.add(ExpenseData.EXPENSE_LIMIT_DELETE_.name() + accountId);
         }
 
         return keyboardFactory.createInlineKeyboard(text, config, data);
 
     }
 
-    public InlineKeyboardMarkup getAllExpenseCategoryKeyboard() {
-        List<String> text = ExpenseCategory.getDisplayNames();
-        List<Integer> config = new ArrayList<>();
-        List<String> data = new ArrayList<>();
-
-        List<String> expenseCategories = ExpenseCategory.getNames();
-
-        for (String expenseCategory : expenseCategories) {
-            config.add(1);
-            data.add(ExpenseData.EXPENSE_ADD_CATEGORY_.name() + expenseCategory);
-        }
-
-        return keyboardFactory.createInlineKeyboard(text, config, data);
+    public InlineKeyboardMarkup filterExpenseCategoryKeyboard() {
+        return filterExpenseCategoryKeyboard.render();
     }
 
-    public InlineKeyboardMarkup getAllExpenseCategoryKeyboard(String expenseId) {
-        List<String> text = ExpenseCategory.getDisplayNames();
-        List<Integer> config = new ArrayList<>();
-        List<String> data = new ArrayList<>();
-
-        List<String> expenseCategories = ExpenseCategory.getNames();
-
-        for (String expenseCategory : expenseCategories) {
-            config.add(1);
-            data.add("EXPENSE_EDIT_CATEGORY_" + expenseCategory + "_" + expenseId);
-        }
-
-        return keyboardFactory.createInlineKeyboard(text, config, data);
+    public InlineKeyboardMarkup getAllExpenseCategoryKeyboard() {
+        return addExpenseCategoryKeyboard.render();
     }
 
-    public InlineKeyboardMarkup editAndDeleteExpenseKeyboard(String expenseId) {
-        return keyboardFactory.createInlineKeyboard(
-                List.of("🛠️ Изменить", "🗑️ Удалить", "↩️ Назад"),
-                List.of(2, 1),
-                List.of(
-                        ExpenseData.EXPENSE_EDIT_ + expenseId,
-                        ExpenseData.EXPENSE_DELETE_ + expenseId,
-                        ExpenseData.EXPENSE_BACK.name()
-
-                )
-        );
+    public InlineKeyboardMarkup getAllExpenseCategoryKeyboard(Long expenseId) {
+        return editExpenseCategoryKeyboard.render(expenseId);
     }
 
-    public InlineKeyboardMarkup editExpenseKeyboard(String expenseId) {
-
-        List<String> text = new ArrayList<>();
-        List<Integer> config = new ArrayList<>();
-        List<String> data = new ArrayList<>();
-
-        text.add("💰 Сумма");
-        config.add(1);
-        data.add(ExpenseData.EXPENSE_EDIT_AMOUNT_.name() + expenseId);
-
-        text.add("🛒 Категория трат");
-        config.add(1);
-        data.add(ExpenseData.EXPENSE_EDIT_CATEGORY_.name() + expenseId);
-
-        text.add("📌 Описание");
-        config.add(1);
-        data.add(ExpenseData.EXPENSE_EDIT_NOTE_.name() + expenseId);
-
-        text.add("↩️ Назад");
-        config.add(1);
-        data.add(ExpenseData.EXPENSE_GET_.name() + expenseId);
+    public InlineKeyboardMarkup editAndDeleteExpenseKeyboard(Long expenseId) {
+        return editAndDeleteExpenseKeyboard.render(expenseId);
+    }
 
-        return keyboardFactory.createInlineKeyboard(text, config, data);
+    public InlineKeyboardMarkup editExpenseKeyboard(Long expenseId) {
+        return editExpenseKeyboard.render(expenseId);
     }
 
-    public InlineKeyboardMarkup deleteExpenseKeyboard(String expenseId) {
-        return keyboardFactory.createInlineKeyboard(
-                List.of("✅ Да", "❌ Нет"),
-                List.of(2),
-                List.of(ExpenseData.EXPENSE_DELETE_YES_.name() + expenseId,
-                        ExpenseData.EXPENSE_DELETE_NO_.name() + expenseId)
-        );
+    public InlineKeyboardMarkup deleteExpenseKeyboard(Long expenseId) {
+        return deleteExpenseKeyboard.render(expenseId);
     }
 
     public InlineKeyboardMarkup getLimitMenuKeyboard(BotApiObject botApiObject) {
@@ -183,25 +223,22 @@ public class ExpenseKeyboardFactory {
         List<String> data = new ArrayList<>();
 
         User user = userService.findUserByBotApiObject(botApiObject);
-        Account account = accountService.getAccountById(Objects.requireNonNull(user).getCurrentAccountId());
-        Limit limit = limitService.getLimitByAccount(account);
-
-        List<Expense> expenses = expenseService.getAllExpensesByAccount(account).stream().filter(Expense::isLimitExceeded).toList();
+        Long accountId = Objects.requireNonNull(user).getCurrentAccountId();
 
-        if (!expenses.isEmpty()) {
+        if (expenseService.hasLimitExceededExpenses(accountId)) {
             text.add("🛫 Превышения лимита");
             data.add(ExpenseData.EXPENSE_LIMIT_EXCEEDED.name());
             config.add(1);
         }
 
-        if (limit != null) {
+        if (limitService.hasLimit(accountId)) {
             text.add("🗑️ Удалить лимит");
-            data.add(ExpenseData.EXPENSE_LIMIT_DELETE_.name() + account.getId());
+            data.add(ExpenseData.EXPENSE_LIMIT_DELETE_.name() + accountId);
             config.add(1);
 
         } else {
             text.add("⚡ Установить лимит");
-            data.add(ExpenseData.EXPENSE_LIMIT_ADD_.name() + account.getId());
+            data.add(ExpenseData.EXPENSE_LIMIT_ADD_.name() + accountId);
             config.add(1);
         }
 
@@ -213,16 +250,34 @@ public class ExpenseKeyboardFactory {
 
     }
 
-    public InlineKeyboardMarkup getAllLimitExceededExpensesKeyboard(List<Expense> expenses) {
+    public InlineKeyboardMarkup getAllLimitExceededExpensesKeyboard(KeysetPage<ExpenseListItem> page) {
 
         List<String> text = new ArrayList<>();
         List<Integer> config = new ArrayList<>();
         List<String> data = new ArrayList<>();
 
-        for (Expense expense : expenses) {
-            text.add(expense.getCategory().getDisplayName() + expense.getAmount());
+        for (ExpenseListItem expense : page.items()) {
+            text.add(expense.category().getDisplayName() + expense.amount());
             config.add(1);
-            data.add(ExpenseData.EXPENSE_GET_.name() + expense.getId());
+            data.add(ExpenseData.EXPENSE_GET_.name() + expense.id());
+        }
+
+        int navigation = 0;
+
+        if (page.newer() != null) {
+            text.add("⬅️ Новее");
+            data.add(ExpenseData.EXPENSE_LIMIT_EXCEEDED_NEWER_.name() + cursorData(page.newer()));
+            navigation++;
+        }
+
+        if (page.older() != null) {
+            text.add("Старее ➡️");
+            data.add(ExpenseData.EXPENSE_LIMIT_EXCEEDED_OLDER_.name() + cursorData(page.older()));
+            navigation++;
+        }
+
+        if (navigation > 0) {
+            config.add(navigation);
         }
 
         text.add("↩️ Назад");
@@ -234,31 +289,43 @@ public class ExpenseKeyboardFactory {
     }
 
     public InlineKeyboardMarkup backToExpenseMenu(String text) {
-        List<Integer> config = new ArrayList<>();
-        List<String> data = new ArrayList<>();
+        return backToExpenseMenuKeyboards.computeIfAbsent(text, key -> keyboardFactory.createInlineKeyboardTemplate(
+                List.of(key),
+                List.of(1),
+                List.of(ExpenseData.EXPENSE_BACK.name())
+        )).render();
+    }
 
-        config.add(1);
-        data.add(ExpenseData.EXPENSE_BACK.name());
+    public InlineKeyboardMarkup backToLimitMenu(String text) {
+        return backToLimitMenuKeyboards.computeIfAbsent(text, key -> keyboardFactory.createInlineKeyboardTemplate(
+                List.of(key),
+                List.of(1),
+                List.of(ExpenseData.EXPENSE_LIMIT.name())
+        )).render();
+    }
 
-        return keyboardFactory.createInlineKeyboard(List.of(text), config, data);
+    public InlineKeyboardMarkup skipExpenseNoteKeyboard() {
+        return skipExpenseNoteKeyboard.render();
     }
 
-    public InlineKeyboardMarkup backToLimitMenu(String text) {
+    public InlineKeyboardMarkup deleteLimitKeyboard(Long accountId) {
+        return deleteLimitKeyboard.render(accountId);
+    }
+
+    private String cursorData(PageCursor cursor) {
+        return cursor.epochMicros() + "_" + cursor.id();
+    }
+
+    private KeyboardTemplate createCategoryKeyboard(String prefix, String suffix) {
+        List<String> text = ExpenseCategory.getDisplayNames();
         List<Integer> config = new ArrayList<>();
         List<String> data = new ArrayList<>();
 
-        config.add(1);
-        data.add(ExpenseData.EXPENSE_LIMIT.name());
-
-        return keyboardFactory.createInlineKeyboard(List.of(text), config, data);
-    }
+        for (String expenseCategory : ExpenseCategory.getNames()) {
+            config.add(1);
+            data.add(prefix + expenseCategory + suffix);
+        }
 
-    public InlineKeyboardMarkup deleteLimitKeyboard(String accountId) {
-        return keyboardFactory.createInlineKeyboard(
-                List.of("✅ Да", "❌ Нет"),
-                List.of(2),
-                List.of(ExpenseData.EXPENSE_LIMIT_DELETE_YES_.name() + accountId,
-                        ExpenseData.EXPENSE_LIMIT_DELETE_NO_.name() + accountId)
-        );
+        return keyboardFactory.createInlineKeyboardTemplate(text, config, data);
     }
 }
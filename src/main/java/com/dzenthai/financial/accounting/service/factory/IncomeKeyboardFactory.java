@@ -2,11 +2,11 @@ package com.dzenthai.financial.accounting.service.factory;
 
 import com.dzenthai.financial.accounting.data.AccountData;
 import com.dzenthai.financial.accounting.data.IncomeData;
-import com.dzenthai.financial.accounting.entity.Account;
-import com.dzenthai.financial.accounting.entity.Income;
 import com.dzenthai.financial.accounting.entity.User;
 import com.dzenthai.financial.accounting.entity.enums.IncomeCategory;
-import com.dzenthai.financial.accounting.service.AccountService;
+import com.dzenthai.financial.accounting.projection.IncomeListItem;
+import com.dzenthai.financial.accounting.projection.KeysetPage;
+import com.dzenthai.financial.accounting.projection.PageCursor;
 import com.dzenthai.financial.accounting.service.IncomeService;
 import com.dzenthai.financial.accounting.service.UserService;
 import lombok.extern.slf4j.Slf4j;
@@ -16,7 +16,9 @@ import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMa
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 @Slf4j
@@ -25,39 +27,117 @@ public class IncomeKeyboardFactory {
 
     private final KeyboardFactory keyboardFactory;
     private final UserService userService;
-    private final AccountService accountService;
     private final IncomeService incomeService;
+    private final KeyboardTemplate addIncomeCategoryKeyboard;
+    private final KeyboardTemplate editIncomeCategoryKeyboard;
+    private final KeyboardTemplate editAndDeleteIncomeKeyboard;
+    private final KeyboardTemplate editIncomeKeyboard;
+    private final KeyboardTemplate confirmDeleteIncomeKeyboard;
+    private final KeyboardTemplate skipIncomeNoteKeyboard;
+    private final KeyboardTemplate filterIncomeCategoryKeyboard;
+    private final Map<String, KeyboardTemplate> backToMainMenuKeyboards = new ConcurrentHashMap<>();
 
     public IncomeKeyboardFactory(
             KeyboardFactory keyboardFactory,
             UserService userService,
-            AccountService accountService,
             IncomeService incomeService
     ) {
         this.keyboardFactory = keyboardFactory;
         this.userService = userService;
-        this.accountService = accountService;
         this.incomeService = incomeService;
+        this.addIncomeCategoryKeyboard = createCategoryKeyboard(IncomeData.INCOME_ADD_CATEGORY_.name(), "");
+        this.editIncomeCategoryKeyboard = createCategoryKeyboard(
+                IncomeData.INCOME_EDIT_CATEGORY_.name(), "_" + KeyboardTemplate.ID);
+        this.editAndDeleteIncomeKeyboard = keyboardFactory.createInlineKeyboardTemplate(
+                List.of("🛠️ Изменить", "🗑️ Удалить", "↩️ Назад"),
+                List.of(2, 1),
+                List.of(
+                        IncomeData.INCOME_EDIT_.name() + KeyboardTemplate.ID,
+                        IncomeData.INCOME_DELETE_.name() + KeyboardTemplate.ID,
+                        IncomeData.INCOME_BACK.name()
+                )
+        );
+        this.editIncomeKeyboard = keyboardFactory.createInlineKeyboardTemplate(
+                List.of("💰 Сумма", "🚀 Категория доходов", "📌 Описание", "↩️ Назад"),
+                List.of(1, 1, 1, 1),
+                List.of(
+                        IncomeData.INCOME_EDIT_AMOUNT_.name() + KeyboardTemplate.ID,
+                        IncomeData.INCOME_EDIT_CATEGORY_.name() + KeyboardTemplate.ID,
+                        IncomeData.INCOME_EDIT_NOTE_.name() + KeyboardTemplate.ID,
+                        IncomeData.INCOME_GET_.name() + KeyboardTemplate.ID
+                )
+        );
+        this.confirmDeleteIncomeKeyboard = keyboardFactory.createInlineKeyboardTemplate(
+                List.of("✅ Да", "❌ Нет"),
+                List.of(2),
+                List.of(
+                        IncomeData.INCOME_DELETE_YES_.name() + KeyboardTemplate.ID,
+                        IncomeData.INCOME_DELETE_NO_.name() + KeyboardTemplate.ID
+                )
+        );
+        this.skipIncomeNoteKeyboard = keyboardFactory.createInlineKeyboardTemplate(
+                List.of("⏩ Пропустить"),
+                List.of(1),
+                List.of(IncomeData.INCOME_ADD_NOTE_SKIP.name())
+        );
+        this.filterIncomeCategoryKeyboard = createCategoryKeyboard(IncomeData.INCOME_FILTER_.name(), "");
     }
 
     public InlineKeyboardMarkup incomeMenuKeyboard(BotApiObject botApiObject) {
+        User user = userService.findUserByBotApiObject(botApiObject);
+        Long accountId = Objects.requireNonNull(user).getCurrentAccountId();
+        return incomeMenuKeyboard(accountId, null, incomeService.getFirstIncomePage(accountId, null));
+    }
+
+    public InlineKeyboardMarkup incomeMenuKeyboard(
+            Long accountId,
+            IncomeCategory category,
+            KeysetPage<IncomeListItem> page
+    ) {
         List<String> text = new ArrayList<>();
         List<Integer> config = new ArrayList<>();
         List<String> data = new ArrayList<>();
 
-        User user = userService.findUserByBotApiObject(botApiObject);
-        Account account = accountService.getAccountById(Objects.requireNonNull(user).getCurrentAccountId());
-        List<Income> incomes = incomeService.getAllIncomesByAccountAndDateAfter(account, account.getCompareDate());
+        List<IncomeListItem> incomes = page.items();
 
-        for (Income income : incomes) {
-            text.add(income.getCategory().getDisplayName() + income.getAmount());
+        for (IncomeListItem income : incomes) {
+            text.add(income.category().getDisplayName() + income.amount());
+            config.add(1);
+            data.add(IncomeData.INCOME_GET_.name() + income.id());
+        }
+
+        String filter = category != null ? category.name() + "_" : "";
+        int navigation = 0;
+
+        if (page.newer() != null) {
+            text.add("⬅️ Новее");
+            data.add(IncomeData.INCOME_PAGE_NEWER_.name() + filter + cursorData(page.newer()));
+            navigation++;
+        }
+
+        if (page.older() != null) {
+            text.add("Старее ➡️");
+            data.add(IncomeData.INCOME_PAGE_OLDER_.name() + filter + cursorData(page.older()));
+            navigation++;
+        }
+
+        if (navigation > 0) {
+            config.add(navigation);
+        }
+
+        if (category != null) {
+            text.add("❌ Сбросить фильтр");
+            data.add(IncomeData.INCOME.name());
+            config.add(1);
+        } else if (!incomes.isEmpty()) {
+            text.add("🔎 Фильтр по категории");
+            data.add(IncomeData.INCOME_FILTER.name());
             config.add(1);
-            data.add(IncomeData.INCOME_GET_.name() + income.getId());
         }
 
         if (!incomes.isEmpty()) {
             text.add("Посмотреть отчет");
-            data.add(IncomeData.INCOME_REPORT_.name() + account.getId());
+            data.add(IncomeData.INCOME_REPORT_.name() + accountId);
 
             config.add(1);
         }
@@ -66,97 +146,63 @@ public class IncomeKeyboardFactory {
         data.add(IncomeData.INCOME_ADD_AMOUNT.name());
 
         text.add("↩️ Назад");
-        data.add(AccountData.ACCOUNT_GET_.name() + account.getId());
+        data.add(AccountData.ACCOUNT_GET_.name() + accountId);
 
         config.add(2);
 
         return keyboardFactory.createInlineKeyboard(text, config, data);
     }
 
-    public InlineKeyboardMarkup getAllIncomeCategoryKeyboard() {
-        List<String> text = IncomeCategory.getDisplayNames();
-        List<Integer> config = new ArrayList<>();
-        List<String> data = new ArrayList<>();
-
-        List<String> incomeCategories = IncomeCategory.getNames();
-
-        for (String incomeCategory : incomeCategories) {
-            config.add(1);
-            data.add(IncomeData.INCOME_ADD_CATEGORY_.name() + incomeCategory);
-        }
-
-        return keyboardFactory.createInlineKeyboard(text, config, data);
+    public InlineKeyboardMarkup filterIncomeCategoryKeyboard() {
+        return filterIncomeCategoryKeyboard.render();
     }
 
-    public InlineKeyboardMarkup getAllIncomeCategoryKeyboard(String incomeId) {
-        List<String> text = IncomeCategory.getDisplayNames();
-        List<Integer> config = new ArrayList<>();
-        List<String> data = new ArrayList<>();
-
-        List<String> incomeCategories = IncomeCategory.getNames();
-
-        for (String incomeCategory : incomeCategories) {
-            config.add(1);
-            data.add("INCOME_EDIT_CATEGORY_" + incomeCategory + "_" + incomeId);
-        }
-
-        return keyboardFactory.createInlineKeyboard(text, config, data);
+    public InlineKeyboardMarkup getAllIncomeCategoryKeyboard() {
+        return addIncomeCategoryKeyboard.render();
     }
 
-    public InlineKeyboardMarkup editAndDeleteIncomeKeyboard(String incomeId) {
-        return keyboardFactory.createInlineKeyboard(
-                List.of("🛠️ Изменить", "🗑️ Удалить", "↩️ Назад"),
-                List.of(2, 1),
-                List.of(
-                        IncomeData.INCOME_EDIT_ + incomeId,
-                        IncomeData.INCOME_DELETE_ + incomeId,
-                        IncomeData.INCOME_BACK.name()
-                )
-        );
+    public InlineKeyboardMarkup getAllIncomeCategoryKeyboard(Long incomeId) {
+        return editIncomeCategoryKeyboard.render(incomeId);
     }
 
-    public InlineKeyboardMarkup editIncomeKeyboard(String incomeId) {
-        List<String> text = new ArrayList<>();
-        List<Integer> config = new ArrayList<>();
-        List<String> data = new ArrayList<>();
-
-        text.add("💰 Сумма");
-        config.add(1);
-        data.add(IncomeData.INCOME_EDIT_AMOUNT_.name() + incomeId);
+    public InlineKeyboardMarkup editAndDeleteIncomeKeyboard(Long incomeId) {
+        return editAndDeleteIncomeKeyboard.render(incomeId);
+    }
 
-        text.add("🚀 Категория доходов");
-        config.add(1);
-        data.add(IncomeData.INCOME_EDIT_CATEGORY_.name() + incomeId);
+    public InlineKeyboardMarkup editIncomeKeyboard(Long incomeId) {
+        return editIncomeKeyboard.render(incomeId);
+    }
 
-        text.add("📌 Описание");
-        config.add(1);
-        data.add(IncomeData.INCOME_EDIT_NOTE_.name() + incomeId);
+    public InlineKeyboardMarkup confirmDeleteIncomeKeyboard(Long incomeId) {
+        return confirmDeleteIncomeKeyboard.render(incomeId);
+    }
 
-        text.add("↩️ Назад");
-        config.add(1);
-        data.add(IncomeData.INCOME_GET_.name() + incomeId);
+    public InlineKeyboardMarkup skipIncomeNoteKeyboard() {
+        return skipIncomeNoteKeyboard.render();
+    }
 
-        return keyboardFactory.createInlineKeyboard(text, config, data);
+    public InlineKeyboardMarkup backToMainMenu(String text) {
+        return backToMainMenuKeyboards.computeIfAbsent(text, key -> keyboardFactory.createInlineKeyboardTemplate(
+                List.of(key),
+                List.of(1),
+                List.of(IncomeData.INCOME_BACK.name())
+        )).render();
     }
 
-    public InlineKeyboardMarkup confirmDeleteIncomeKeyboard(String incomeId) {
-        return keyboardFactory.createInlineKeyboard(
-                List.of("✅ Да", "❌ Нет"),
-                List.of(2),
-                List.of(
-                        IncomeData.INCOME_DELETE_YES_.name() + incomeId,
-                        IncomeData.INCOME_DELETE_NO_.name() + incomeId
-                )
-        );
+    private String cursorData(PageCursor cursor) {
+        return cursor.epochMicros() + "_" + cursor.id();
     }
 
-    public InlineKeyboardMarkup backToMainMenu(String text) {
+    private KeyboardTemplate createCategoryKeyboard(String prefix, String suffix) {
+        List<String> text = IncomeCategory.getDisplayNames();
         List<Integer> config = new ArrayList<>();
         List<String> data = new ArrayList<>();
 
-        config.add(1);
-        data.add(IncomeData.INCOME_BACK.name());
+        for (String incomeCategory : IncomeCategory.getNames()) {
+            config.add(1);
+            data.add(prefix + incomeCategory + suffix);
+        }
 
-        return keyboardFactory.createInlineKeyboard(List.of(text), config, data);
+        return keyboardFactory.createInlineKeyboardTemplate(text, config, data);
     }
 }
@@ -1,5 +1,6 @@
 package com.dzenthai.financial.accounting.service.factory;
 
+import com.dzenthai.financial.accounting.bot.router.CallbackRouter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
@@ -17,15 +18,18 @@ import java.util.List;
 @Component
 public class KeyboardFactory {
 
+    private final CallbackRouter callbackRouter;
+
+    public KeyboardFactory(CallbackRouter callbackRouter) {
+        this.callbackRouter = callbackRouter;
+    }
+
     public InlineKeyboardMarkup createInlineKeyboard(
             List<String> text,
             List<Integer> configuration,
             List<String> data
     ) {
-        if (text.size() != data.size() || text.size() != configuration
-                .stream()
-                .reduce(0, Integer::sum)
-        ) {
+        if (text.size() != data.size() || text.size() != countButtons(configuration)) {
             log.warn("KeyboardFactory | Wrong arguments: [{},{},{}]", text, data, configuration);
             return null;
         }
@@ -35,6 +39,17 @@ public class KeyboardFactory {
         return keyboardMarkup;
     }
 
+    public KeyboardTemplate createInlineKeyboardTemplate(
+            List<String> text,
+            List<Integer> configuration,
+            List<String> data
+    ) {
+        if (text.size() != data.size() || text.size() != countButtons(configuration)) {
+            throw new IllegalArgumentException("Wrong keyboard template arguments: " + text + ", " + data + ", " + configuration);
+        }
+        return new KeyboardTemplate(callbackRouter, text, configuration, data);
+    }
+
     private List<List<InlineKeyboardButton>> getInlineKeyboard(
             List<String> text,
             List<Integer> configuration,
@@ -47,7 +62,7 @@ public class KeyboardFactory {
             for (int i = 0; i < rowNumber; i++) {
                 InlineKeyboardButton button = new InlineKeyboardButton();
                 button.setText(text.get(index));
-                button.setCallbackData(data.get(index));
+                button.setCallbackData(callbackRouter.encode(data.get(index)));
                 row.add(button);
                 index += 1;
             }
@@ -60,9 +75,7 @@ public class KeyboardFactory {
             List<String> text,
             List<Integer> configuration
     ) {
-        if (text.size() != configuration
-                .stream()
-                .reduce(0, Integer::sum)) {
+        if (text.size() != countButtons(configuration)) {
             log.warn("KeyboardFactory | Wrong arguments: [{},{}]", text, configuration);
             return null;
         }
@@ -92,4 +105,12 @@ public class KeyboardFactory {
         }
         return keyboard;
     }
+
+    private int countButtons(List<Integer> configuration) {
+        int count = 0;
+        for (int i = 0; i < configuration.size(); i++) {
+            count += configuration.get(i);
+        }
+        return count;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+package com.dzenthai.financial.accounting.service.factory;
+
+import com.dzenthai.financial.accounting.bot.router.CallbackRouter;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+public final class KeyboardTemplate {
+
+    public static final String ID = "{id}";
+
+    private final CallbackRouter callbackRouter;
+
+    private final String[][] text;
+
+    private final String[][] data;
+
+    private final boolean parameterized;
+
+    private volatile List<List<InlineKeyboardButton>> rows;
+
+    private volatile InlineKeyboardMarkup markup;
+
+    KeyboardTemplate(
+            CallbackRouter callbackRouter,
+            List<String> text,
+            List<Integer> configuration,
+            List<String> data
+    ) {
+        this.callbackRouter = callbackRouter;
+        this.text = new String[configuration.size()][];
+        this.data = new String[configuration.size()][];
+        boolean parameterized = false;
+        int index = 0;
+        for (int row = 0; row < configuration.size(); row++) {
+            int size = configuration.get(row);
+            this.text[row] = new String[size];
+            this.data[row] = new String[size];
+            for (int i = 0; i < size; i++) {
+                this.text[row][i] = text.get(index);
+                this.data[row][i] = data.get(index);
+                parameterized |= data.get(index).contains(ID);
+                index += 1;
+            }
+        }
+        this.parameterized = parameterized;
+    }
+
+    public InlineKeyboardMarkup render() {
+        if (parameterized) {
+            throw new IllegalStateException("Keyboard template requires an id");
+        }
+        InlineKeyboardMarkup result = markup;
+        if (result == null) {
+            result = new InlineKeyboardMarkup();
+            result.setKeyboard(getRows());
+            markup = result;
+        }
+        return result;
+    }
+
+    public InlineKeyboardMarkup render(Long id) {
+        if (!parameterized) {
+            return render();
+        }
+        List<List<InlineKeyboardButton>> staticRows = getRows();
+        List<List<InlineKeyboardButton>> keyboard = new ArrayList<>(staticRows.size());
+        String value = String.valueOf(id);
+        for (int row = 0; row < data.length; row++) {
+            List<InlineKeyboardButton> staticRow = staticRows.get(row);
+            List<InlineKeyboardButton> patchedRow = null;
+            for (int i = 0; i < data[row].length; i++) {
+                if (staticRow.get(i) == null) {
+                    if (patchedRow == null) {
+                        patchedRow = new ArrayList<>(staticRow);
+                    }
+                    patchedRow.set(i, button(text[row][i], data[row][i].replace(ID, value)));
+                }
+            }
+            keyboard.add(patchedRow != null ? patchedRow : staticRow);
+        }
+        InlineKeyboardMarkup result = new InlineKeyboardMarkup();
+        result.setKeyboard(keyboard);
+        return result;
+    }
+
+    private List<List<InlineKeyboardButton>> getRows() {
+        List<List<InlineKeyboardButton>> result = rows;
+        if (result == null) {
+            result = new ArrayList<>(data.length);
+            for (int row = 0; row < data.length; row++) {
+                List<InlineKeyboardButton> buttons = new ArrayList<>(data[row].length);
+                for (int i = 0; i < data[row].length; i++) {
+                    buttons.add(data[row][i].contains(ID) ? null : button(text[row][i], data[row][i]));
+                }
+                result.add(Collections.unmodifiableList(buttons));
+            }
+            result = Collections.unmodifiableList(result);
+            rows = result;
+        }
+        return result;
+    }
+
+    private InlineKeyboardButton button(String text, String data) {
+        InlineKeyboardButton button = new InlineKeyboardButton();
+        button.setText(text);
+        button.setCallbackData(callbackRouter.encode(data));
+        return button;
+    }
+}
@@ -10,17 +10,17 @@ import java.util.List;
 @Component
 public class MainMenuKeyboardFactory {
 
-    private final KeyboardFactory keyboardFactory;
+    private final KeyboardTemplate mainMenuKeyboard;
 
     public MainMenuKeyboardFactory(KeyboardFactory keyboardFactory) {
-        this.keyboardFactory = keyboardFactory;
-    }
-
-    public InlineKeyboardMarkup mainMenuKeyboard() {
-        return keyboardFactory.createInlineKeyboard(
+        this.mainMenuKeyboard = keyboardFactory.createInlineKeyboardTemplate(
                 List.of("💼 Мой профиль"),
                 List.of(1),
                 List.of(AccountData.ACCOUNT.name())
         );
     }
+
+    public InlineKeyboardMarkup mainMenuKeyboard() {
+        return mainMenuKeyboard.render();
+    }
 }
\ No newline at end of file
@@ -1,6 +1,6 @@
 package com.dzenthai.financial.accounting.service.manager;
 
-import com.dzenthai.financial.accounting.bot.TelegramBot;
+import com.dzenthai.financial.accounting.bot.router.CallbackRouter;
 import com.dzenthai.financial.accounting.entity.User;
 import com.dzenthai.financial.accounting.entity.enums.Action;
 import com.dzenthai.financial.accounting.listener.CallbackQueryListener;
@@ -47,14 +47,14 @@ public class AccountManager implements CallbackQueryListener {
                 null);
     }
 
-    public BotApiMethod<?> askForAccountToDelete(CallbackQuery callbackQuery, String accountId) {
+    public BotApiMethod<?> askForAccountToDelete(CallbackQuery callbackQuery, Long accountId) {
         return messageBuilder.buildMessage(
                 "Вы уверены что хотите удалить счет?",
                 callbackQuery,
                 accountKeyboardFactory.deleteAccountKeyboard(accountId));
     }
 
-    public BotApiMethod<?> askForAccountDatetime(CallbackQuery callbackQuery, String accountId) {
+    public BotApiMethod<?> askForAccountDatetime(CallbackQuery callbackQuery, Long accountId) {
         Long chatId = callbackQuery.getMessage().getChatId();
         userService.updateUserAction(chatId, Action.ACCOUNT_DATETIME);
         return messageBuilder.buildMessage("""
@@ -68,68 +68,50 @@ public class AccountManager implements CallbackQueryListener {
                 accountKeyboardFactory.editAccountDatetimeKeyboard(accountId));
     }
 
+    public BotApiMethod<?> askForCustomPeriod(CallbackQuery callbackQuery, Long accountId) {
+        Long chatId = callbackQuery.getMessage().getChatId();
+        userService.updateCurrentAccountId(chatId, accountId, Action.ACCOUNT_DATETIME_CUSTOM);
+        return messageBuilder.buildMessage("""
+                Свой период. 🕒
+                
+                Введите период в формате ДД.ММ.ГГГГ - ДД.ММ.ГГГГ
+                или одну дату, чтобы посмотреть доходы и расходы за день.
+                """,
+                callbackQuery,
+                accountKeyboardFactory.backToAccount(accountId));
+    }
+
     @Override
-    public BotApiMethod<?> onCallbackQuery(CallbackQuery callbackQuery, String[] words, TelegramBot telegramBot) {
-        if (words.length == 4) {
-            if (words[1].equals("DELETE")) {
-                if (words[2].equals("YES")) {
-                    String accountId = words[3];
-                    return accountService.deleteAccount(callbackQuery, accountId);
-                }
-                if (words[2].equals("NO")) {
-                    String accountId = words[3];
-                    return accountService.getAccount(callbackQuery, accountId);
-                }
-            }
-            if (words[1].equals("DATETIME")) {
-                if (words[2].equals("DAY")) {
-                    String accountId = words[3];
-                    LocalDateTime datetime = LocalDateTime.now().minusDays(1);
-                    return accountService.setAccountDatetime(callbackQuery, accountId, datetime);
-                }
-                if (words[2].equals("WEEK")) {
-                    String accountId = words[3];
-                    LocalDateTime datetime = LocalDateTime.now().minusWeeks(1);
-                    return accountService.setAccountDatetime(callbackQuery, accountId, datetime);
-                }
-                if (words[2].equals("MONTH")) {
-                    String accountId = words[3];
-                    LocalDateTime datetime = LocalDateTime.now().minusMonths(1);
-                    return accountService.setAccountDatetime(callbackQuery, accountId, datetime);
-                }
-                if (words[2].equals("SIXMONTH")) {
-                    String accountId = words[3];
-                    LocalDateTime datetime = LocalDateTime.now().minusMonths(6);
-                    return accountService.setAccountDatetime(callbackQuery, accountId, datetime);
-                }
-                if (words[2].equals("YEAR")) {
-                    String accountId = words[3];
-                    LocalDateTime datetime = LocalDateTime.now().minusYears(1);
-                    return accountService.setAccountDatetime(callbackQuery, accountId, datetime);
-                }
-            }
-        }
-        if (words.length == 3) {
-            if (words[1].equals("GET")) {
-                String accountId = words[2];
-                User user = userService.findUserByBotApiObject(callbackQuery);
-                userService.updateCurrentAccountId(user.getChatId(), Long.valueOf(accountId), Action.FREE);
-                return accountService.getAccount(callbackQuery, accountId);
-            }
-            if (words[1].equals("DELETE")) {
-                String accountId = words[2];
-                return askForAccountToDelete(callbackQuery, accountId);
-            }
-            if (words[1].equals("DATETIME")) {
-                String accountId = words[2];
-                return askForAccountDatetime(callbackQuery, accountId);
-            }
-        }
-        if (words.length == 2) {
-            if (words[1].equals("ADD")) {
-                return askForNameToAdd(callbackQuery);
-            }
-        }
-        return accountService.accountMenu(callbackQuery);
+    public void registerCallbackRoutes(CallbackRouter callbackRouter) {
+        callbackRouter.route("ACCOUNT_DELETE_YES_{id}", (callbackQuery, arguments) ->
+                accountService.deleteAccount(callbackQuery, arguments.getLong(0)));
+        callbackRouter.route("ACCOUNT_DELETE_NO_{id}", (callbackQuery, arguments) ->
+                accountService.getAccount(callbackQuery, arguments.getLong(0)));
+        callbackRouter.route("ACCOUNT_DATETIME_DAY_{id}", (callbackQuery, arguments) ->
+                accountService.setAccountDatetime(callbackQuery, arguments.getLong(0), LocalDateTime.now().minusDays(1)));
+        callbackRouter.route("ACCOUNT_DATETIME_WEEK_{id}", (callbackQuery, arguments) ->
+                accountService.setAccountDatetime(callbackQuery, arguments.getLong(0), LocalDateTime.now().minusWeeks(1)));
+        callbackRouter.route("ACCOUNT_DATETIME_MONTH_{id}", (callbackQuery, arguments) ->
+                accountService.setAccountDatetime(callbackQuery, arguments.getLong(0), LocalDateTime.now().minusMonths(1)));
+        callbackRouter.route("ACCOUNT_DATETIME_SIXMONTH_{id}", (callbackQuery, arguments) ->
+                accountService.setAccountDatetime(callbackQuery, arguments.getLong(0), LocalDateTime.now().minusMonths(6)));
+        callbackRouter.route("ACCOUNT_DATETIME_YEAR_{id}", (callbackQuery, arguments) ->
+                accountService.setAccountDatetime(callbackQuery, arguments.getLong(0), LocalDateTime.now().minusYears(1)));
+        callbackRouter.route("ACCOUNT_DATETIME_CUSTOM_{id}", (callbackQuery, arguments) ->
+                askForCustomPeriod(callbackQuery, arguments.getLong(0)));
+        callbackRouter.route("ACCOUNT_GET_{id}", (callbackQuery, arguments) -> {
+            Long accountId = arguments.getLong(0);
+            User user = userService.findUserByBotApiObject(callbackQuery);
+            userService.updateCurrentAccountId(user.getChatId(), accountId, Action.FREE);
+            return accountService.getAccount(callbackQuery, accountId);
+        });
+        callbackRouter.route("ACCOUNT_DELETE_{id}", (callbackQuery, arguments) ->
+                askForAccountToDelete(callbackQuery, arguments.getLong(0)));
+        callbackRouter.route("ACCOUNT_DATETIME_{id}", (callbackQuery, arguments) ->
+                askForAccountDatetime(callbackQuery, arguments.getLong(0)));
+        callbackRouter.route("ACCOUNT_ADD", (callbackQuery, arguments) ->
+                askForNameToAdd(callbackQuery));
+        callbackRouter.fallback("ACCOUNT", (callbackQuery, arguments) ->
+                accountService.accountMenu(callbackQuery));
     }
 }
@@ -1,23 +1,20 @@
 package com.dzenthai.financial.accounting.service.manager;
 
-import com.dzenthai.financial.accounting.bot.TelegramBot;
+import com.dzenthai.financial.accounting.bot.router.CallbackRouter;
 import com.dzenthai.financial.accounting.entity.User;
 import com.dzenthai.financial.accounting.entity.enums.Action;
 import com.dzenthai.financial.accounting.entity.enums.ExpenseCategory;
 import com.dzenthai.financial.accounting.listener.CallbackQueryListener;
+import com.dzenthai.financial.accounting.projection.PageCursor;
 import com.dzenthai.financial.accounting.service.ExpenseService;
 import com.dzenthai.financial.accounting.service.UserService;
 import com.dzenthai.financial.accounting.service.builder.MessageBuilder;
 import com.dzenthai.financial.accounting.service.factory.ExpenseKeyboardFactory;
-import org.hibernate.validator.internal.util.privilegedactions.LoadClass;
 import org.springframework.stereotype.Component;
-import org.telegram.telegrambots.meta.api.interfaces.BotApiObject;
 import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
 import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 import org.telegram.telegrambots.meta.api.objects.Message;
 
-import java.time.LocalDateTime;
-
 
 @Component
 public class ExpenseManager implements CallbackQueryListener {
@@ -66,169 +63,137 @@ public class ExpenseManager implements CallbackQueryListener {
         return messageBuilder.buildMessage(
                 "Введите описание (примечание)",
                 callbackQuery,
-                expenseKeyboardFactory.backToExpenseMenu("⏩ Пропустить"));
+                expenseKeyboardFactory.skipExpenseNoteKeyboard());
     }
 
-    private BotApiMethod<?> askForExpenseAmountToEdit(CallbackQuery callbackQuery, String expenseId) {
+    private BotApiMethod<?> askForExpenseAmountToEdit(CallbackQuery callbackQuery, Long expenseId) {
         Long chatId = callbackQuery.getMessage().getChatId();
-        userService.updateCurrentExpenseId(chatId, Long.valueOf(expenseId), Action.EXPENSE_EDIT_AMOUNT);
+        userService.updateCurrentExpenseId(chatId, expenseId, Action.EXPENSE_EDIT_AMOUNT);
         return messageBuilder.buildMessage(
                 "Введите новую сумму",
                 callbackQuery,
                 expenseKeyboardFactory.backToExpenseMenu("✋ Отмена"));
     }
 
-    private BotApiMethod<?> askForExpenseCategoryToEdit(CallbackQuery callbackQuery, String expenseId) {
+    private BotApiMethod<?> askForExpenseCategoryToEdit(CallbackQuery callbackQuery, Long expenseId) {
         Long chatId = callbackQuery.getMessage().getChatId();
-        userService.updateCurrentExpenseId(chatId, Long.valueOf(expenseId), Action.EXPENSE_EDIT_CATEGORY);
+        userService.updateCurrentExpenseId(chatId, expenseId, Action.EXPENSE_EDIT_CATEGORY);
         return messageBuilder.buildMessage(
                 "Выберите новую категорию трат",
                 callbackQuery,
                 expenseKeyboardFactory.getAllExpenseCategoryKeyboard(expenseId));
     }
 
-    private BotApiMethod<?> askForExpenseNoteToEdit(CallbackQuery callbackQuery, String expenseId) {
+    private BotApiMethod<?> askForExpenseNoteToEdit(CallbackQuery callbackQuery, Long expenseId) {
         Long chatId = callbackQuery.getMessage().getChatId();
-        userService.updateCurrentExpenseId(chatId, Long.valueOf(expenseId), Action.EXPENSE_EDIT_NOTE);
+        userService.updateCurrentExpenseId(chatId, expenseId, Action.EXPENSE_EDIT_NOTE);
         return messageBuilder.buildMessage(
                 "Введите новое описание (примечание)",
                 callbackQuery,
                 expenseKeyboardFactory.backToExpenseMenu("✋ Отмена"));
     }
 
-    private BotApiMethod<?> askForExpenseToDelete(CallbackQuery callbackQuery, String expenseId) {
+    private BotApiMethod<?> askForExpenseToDelete(CallbackQuery callbackQuery, Long expenseId) {
         return messageBuilder.buildMessage(
                 "Вы уверены что хотите удалить эту трату?",
                 callbackQuery,
                 expenseKeyboardFactory.deleteExpenseKeyboard(expenseId));
     }
 
-    private BotApiMethod<?> askForExpenseLimitToDelete(CallbackQuery callbackQuery, String accountId) {
+    private BotApiMethod<?> askForExpenseLimitToDelete(CallbackQuery callbackQuery, Long accountId) {
         return messageBuilder.buildMessage("Вы уверены что хотите удалить этот лимит?",
                 callbackQuery,
                 expenseKeyboardFactory.deleteLimitKeyboard(accountId));
     }
 
-    private BotApiMethod<?> askForExpenseLimit(CallbackQuery callbackQuery, String accountId) {
+    private BotApiMethod<?> askForExpenseLimit(CallbackQuery callbackQuery, Long accountId) {
         Long chatId = callbackQuery.getMessage().getChatId();
-        userService.updateCurrentExpenseId(chatId, Long.valueOf(accountId), Action.EXPENSE_ADD_LIMIT);
+        userService.updateCurrentExpenseId(chatId, accountId, Action.EXPENSE_ADD_LIMIT);
         return messageBuilder.buildMessage(
                 "Введите сумму лимита",
                 callbackQuery,
                 expenseKeyboardFactory.backToLimitMenu("✋ Отмена"));
     }
 
+    private BotApiMethod<?> askForExpenseCategoryToFilter(CallbackQuery callbackQuery) {
+        return messageBuilder.buildMessage(
+                "Выберите категорию для фильтра",
+                callbackQuery,
+                expenseKeyboardFactory.filterExpenseCategoryKeyboard());
+    }
+
     @Override
-    public BotApiMethod<?> onCallbackQuery(CallbackQuery callbackQuery, String[] words, TelegramBot telegramBot) {
-        if (words.length == 5) {
-            if (words[1].equals("EDIT")) {
-                if (words[2].equals("CATEGORY")) {
-                    ExpenseCategory category = ExpenseCategory.valueOf(words[3]);
-                    String expenseId = words[4];
-                    return expenseService.editExpenseCategory(callbackQuery, category, expenseId);
-                }
-            }
-            if (words[1].equals("LIMIT")) {
-                if (words[2].equals("DELETE")) {
-                    if (words[3].equals("YES")) {
-                        String accountId = words[4];
-                        return expenseService.deleteLimit(callbackQuery, accountId);
-                    }
-                    if (words[3].equals("NO")) {
-                        return expenseService.getLimitMenu(callbackQuery);
-                    }
-                }
-            }
-        }
-        if (words.length == 4) {
-            if (words[1].equals("ADD")) {
-                if (words[2].equals("CATEGORY")) {
-                    ExpenseCategory expenseCategory = ExpenseCategory.valueOf(words[3]);
-                    return expenseService.saveExpenseCategory(callbackQuery, expenseCategory);
-                }
-            }
-            if (words[1].equals("LIMIT")) {
-                if (words[2].equals("ADD")) {
-                    String accountId = words[3];
-                    return askForExpenseLimit(callbackQuery, accountId);
-                }
-                if (words[2].equals("DELETE")) {
-                    String accountId = words[3];
-                    return askForExpenseLimitToDelete(callbackQuery, accountId);
-                }
-            }
-            if (words[1].equals("EDIT")) {
-                switch (words[2]) {
-                    case "AMOUNT" -> {
-                        String expenseId = words[3];
-                        return askForExpenseAmountToEdit(callbackQuery, expenseId);
-                    }
-                    case "CATEGORY" -> {
-                        String expenseId = words[3];
-                        return askForExpenseCategoryToEdit(callbackQuery, expenseId);
-                    }
-                    case "NOTE" -> {
-                        String expenseId = words[3];
-                        return askForExpenseNoteToEdit(callbackQuery, expenseId);
-                    }
-                }
-            }
-            if (words[1].equals("DELETE")) {
-                switch (words[2]) {
-                    case "YES" -> {
-                        String expenseId = words[3];
-                        return expenseService.deleteExpense(callbackQuery, expenseId);
-                    }
-                    case "NO" -> {
-                        String expenseId = words[3];
-                        return expenseService.getExpense(callbackQuery, expenseId);
-                    }
-                    case "LIMIT" -> {
-                        String accountId = words[3];
-                        return expenseService.deleteLimit(callbackQuery, accountId);
-                    }
-                }
-            }
-        }
-        if (words.length == 3) {
-            if (words[1].equals("ADD")) {
-                if (words[2].equals("AMOUNT")) {
-                    return askForExpenseAmountToAdd(callbackQuery);
-                }
-            }
-            if (words[1].equals("REPORT")) {
-                String expenseId = words[2];
-                return expenseService.getExpenseReport(callbackQuery, expenseId);
-            }
-            if (words[1].equals("GET")) {
-                String expenseId = words[2];
-                return expenseService.getExpense(callbackQuery, expenseId);
-            }
-            if (words[1].equals("EDIT")) {
-                String expenseId = words[2];
-                return expenseService.editExpense(callbackQuery, expenseId);
-            }
-            if (words[1].equals("DELETE")) {
-                String expenseId = words[2];
-                return askForExpenseToDelete(callbackQuery, expenseId);
-            }
-            if (words[1].equals("LIMIT")) {
-                if (words[2].equals("EXCEEDED")) {
-                    return expenseService.getAllLimitExceededExpenses(callbackQuery);
-                }
-            }
-        }
-        if (words.length == 2) {
-            if (words[1].equals("BACK")) {
-                return expenseService.expenseMenu(callbackQuery);
-            }
-            if (words[1].equals("LIMIT")) {
-                return expenseService.getLimitMenu(callbackQuery);
-            }
-        }
-        if (words.length == 1) {
-            return expenseService.expenseMenu(callbackQuery);
-        }
-        return null;
+    public void registerCallbackRoutes(CallbackRouter callbackRouter) {
+        callbackRouter.route("EXPENSE_PAGE_OLDER_{enum}_{id}_{id}", (callbackQuery, arguments) ->
+                expenseService.getExpensePage(callbackQuery, arguments.getEnum(0),
+                        PageCursor.of(arguments.getLong(0), arguments.getLong(1)), true),
+                ExpenseCategory.class);
+        callbackRouter.route("EXPENSE_PAGE_NEWER_{enum}_{id}_{id}", (callbackQuery, arguments) ->
+                expenseService.getExpensePage(callbackQuery, arguments.getEnum(0),
+                        PageCursor.of(arguments.getLong(0), arguments.getLong(1)), false),
+                ExpenseCategory.class);
+        callbackRouter.route("EXPENSE_PAGE_OLDER_{id}_{id}", (callbackQuery, arguments) ->
+                expenseService.getExpensePage(callbackQuery, null,
+                        PageCursor.of(arguments.getLong(0), arguments.getLong(1)), true));
+        callbackRouter.route("EXPENSE_PAGE_NEWER_{id}_{id}", (callbackQuery, arguments) ->
+                expenseService.getExpensePage(callbackQuery, null,
+                        PageCursor.of(arguments.getLong(0), arguments.getLong(1)), false));
+        callbackRouter.route("EXPENSE_FILTER_{enum}", (callbackQuery, arguments) ->
+                expenseService.getExpensePage(callbackQuery, arguments.getEnum(0), null, true),
+                ExpenseCategory.class);
+        callbackRouter.route("EXPENSE_FILTER", (callbackQuery, arguments) ->
+                askForExpenseCategoryToFilter(callbackQuery));
+        callbackRouter.route("EXPENSE_EDIT_CATEGORY_{enum}_{id}", (callbackQuery, arguments) ->
+                expenseService.editExpenseCategory(callbackQuery, arguments.getEnum(0), arguments.getLong(0)),
+                ExpenseCategory.class);
+        callbackRouter.route("EXPENSE_LIMIT_DELETE_YES_{id}", (callbackQuery, arguments) ->
+                expenseService.deleteLimit(callbackQuery, arguments.getLong(0)));
+        callbackRouter.route("EXPENSE_LIMIT_DELETE_NO_{id}", (callbackQuery, arguments) ->
+                expenseService.getLimitMenu(callbackQuery));
+        callbackRouter.route("EXPENSE_ADD_CATEGORY_{enum}", (callbackQuery, arguments) ->
+                expenseService.saveExpenseCategory(callbackQuery, arguments.getEnum(0)),
+                ExpenseCategory.class);
+        callbackRouter.route("EXPENSE_LIMIT_ADD_{id}", (callbackQuery, arguments) ->
+                askForExpenseLimit(callbackQuery, arguments.getLong(0)));
+        callbackRouter.route("EXPENSE_LIMIT_DELETE_{id}", (callbackQuery, arguments) ->
+                askForExpenseLimitToDelete(callbackQuery, arguments.getLong(0)));
+        callbackRouter.route("EXPENSE_EDIT_AMOUNT_{id}", (callbackQuery, arguments) ->
+                askForExpenseAmountToEdit(callbackQuery, arguments.getLong(0)));
+        callbackRouter.route("EXPENSE_EDIT_CATEGORY_{id}", (callbackQuery, arguments) ->
+                askForExpenseCategoryToEdit(callbackQuery, arguments.getLong(0)));
+        callbackRouter.route("EXPENSE_EDIT_NOTE_{id}", (callbackQuery, arguments) ->
+                askForExpenseNoteToEdit(callbackQuery, arguments.getLong(0)));
+        callbackRouter.route("EXPENSE_DELETE_YES_{id}", (callbackQuery, arguments) ->
+                expenseService.deleteExpense(callbackQuery, arguments.getLong(0)));
+        callbackRouter.route("EXPENSE_DELETE_NO_{id}", (callbackQuery, arguments) ->
+                expenseService.getExpense(callbackQuery, arguments.getLong(0)));
+        callbackRouter.route("EXPENSE_DELETE_LIMIT_{id}", (callbackQuery, arguments) ->
+                expenseService.deleteLimit(callbackQuery, arguments.getLong(0)));
+        callbackRouter.route("EXPENSE_ADD_NOTE_SKIP", (callbackQuery, arguments) ->
+                expenseService.skipNoteExpense(callbackQuery));
+        callbackRouter.route("EXPENSE_ADD_AMOUNT", (callbackQuery, arguments) ->
+                askForExpenseAmountToAdd(callbackQuery));
+        callbackRouter.route("EXPENSE_REPORT_{id}", (callbackQuery, arguments) ->
+                expenseService.getExpenseReport(callbackQuery, arguments.getLong(0)));
+        callbackRouter.route("EXPENSE_GET_{id}", (callbackQuery, arguments) ->
+                expenseService.getExpense(callbackQuery, arguments.getLong(0)));
+        callbackRouter.route("EXPENSE_EDIT_{id}", (callbackQuery, arguments) ->
+                expenseService.editExpense(callbackQuery, arguments.getLong(0)));
+        callbackRouter.route("EXPENSE_DELETE_{id}", (callbackQuery, arguments) ->
+                askForExpenseToDelete(callbackQuery, arguments.getLong(0)));
+        callbackRouter.route("EXPENSE_LIMIT_EXCEEDED_OLDER_{id}_{id}", (callbackQuery, arguments) ->
+                expenseService.getAllLimitExceededExpenses(callbackQuery,
+                        PageCursor.of(arguments.getLong(0), arguments.getLong(1)), true));
+        callbackRouter.route("EXPENSE_LIMIT_EXCEEDED_NEWER_{id}_{id}", (callbackQuery, arguments) ->
+                expenseService.getAllLimitExceededExpenses(callbackQuery,
+                        PageCursor.of(arguments.getLong(0), arguments.getLong(1)), false));
+        callbackRouter.route("EXPENSE_LIMIT_EXCEEDED", (callbackQuery, arguments) ->
+                expenseService.getAllLimitExceededExpenses(callbackQuery, null, true));
+        callbackRouter.route("EXPENSE_BACK", (callbackQuery, arguments) ->
+                expenseService.expenseMenu(callbackQuery));
+        callbackRouter.route("EXPENSE_LIMIT", (callbackQuery, arguments) ->
+                expenseService.getLimitMenu(callbackQuery));
+        callbackRouter.route("EXPENSE", (callbackQuery, arguments) ->
+                expenseService.expenseMenu(callbackQuery));
     }
 }
@@ -1,10 +1,11 @@
 package com.dzenthai.financial.accounting.service.manager;
 
-import com.dzenthai.financial.accounting.bot.TelegramBot;
+import com.dzenthai.financial.accounting.bot.router.CallbackRouter;
 import com.dzenthai.financial.accounting.entity.User;
 import com.dzenthai.financial.accounting.entity.enums.Action;
 import com.dzenthai.financial.accounting.entity.enums.IncomeCategory;
 import com.dzenthai.financial.accounting.listener.CallbackQueryListener;
+import com.dzenthai.financial.accounting.projection.PageCursor;
 import com.dzenthai.financial.accounting.service.IncomeService;
 import com.dzenthai.financial.accounting.service.UserService;
 import com.dzenthai.financial.accounting.service.builder.MessageBuilder;
@@ -49,7 +50,7 @@ public class IncomeManager implements CallbackQueryListener {
 
     public BotApiMethod<?> askForIncomeCategoryToAdd(Message message) {
         User user = userService.findUserByBotApiObject(message);
-        userService.updateUserAction(user.getId(), Action.INCOME_ADD_CATEGORY);
+        userService.updateUserAction(user.getChatId(), Action.INCOME_ADD_CATEGORY);
         return messageBuilder.buildMessage(
                 "Выберите категорию доходов",
                 message,
@@ -62,37 +63,37 @@ public class IncomeManager implements CallbackQueryListener {
         return messageBuilder.buildMessage(
                 "Введите описание (примечание)",
                 callbackQuery,
-                incomeKeyboardFactory.backToMainMenu("⏩ Пропустить"));
+                incomeKeyboardFactory.skipIncomeNoteKeyboard());
     }
 
-    private BotApiMethod<?> askForIncomeAmountToEdit(CallbackQuery callbackQuery, String incomeId) {
+    private BotApiMethod<?> askForIncomeAmountToEdit(CallbackQuery callbackQuery, Long incomeId) {
         Long chatId = callbackQuery.getMessage().getChatId();
-        userService.updateCurrentIncomeId(chatId, Long.valueOf(incomeId), Action.INCOME_EDIT_AMOUNT);
+        userService.updateCurrentIncomeId(chatId, incomeId, Action.INCOME_EDIT_AMOUNT);
         return messageBuilder.buildMessage(
                 "Введите новую сумму",
                 callbackQuery,
                 incomeKeyboardFactory.backToMainMenu("✋ Отмена"));
     }
 
-    private BotApiMethod<?> askForIncomeCategoryToEdit(CallbackQuery callbackQuery, String incomeId) {
+    private BotApiMethod<?> askForIncomeCategoryToEdit(CallbackQuery callbackQuery, Long incomeId) {
         Long chatId = callbackQuery.getMessage().getChatId();
-        userService.updateCurrentIncomeId(chatId, Long.valueOf(incomeId), Action.INCOME_EDIT_CATEGORY);
+        userService.updateCurrentIncomeId(chatId, incomeId, Action.INCOME_EDIT_CATEGORY);
         return messageBuilder.buildMessage(
                 "Выберите новую категорию доходов",
                 callbackQuery,
                 incomeKeyboardFactory.getAllIncomeCategoryKeyboard(incomeId));
     }
 
-    private BotApiMethod<?> askForIncomeNoteToEdit(CallbackQuery callbackQuery, String incomeId) {
+    private BotApiMethod<?> askForIncomeNoteToEdit(CallbackQuery callbackQuery, Long incomeId) {
         Long chatId = callbackQuery.getMessage().getChatId();
-        userService.updateCurrentIncomeId(chatId, Long.valueOf(incomeId), Action.INCOME_EDIT_NOTE);
+        userService.updateCurrentIncomeId(chatId, incomeId, Action.INCOME_EDIT_NOTE);
         return messageBuilder.buildMessage(
                 "Введите новое описание (примечание)",
                 callbackQuery,
                 incomeKeyboardFactory.backToMainMenu("✋ Отмена"));
     }
 
-    private BotApiMethod<?> askForIncomeToDelete(CallbackQuery callbackQuery, String incomeId) {
+    private BotApiMethod<?> askForIncomeToDelete(CallbackQuery callbackQuery, Long incomeId) {
         return messageBuilder.buildMessage(
                 "Вы уверены, что хотите удалить этот доход?",
                 callbackQuery,
@@ -100,82 +101,65 @@ public class IncomeManager implements CallbackQueryListener {
     }
 
 
+    private BotApiMethod<?> askForIncomeCategoryToFilter(CallbackQuery callbackQuery) {
+        return messageBuilder.buildMessage(
+                "Выберите категорию для фильтра",
+                callbackQuery,
+                incomeKeyboardFactory.filterIncomeCategoryKeyboard());
+    }
+
     @Override
-    public BotApiMethod<?> onCallbackQuery(CallbackQuery callbackQuery, String[] words, TelegramBot telegramBot) {
-        if (words.length == 5) {
-            if (words[1].equals("EDIT")) {
-                if (words[2].equals("CATEGORY")) {
-                    IncomeCategory category = IncomeCategory.valueOf(words[3]);
-                    String incomeId = words[4];
-                    return incomeService.editIncomeCategory(callbackQuery, category, incomeId);
-                }
-            }
-        }
-        if (words.length == 4) {
-            if (words[1].equals("ADD")) {
-                if (words[2].equals("CATEGORY")) {
-                    IncomeCategory incomeCategory = IncomeCategory.valueOf(words[3]);
-                    return incomeService.saveIncomeCategory(callbackQuery, incomeCategory);
-                }
-            }
-            if (words[1].equals("EDIT")) {
-                switch (words[2]) {
-                    case "AMOUNT" -> {
-                        String incomeId = words[3];
-                        return askForIncomeAmountToEdit(callbackQuery, incomeId);
-                    }
-                    case "CATEGORY" -> {
-                        String incomeId = words[3];
-                        return askForIncomeCategoryToEdit(callbackQuery, incomeId);
-                    }
-                    case "NOTE" -> {
-                        String incomeId = words[3];
-                        return askForIncomeNoteToEdit(callbackQuery, incomeId);
-                    }
-                }
-            }
-            if (words[1].equals("DELETE")) {
-                if (words[2].equals("YES")) {
-                    String incomeId = words[3];
-                    return incomeService.deleteIncome(callbackQuery, incomeId);
-                }
-                if (words[2].equals("NO")) {
-                    String incomeId = words[3];
-                    return incomeService.getIncome(callbackQuery, incomeId);
-                }
-            }
-        }
-        if (words.length == 3) {
-            if (words[1].equals("ADD")) {
-                if (words[2].equals("AMOUNT")) {
-                    return askForIncomeAmountToAdd(callbackQuery);
-                }
-            }
-            if (words[1].equals("REPORT")) {
-                String incomeId = words[2];
-                return incomeService.getIncomeReport(callbackQuery, incomeId);
-            }
-            if (words[1].equals("GET")) {
-                String incomeId = words[2];
-                return incomeService.getIncome(callbackQuery, incomeId);
-            }
-            if (words[1].equals("EDIT")) {
-                String incomeId = words[2];
-                return incomeService.editIncome(callbackQuery, incomeId);
-            }
-            if (words[1].equals("DELETE")) {
-                String incomeId = words[2];
-                return askForIncomeToDelete(callbackQuery, incomeId);
-            }
-        }
-        if (words.length == 2) {
-            if (words[1].equals("BACK")) {
-                return incomeService.incomeMenu(callbackQuery);
-            }
-        }
-        if (words.length == 1) {
-            return incomeService.incomeMenu(callbackQuery);
-        }
-        return null;
+    public void registerCallbackRoutes(CallbackRouter callbackRouter) {
+        callbackRouter.route("INCOME_PAGE_OLDER_{enum}_{id}_{id}", (callbackQuery, arguments) ->
+                incomeService.getIncomePage(callbackQuery, arguments.getEnum(0),
+                        PageCursor.of(arguments.getLong(0), arguments.getLong(1)), true),
+                IncomeCategory.class);
+        callbackRouter.route("INCOME_PAGE_NEWER_{enum}_{id}_{id}", (callbackQuery, arguments) ->
+                incomeService.getIncomePage(callbackQuery, arguments.getEnum(0),
+                        PageCursor.of(arguments.getLong(0), arguments.getLong(1)), false),
+                IncomeCategory.class);
+        callbackRouter.route("INCOME_PAGE_OLDER_{id}_{id}", (callbackQuery, arguments) ->
+                incomeService.getIncomePage(callbackQuery, null,
+                        PageCursor.of(arguments.getLong(0), arguments.getLong(1)), true));
+        callbackRouter.route("INCOME_PAGE_NEWER_{id}_{id}", (callbackQuery, arguments) ->
+                incomeService.getIncomePage(callbackQuery, null,
+                        PageCursor.of(arguments.getLong(0), arguments.getLong(1)), false));
+        callbackRouter.route("INCOME_FILTER_{enum}", (callbackQuery, arguments) ->
+                incomeService.getIncomePage(callbackQuery, arguments.getEnum(0), null, true),
+                IncomeCategory.class);
+        callbackRouter.route("INCOME_FILTER", (callbackQuery, arguments) ->
+                askForIncomeCategoryToFilter(callbackQuery));
+        callbackRouter.route("INCOME_EDIT_CATEGORY_{enum}_{id}", (callbackQuery, arguments) ->
+                incomeService.editIncomeCategory(callbackQuery, arguments.getEnum(0), arguments.getLong(0)),
+                IncomeCategory.class);
+        callbackRouter.route("INCOME_ADD_CATEGORY_{enum}", (callbackQuery, arguments) ->
+                incomeService.saveIncomeCategory(callbackQuery, arguments.getEnum(0)),
+                IncomeCategory.class);
+        callbackRouter.route("INCOME_EDIT_AMOUNT_{id}", (callbackQuery, arguments) ->
+                askForIncomeAmountToEdit(callbackQuery, arguments.getLong(0)));
+        callbackRouter.route("INCOME_EDIT_CATEGORY_{id}", (callbackQuery, arguments) ->
+                askForIncomeCategoryToEdit(callbackQuery, arguments.getLong(0)));
+        callbackRouter.route("INCOME_EDIT_NOTE_{id}", (callbackQuery, arguments) ->
+                askForIncomeNoteToEdit(callbackQuery, arguments.getLong(0)));
+        callbackRouter.route("INCOME_DELETE_YES_{id}", (callbackQuery, arguments) ->
+                incomeService.deleteIncome(callbackQuery, arguments.getLong(0)));
+        callbackRouter.route("INCOME_DELETE_NO_{id}", (callbackQuery, arguments) ->
+                incomeService.getIncome(callbackQuery, arguments.getLong(0)));
+        callbackRouter.route("INCOME_ADD_NOTE_SKIP", (callbackQuery, arguments) ->
+                incomeService.skipNoteIncome(callbackQuery));
+        callbackRouter.route("INCOME_ADD_AMOUNT", (callbackQuery, arguments) ->
+                askForIncomeAmountToAdd(callbackQuery));
+        callbackRouter.route("INCOME_REPORT_{id}", (callbackQuery, arguments) ->
+                incomeService.getIncomeReport(callbackQuery, arguments.getLong(0)));
+        callbackRouter.route("INCOME_GET_{id}", (callbackQuery, arguments) ->
+                incomeService.getIncome(callbackQuery, arguments.getLong(0)));
+        callbackRouter.route("INCOME_EDIT_{id}", (callbackQuery, arguments) ->
+                incomeService.editIncome(callbackQuery, arguments.getLong(0)));
+        callbackRouter.route("INCOME_DELETE_{id}", (callbackQuery, arguments) ->
+                askForIncomeToDelete(callbackQuery, arguments.getLong(0)));
+        callbackRouter.route("INCOME_BACK", (callbackQuery, arguments) ->
+                incomeService.incomeMenu(callbackQuery));
+        callbackRouter.route("INCOME", (callbackQuery, arguments) ->
+                incomeService.incomeMenu(callbackQuery));
     }
 }
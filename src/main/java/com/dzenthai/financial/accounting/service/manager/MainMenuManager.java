@@ -1,26 +1,36 @@
 package com.dzenthai.financial.accounting.service.manager;
 
+import com.dzenthai.financial.accounting.bot.ChatIds;
 import com.dzenthai.financial.accounting.bot.TelegramBot;
+import com.dzenthai.financial.accounting.bot.router.CallbackRouter;
+import com.dzenthai.financial.accounting.bot.sender.OutboundSender;
+import com.dzenthai.financial.accounting.listener.CallbackQueryListener;
 import com.dzenthai.financial.accounting.listener.CommandListener;
 import com.dzenthai.financial.accounting.service.builder.MessageBuilder;
 import com.dzenthai.financial.accounting.service.factory.MainMenuKeyboardFactory;
 import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
 import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 import org.telegram.telegrambots.meta.api.objects.Message;
 
 @Component
-public class MainMenuManager implements CommandListener {
+public class MainMenuManager implements CommandListener, CallbackQueryListener {
 
     private final MessageBuilder messageBuilder;
 
     private final MainMenuKeyboardFactory mainMenuKeyboardFactory;
 
+    private final OutboundSender outboundSender;
+
     public MainMenuManager(
             MessageBuilder messageBuilder,
-            MainMenuKeyboardFactory mainMenuKeyboardFactory
+            MainMenuKeyboardFactory mainMenuKeyboardFactory,
+            OutboundSender outboundSender
     ) {
         this.messageBuilder = messageBuilder;
         this.mainMenuKeyboardFactory = mainMenuKeyboardFactory;
+        this.outboundSender = outboundSender;
     }
 
     @Override
@@ -40,4 +50,28 @@ public class MainMenuManager implements CommandListener {
                 message,
                 mainMenuKeyboardFactory.mainMenuKeyboard());
     }
+
+    public BotApiMethod<?> expiredMenu(CallbackQuery callbackQuery) {
+        if (callbackQuery.getId() != null) {
+            outboundSender.send(ChatIds.of(callbackQuery), AnswerCallbackQuery.builder()
+                    .callbackQueryId(callbackQuery.getId())
+                    .text("Это меню устарело, откройте его заново")
+                    .build());
+        }
+        if (callbackQuery.getMessage() == null) {
+            return null;
+        }
+        return messageBuilder.buildMessage("""
+                        Это меню устарело. ⌛
+                        
+                        Выберите нужный раздел заново.
+                        """,
+                callbackQuery,
+                mainMenuKeyboardFactory.mainMenuKeyboard());
+    }
+
+    @Override
+    public void registerCallbackRoutes(CallbackRouter callbackRouter) {
+        callbackRouter.expired((callbackQuery, arguments) -> expiredMenu(callbackQuery));
+    }
 }
@@ -0,0 +1,110 @@
+package com.dzenthai.financial.accounting.bot;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+
+public final class FakeBotApiServer implements AutoCloseable {
+
+    public static final String TOKEN = "123456:test-token";
+
+    private static final String OK_TRUE = "{\"ok\":true,\"result\":true}";
+
+    private static final String OK_MESSAGE = """
+            {"ok":true,"result":{"message_id":1,"date":1700000000,"chat":{"id":42,"type":"private"},"text":"ok"}}""";
+
+    private final HttpServer server;
+
+    private final List<Request> requests = new CopyOnWriteArrayList<>();
+
+    private final BlockingQueue<Request> received = new LinkedBlockingQueue<>();
+
+    private final Map<String, Deque<Response>> scripted = new HashMap<>();
+
+    private FakeBotApiServer(HttpServer server) {
+        this.server = server;
+    }
+
+    public static FakeBotApiServer start() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        FakeBotApiServer fake = new FakeBotApiServer(server);
+        server.createContext("/", fake::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        return fake;
+    }
+
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/bot";
+    }
+
+    public synchronized void enqueue(String method, int status, String body) {
+        scripted.computeIfAbsent(method.toLowerCase(), key -> new ArrayDeque<>()).addLast(new Response(status, body));
+    }
+
+    public void enqueueTooManyRequests(String method, int retryAfterSeconds) {
+        enqueue(method, 429, """
+                {"ok":false,"error_code":429,"description":"Too Many Requests: retry after %d","parameters":{"retry_after":%d}}"""
+                .formatted(retryAfterSeconds, retryAfterSeconds));
+    }
+
+    public List<Request> getRequests() {
+        return List.copyOf(requests);
+    }
+
+    public Request awaitRequest(Duration timeout) throws InterruptedException {
+        return received.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String method = path.substring(path.lastIndexOf('/') + 1).toLowerCase();
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        Request request = new Request(method, body);
+        Response response = next(method);
+        byte[] payload = response.body().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(response.status(), payload.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(payload);
+        }
+        requests.add(request);
+        received.add(request);
+    }
+
+    private synchronized Response next(String method) {
+        Deque<Response> responses = scripted.get(method);
+        if (responses != null && !responses.isEmpty()) {
+            return responses.pollFirst();
+        }
+        return new Response(200, method.startsWith("send") ? OK_MESSAGE : OK_TRUE);
+    }
+
+    public record Request(String method, String body) {
+    }
+
+    private record Response(int status, String body) {
+    }
+}
@@ -0,0 +1,80 @@
+package com.dzenthai.financial.accounting.bot;
+
+import com.dzenthai.financial.accounting.bot.dispatcher.OrderedUpdateExecutor;
+import com.dzenthai.financial.accounting.bot.dispatcher.TelegramUpdateDispatcher;
+import com.dzenthai.financial.accounting.bot.sender.OutboundSender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Chat;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+@ExtendWith(MockitoExtension.class)
+class TelegramBotTest {
+
+    private static final long CHAT_ID = 42L;
+
+    @Mock
+    private TelegramUpdateDispatcher telegramUpdateDispatcher;
+
+    @Mock
+    private OrderedUpdateExecutor orderedUpdateExecutor;
+
+    @Mock
+    private OutboundSender outboundSender;
+
+    private TelegramBot telegramBot;
+
+    private Update update;
+
+    private SendMessage reply;
+
+    @BeforeEach
+    void setUp() {
+        telegramBot = new TelegramBot("123456:test-token", "https://api.telegram.org/bot", "direct",
+                telegramUpdateDispatcher, orderedUpdateExecutor, outboundSender);
+        Chat chat = new Chat();
+        chat.setId(CHAT_ID);
+        Message message = new Message();
+        message.setChat(chat);
+        message.setText("/start");
+        update = new Update();
+        update.setMessage(message);
+        reply = SendMessage.builder()
+                .chatId(CHAT_ID)
+                .text("Главное меню")
+                .build();
+        doReturn(reply).when(telegramUpdateDispatcher).distribute(update, telegramBot);
+    }
+
+    @Test
+    void repliesInResponseWhenSenderGrantsToken() {
+        when(outboundSender.tryAcquire(CHAT_ID)).thenReturn(true);
+
+        assertSame(reply, telegramBot.dispatchForResponse(update));
+
+        verify(outboundSender, never()).send(any(), any());
+    }
+
+    @Test
+    void queuesReplyWhenSenderHasNoToken() {
+        when(outboundSender.tryAcquire(CHAT_ID)).thenReturn(false);
+
+        assertNull(telegramBot.dispatchForResponse(update));
+
+        verify(outboundSender).send(CHAT_ID, reply);
+    }
+}
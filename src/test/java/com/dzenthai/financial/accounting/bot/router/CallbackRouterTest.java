@@ -0,0 +1,218 @@
+package com.dzenthai.financial.accounting.bot.router;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class CallbackRouterTest {
+
+    private enum Category {
+        FOOD,
+        HOUSING,
+        TRANSPORT
+    }
+
+    private enum Size {
+        SMALL,
+        LARGE
+    }
+
+    private final List<String> handled = new ArrayList<>();
+
+    private CallbackRouter router;
+
+    @BeforeEach
+    void setUp() {
+        router = router(true);
+    }
+
+    @Test
+    void compactDataRoutesToSameActionAndArguments() {
+        for (String data : List.of(
+                "EXPENSE_ADD",
+                "EXPENSE_GET_42",
+                "EXPENSE_CATEGORY_TRANSPORT_9007199254740993",
+                "EXPENSE_PAGE_1_1700000000000000_77")) {
+            String encoded = router.encode(data);
+
+            assertTrue(CompactCallbackCodec.isCompact(encoded), encoded);
+            router.route(callbackQuery(encoded));
+        }
+
+        assertEquals(List.of(
+                "add",
+                "get 42",
+                "category TRANSPORT 9007199254740993",
+                "page 1 1700000000000000 77"), handled);
+    }
+
+    @Test
+    void routeIdsDoNotDependOnOtherRoutes() {
+        CallbackRouter older = new CallbackRouter(new CallbackTokenStore(16), true);
+        older.route("EXPENSE_GET_{id}", (callbackQuery, arguments) -> {
+            handled.add("older get " + arguments.getLong(0));
+            return null;
+        });
+
+        String encoded = older.encode("EXPENSE_GET_42");
+        router.route(callbackQuery(encoded));
+
+        assertEquals(router.encode("EXPENSE_GET_42"), encoded);
+        assertEquals(List.of("get 42"), handled);
+    }
+
+    @Test
+    void dataForRemovedRouteGetsExpiredReply() {
+        CallbackRouter older = new CallbackRouter(new CallbackTokenStore(16), true);
+        older.route("EXPENSE_DELETE_{id}", (callbackQuery, arguments) -> {
+            handled.add("delete");
+            return null;
+        });
+
+        router.route(callbackQuery(older.encode("EXPENSE_DELETE_42")));
+
+        assertEquals(List.of("expired"), handled);
+    }
+
+    @Test
+    void dataForChangedEnumGetsExpiredReply() {
+        CallbackRouter older = new CallbackRouter(new CallbackTokenStore(16), true);
+        older.route("EXPENSE_CATEGORY_{enum}_{id}", (callbackQuery, arguments) -> {
+            handled.add("older category");
+            return null;
+        }, Size.class);
+
+        router.route(callbackQuery(older.encode("EXPENSE_CATEGORY_LARGE_3")));
+
+        assertEquals(List.of("expired"), handled);
+    }
+
+    @Test
+    void unknownTokenGetsExpiredReply() {
+        router.route(callbackQuery(CallbackTokenStore.PREFIX + "unknown"));
+        router.route(callbackQuery("~////"));
+
+        assertEquals(List.of("expired", "expired"), handled);
+    }
+
+    @Test
+    void plainDataIsKeptWhenCompactEncodingIsOff() {
+        CallbackRouter plain = router(false);
+
+        assertEquals("EXPENSE_GET_42", plain.encode("EXPENSE_GET_42"));
+        plain.route(callbackQuery("EXPENSE_GET_42"));
+
+        assertEquals(List.of("get 42"), handled);
+    }
+
+    @Test
+    void oversizedDataIsStoredBehindToken() {
+        String data = "EXPENSE_UNKNOWN_" + "X".repeat(64);
+
+        String encoded = router.encode(data);
+
+        assertTrue(CallbackTokenStore.isToken(encoded), encoded);
+        router.route(callbackQuery(encoded));
+        assertEquals(List.of("fallback"), handled);
+    }
+
+    @Test
+    void literalSegmentWinsOverIdAndEnum() {
+        router.route("EXPENSE_GET_ALL", (callbackQuery, arguments) -> {
+            handled.add("all");
+            return null;
+        });
+
+        router.route(callbackQuery("EXPENSE_GET_ALL"));
+        router.route(callbackQuery("EXPENSE_GET_7"));
+
+        assertEquals(List.of("all", "get 7"), handled);
+    }
+
+    @Test
+    void backtracksWhenDeeperSegmentsDoNotMatch() {
+        router.route("EXPENSE_{id}_NOTE", (callbackQuery, arguments) -> {
+            handled.add("note " + arguments.getLong(0));
+            return null;
+        });
+        router.route("EXPENSE_{enum}_NOTE", (callbackQuery, arguments) -> {
+            Category category = arguments.getEnum(0);
+            handled.add("category note " + category);
+            return null;
+        }, Category.class);
+
+        router.route(callbackQuery("EXPENSE_15_NOTE"));
+        router.route(callbackQuery("EXPENSE_HOUSING_NOTE"));
+        router.route(callbackQuery("EXPENSE_CATEGORY_FOOD_3"));
+
+        assertEquals(List.of("note 15", "category note HOUSING", "category FOOD 3"), handled);
+    }
+
+    @Test
+    void malformedSegmentsFallBackToPrefix() {
+        router.route(callbackQuery("EXPENSE_GET_12a"));
+        router.route(callbackQuery("EXPENSE_GET_1234567890123456789"));
+        router.route(callbackQuery("EXPENSE_CATEGORY_SPORT_1"));
+        router.route(callbackQuery("EXPENSE_GET_"));
+        router.route(callbackQuery("EXPENSE"));
+
+        assertEquals(List.of("fallback", "fallback", "fallback", "fallback", "fallback"), handled);
+    }
+
+    @Test
+    void unknownPrefixGetsExpiredReply() {
+        router.route(callbackQuery("INCOME_GET_1"));
+
+        assertEquals(List.of("expired"), handled);
+    }
+
+    @Test
+    void duplicateRoutesAreRejected() {
+        assertThrows(IllegalStateException.class,
+                () -> router.route("EXPENSE_GET_{id}", (callbackQuery, arguments) -> null));
+    }
+
+    private CallbackRouter router(boolean compact) {
+        CallbackRouter callbackRouter = new CallbackRouter(new CallbackTokenStore(16), compact);
+        callbackRouter.route("EXPENSE_ADD", (callbackQuery, arguments) -> {
+            handled.add("add");
+            return null;
+        });
+        callbackRouter.route("EXPENSE_GET_{id}", (callbackQuery, arguments) -> {
+            handled.add("get " + arguments.getLong(0));
+            return null;
+        });
+        callbackRouter.route("EXPENSE_CATEGORY_{enum}_{id}", (callbackQuery, arguments) -> {
+            Category category = arguments.getEnum(0);
+            handled.add("category " + category + " " + arguments.getLong(0));
+            return null;
+        }, Category.class);
+        callbackRouter.route("EXPENSE_PAGE_{id}_{id}_{id}", (callbackQuery, arguments) -> {
+            handled.add("page " + arguments.getLong(0) + " " + arguments.getLong(1) + " " + arguments.getLong(2));
+            return null;
+        });
+        callbackRouter.fallback("EXPENSE", (callbackQuery, arguments) -> {
+            handled.add("fallback");
+            return null;
+        });
+        callbackRouter.expired((callbackQuery, arguments) -> {
+            handled.add("expired");
+            return null;
+        });
+        return callbackRouter;
+    }
+
+    private static CallbackQuery callbackQuery(String data) {
+        CallbackQuery callbackQuery = new CallbackQuery();
+        callbackQuery.setData(data);
+        return callbackQuery;
+    }
+}
@@ -0,0 +1,72 @@
+package com.dzenthai.financial.accounting.bot.router;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class CompactCallbackCodecTest {
+
+    private static final long[] VALUES = {
+            0, 1, 127, 128, 300, 16_383, 16_384, 2_097_151, 2_097_152,
+            Integer.MAX_VALUE, 1L << 35, 9_007_199_254_740_993L, Long.MAX_VALUE
+    };
+
+    @Test
+    void varintsRoundTrip() {
+        CompactCallbackCodec.Writer writer = new CompactCallbackCodec.Writer();
+        for (long value : VALUES) {
+            writer.writeVarint(value);
+        }
+        String data = writer.finish();
+
+        CompactCallbackCodec.Reader reader = new CompactCallbackCodec.Reader(data);
+        for (long value : VALUES) {
+            assertEquals(value, reader.readVarint());
+        }
+        assertFalse(reader.hasRemaining());
+    }
+
+    @Test
+    void everyPrefixLengthRoundTrips() {
+        for (int count = 1; count <= 6; count++) {
+            CompactCallbackCodec.Writer writer = new CompactCallbackCodec.Writer();
+            for (int i = 0; i < count; i++) {
+                writer.writeVarint(i * 1_000L);
+            }
+            CompactCallbackCodec.Reader reader = new CompactCallbackCodec.Reader(writer.finish());
+            for (int i = 0; i < count; i++) {
+                assertEquals(i * 1_000L, reader.readVarint());
+            }
+            assertFalse(reader.hasRemaining());
+        }
+    }
+
+    @Test
+    void encodesToPrefixedBase64Url() {
+        String data = new CompactCallbackCodec.Writer().writeVarint(3).writeVarint(Long.MAX_VALUE).finish();
+
+        assertTrue(CompactCallbackCodec.isCompact(data));
+        assertTrue(data.substring(1).matches("[A-Za-z0-9_-]+"), data);
+        assertFalse(CompactCallbackCodec.isCompact("ACCOUNT_GET_1"));
+        assertFalse(CompactCallbackCodec.isCompact(""));
+    }
+
+    @Test
+    void rejectsTruncatedData() {
+        String data = new CompactCallbackCodec.Writer().writeVarint(Long.MAX_VALUE).finish();
+        CompactCallbackCodec.Reader reader = new CompactCallbackCodec.Reader(data.substring(0, data.length() - 3));
+
+        assertThrows(IllegalArgumentException.class, reader::readVarint);
+    }
+
+    @Test
+    void rejectsCharactersOutsideAlphabet() {
+        CompactCallbackCodec.Reader reader = new CompactCallbackCodec.Reader(CompactCallbackCodec.PREFIX + "A=");
+
+        assertThrows(IllegalArgumentException.class, reader::readVarint);
+    }
+}
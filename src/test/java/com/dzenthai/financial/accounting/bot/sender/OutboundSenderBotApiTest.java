@@ -0,0 +1,91 @@
+package com.dzenthai.financial.accounting.bot.sender;
+
+import com.dzenthai.financial.accounting.bot.FakeBotApiServer;
+import com.dzenthai.financial.accounting.bot.TelegramBot;
+import com.dzenthai.financial.accounting.bot.dispatcher.OrderedUpdateExecutor;
+import com.dzenthai.financial.accounting.bot.dispatcher.TelegramUpdateDispatcher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+
+@ExtendWith(MockitoExtension.class)
+class OutboundSenderBotApiTest {
+
+    private static final long CHAT_ID = 42L;
+
+    @Mock
+    private TelegramUpdateDispatcher telegramUpdateDispatcher;
+
+    @Mock
+    private OrderedUpdateExecutor orderedUpdateExecutor;
+
+    @Mock
+    private ObjectProvider<TelegramBot> telegramBotProvider;
+
+    private FakeBotApiServer botApi;
+
+    private OutboundSender outboundSender;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        botApi = FakeBotApiServer.start();
+        outboundSender = new OutboundSender(telegramBotProvider, 30, 1, 3, 100, 3, 1000);
+        TelegramBot telegramBot = new TelegramBot(FakeBotApiServer.TOKEN, botApi.getBaseUrl(), "direct",
+                telegramUpdateDispatcher, orderedUpdateExecutor, outboundSender);
+        when(telegramBotProvider.getObject()).thenReturn(telegramBot);
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboundSender.shutdown();
+        botApi.close();
+    }
+
+    @Test
+    void deliversQueuedMessageToBotApi() throws Exception {
+        assertTrue(outboundSender.send(CHAT_ID, message("Главное меню")));
+
+        FakeBotApiServer.Request request = botApi.awaitRequest(Duration.ofSeconds(5));
+        assertNotNull(request);
+        assertEquals("sendmessage", request.method());
+        assertTrue(request.body().contains("\"chat_id\":\"42\""), request.body());
+        assertTrue(request.body().contains("Главное меню"), request.body());
+    }
+
+    @Test
+    void retriesAfterTooManyRequests() throws Exception {
+        botApi.enqueueTooManyRequests("sendMessage", 1);
+
+        outboundSender.send(CHAT_ID, message("Отчет"));
+
+        FakeBotApiServer.Request rejected = botApi.awaitRequest(Duration.ofSeconds(5));
+        long rejectedAt = System.nanoTime();
+        FakeBotApiServer.Request retried = botApi.awaitRequest(Duration.ofSeconds(5));
+        assertNotNull(rejected);
+        assertNotNull(retried);
+        assertTrue(Duration.ofNanos(System.nanoTime() - rejectedAt).toMillis() >= 900);
+        assertEquals(2, botApi.getRequests().size());
+        assertEquals(0, outboundSender.getQueueSize());
+    }
+
+    private SendMessage message(String text) {
+        return SendMessage.builder()
+                .chatId(CHAT_ID)
+                .text(text)
+                .build();
+    }
+}
@@ -0,0 +1,168 @@
+package com.dzenthai.financial.accounting.bot.sender;
+
+import com.dzenthai.financial.accounting.bot.TelegramBot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+
+
+@ExtendWith(MockitoExtension.class)
+class OutboundSenderTest {
+
+    private static final long CHAT_ID = 42L;
+
+    private static final int MESSAGE_ID = 7;
+
+    @Mock
+    private ObjectProvider<TelegramBot> telegramBotProvider;
+
+    @Mock
+    private TelegramBot telegramBot;
+
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+
+    private final CountDownLatch sending = new CountDownLatch(1);
+
+    private CountDownLatch release = new CountDownLatch(0);
+
+    private CountDownLatch delivered;
+
+    private OutboundSender outboundSender;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        lenient().when(telegramBotProvider.getObject()).thenReturn(telegramBot);
+        lenient().doAnswer(invocation -> record(invocation.getArgument(0)))
+                .when(telegramBot).execute(any(SendMessage.class));
+        lenient().doAnswer(invocation -> record(invocation.getArgument(0)))
+                .when(telegramBot).execute(any(EditMessageText.class));
+        outboundSender = new OutboundSender(telegramBotProvider, 30, 30, 2, 100, 3, 5000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        outboundSender.shutdown();
+    }
+
+    @Test
+    void tryAcquireSpendsChatTokens() {
+        assertTrue(outboundSender.tryAcquire(CHAT_ID));
+        assertTrue(outboundSender.tryAcquire(CHAT_ID));
+        assertFalse(outboundSender.tryAcquire(CHAT_ID));
+        assertTrue(outboundSender.tryAcquire(CHAT_ID + 1));
+    }
+
+    @Test
+    void tryAcquireRefusesWithoutChatId() {
+        assertFalse(outboundSender.tryAcquire(null));
+    }
+
+    @Test
+    void tryAcquireRefusesWhileChatHasQueuedMessages() throws Exception {
+        holdFirstSend(1);
+
+        assertFalse(outboundSender.tryAcquire(CHAT_ID));
+    }
+
+    @Test
+    void coalescesEditThatIsLastInQueue() throws Exception {
+        holdFirstSend(2);
+
+        outboundSender.send(CHAT_ID, edit("draft"));
+        outboundSender.send(CHAT_ID, edit("final"));
+        release.countDown();
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("first", "edit:final"), sent);
+        assertEquals(1, outboundSender.getCoalescedCount());
+    }
+
+    @Test
+    void keepsMessageOrderWhenEditIsNotLast() throws Exception {
+        holdFirstSend(3);
+
+        outboundSender.send(CHAT_ID, edit("draft"));
+        outboundSender.send(CHAT_ID, message("second"));
+        outboundSender.send(CHAT_ID, edit("final"));
+        release.countDown();
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("first", "second", "edit:final"), sent);
+        assertEquals(1, outboundSender.getCoalescedCount());
+        assertEquals(0, outboundSender.getQueueSize());
+    }
+
+    @Test
+    void shutdownDeliversQueuedMessages() {
+        delivered = new CountDownLatch(3);
+
+        outboundSender.send(CHAT_ID, message("first"));
+        outboundSender.send(CHAT_ID, message("second"));
+        outboundSender.send(CHAT_ID, message("third"));
+        outboundSender.shutdown();
+
+        assertEquals(List.of("first", "second", "third"), sent);
+        assertEquals(0, outboundSender.getQueueSize());
+    }
+
+    @Test
+    void rejectsSendsAfterShutdown() {
+        outboundSender.shutdown();
+
+        assertFalse(outboundSender.send(CHAT_ID, message("late")));
+        assertFalse(outboundSender.tryAcquire(CHAT_ID));
+        assertEquals(1, outboundSender.getDroppedCount());
+    }
+
+    private void holdFirstSend(int expected) throws InterruptedException {
+        release = new CountDownLatch(1);
+        delivered = new CountDownLatch(expected);
+        outboundSender.send(CHAT_ID, message("first"));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+    }
+
+    private Object record(BotApiMethod<?> method) throws InterruptedException {
+        sending.countDown();
+        release.await();
+        sent.add(method instanceof EditMessageText edit ? "edit:" + edit.getText() : ((SendMessage) method).getText());
+        if (delivered != null) {
+            delivered.countDown();
+        }
+        return null;
+    }
+
+    private SendMessage message(String text) {
+        return SendMessage.builder()
+                .chatId(CHAT_ID)
+                .text(text)
+                .build();
+    }
+
+    private EditMessageText edit(String text) {
+        return EditMessageText.builder()
+                .chatId(CHAT_ID)
+                .messageId(MESSAGE_ID)
+                .text(text)
+                .build();
+    }
+}
@@ -0,0 +1,132 @@
+package com.dzenthai.financial.accounting.bot.webhook;
+
+import com.dzenthai.financial.accounting.bot.TelegramBot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+
+@ExtendWith(MockitoExtension.class)
+class TelegramWebhookControllerTest {
+
+    private static final String PATH = "/telegram/webhook";
+
+    private static final String SECRET = "s3cr3t";
+
+    private static final String SECRET_TOKEN_HEADER = "X-Telegram-Bot-Api-Secret-Token";
+
+    private static final String UPDATE = """
+            {
+              "update_id": 1,
+              "message": {
+                "message_id": 10,
+                "date": 1700000000,
+                "chat": {"id": 42, "type": "private"},
+                "text": "/start"
+              }
+            }
+            """;
+
+    @Mock
+    private TelegramBot telegramBot;
+
+    @Test
+    void rejectsUpdateWithoutSecretToken() throws Exception {
+        mockMvc(SECRET, false)
+                .perform(post(PATH).contentType(MediaType.APPLICATION_JSON).content(UPDATE))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(telegramBot);
+    }
+
+    @Test
+    void rejectsUpdateWithWrongSecretToken() throws Exception {
+        mockMvc(SECRET, false)
+                .perform(post(PATH)
+                        .header(SECRET_TOKEN_HEADER, "s3cr3u")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(UPDATE))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(telegramBot);
+    }
+
+    @Test
+    void acceptsAnyUpdateWhenSecretIsBlank() throws Exception {
+        mockMvc(" ", false)
+                .perform(post(PATH).contentType(MediaType.APPLICATION_JSON).content(UPDATE))
+                .andExpect(status().isOk());
+
+        verify(telegramBot).onUpdateReceived(any(Update.class));
+    }
+
+    @Test
+    void handsUpdateToBotWhenReplyInResponseIsDisabled() throws Exception {
+        mockMvc(SECRET, false)
+                .perform(post(PATH)
+                        .header(SECRET_TOKEN_HEADER, SECRET)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(UPDATE))
+                .andExpect(status().isOk())
+                .andExpect(content().string(""));
+
+        verify(telegramBot).onUpdateReceived(any(Update.class));
+    }
+
+    @Test
+    void returnsReplyMethodInResponseBody() throws Exception {
+        SendMessage reply = SendMessage.builder()
+                .chatId(42L)
+                .text("Главное меню")
+                .build();
+        doReturn(reply).when(telegramBot).dispatchForResponse(any(Update.class));
+
+        mockMvc(SECRET, true)
+                .perform(post(PATH)
+                        .header(SECRET_TOKEN_HEADER, SECRET)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(UPDATE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.method").value("sendmessage"))
+                .andExpect(jsonPath("$.chat_id").value("42"))
+                .andExpect(jsonPath("$.text").value("Главное меню"));
+    }
+
+    @Test
+    void returnsEmptyBodyWhenThereIsNoReply() throws Exception {
+        doReturn(null).when(telegramBot).dispatchForResponse(any(Update.class));
+
+        mockMvc(SECRET, true)
+                .perform(post(PATH)
+                        .header(SECRET_TOKEN_HEADER, SECRET)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(UPDATE))
+                .andExpect(status().isOk())
+                .andExpect(content().string(""));
+    }
+
+    private MockMvc mockMvc(String secret, boolean replyInResponse) {
+        return MockMvcBuilders
+                .standaloneSetup(new TelegramWebhookController(telegramBot, secret, replyInResponse))
+                .addPlaceholderValue("bot.webhook.path", PATH)
+                .defaultResponseCharacterEncoding(StandardCharsets.UTF_8)
+                .build();
+    }
+}
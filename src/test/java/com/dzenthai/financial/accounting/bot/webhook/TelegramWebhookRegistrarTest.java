@@ -0,0 +1,90 @@
+package com.dzenthai.financial.accounting.bot.webhook;
+
+import com.dzenthai.financial.accounting.bot.FakeBotApiServer;
+import com.dzenthai.financial.accounting.bot.TelegramBot;
+import com.dzenthai.financial.accounting.bot.dispatcher.OrderedUpdateExecutor;
+import com.dzenthai.financial.accounting.bot.dispatcher.TelegramUpdateDispatcher;
+import com.dzenthai.financial.accounting.bot.sender.OutboundSender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+@ExtendWith(MockitoExtension.class)
+class TelegramWebhookRegistrarTest {
+
+    private static final String WEBHOOK_URL = "https://bot.example.org/telegram/webhook";
+
+    @Mock
+    private TelegramUpdateDispatcher telegramUpdateDispatcher;
+
+    @Mock
+    private OrderedUpdateExecutor orderedUpdateExecutor;
+
+    @Mock
+    private OutboundSender outboundSender;
+
+    private FakeBotApiServer botApi;
+
+    private TelegramBot telegramBot;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        botApi = FakeBotApiServer.start();
+        telegramBot = new TelegramBot(FakeBotApiServer.TOKEN, botApi.getBaseUrl(), "direct",
+                telegramUpdateDispatcher, orderedUpdateExecutor, outboundSender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        botApi.close();
+    }
+
+    @Test
+    void registersWebhookWithSecretToken() throws Exception {
+        new TelegramWebhookRegistrar(telegramBot, WEBHOOK_URL, "s3cr3t", true).run(null);
+
+        FakeBotApiServer.Request request = botApi.awaitRequest(Duration.ofSeconds(5));
+        assertNotNull(request);
+        assertEquals("setwebhook", request.method());
+        assertTrue(request.body().contains(WEBHOOK_URL), request.body());
+        assertTrue(request.body().contains("s3cr3t"), request.body());
+    }
+
+    @Test
+    void registersWebhookWithoutBlankSecretToken() throws Exception {
+        new TelegramWebhookRegistrar(telegramBot, WEBHOOK_URL, "", true).run(null);
+
+        FakeBotApiServer.Request request = botApi.awaitRequest(Duration.ofSeconds(5));
+        assertNotNull(request);
+        assertFalse(request.body().contains("secret_token"), request.body());
+    }
+
+    @Test
+    void skipsRegistrationWhenDisabled() {
+        new TelegramWebhookRegistrar(telegramBot, WEBHOOK_URL, "s3cr3t", false).run(null);
+
+        assertTrue(botApi.getRequests().isEmpty());
+    }
+
+    @Test
+    void failsStartupWhenBotApiRejectsWebhook() {
+        botApi.enqueue("setWebhook", 400, "{\"ok\":false,\"error_code\":400,\"description\":\"Bad Request: bad webhook\"}");
+
+        TelegramWebhookRegistrar registrar = new TelegramWebhookRegistrar(telegramBot, WEBHOOK_URL, "", true);
+
+        assertThrows(RuntimeException.class, () -> registrar.run(null));
+    }
+}
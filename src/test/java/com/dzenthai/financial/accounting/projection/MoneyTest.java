@@ -0,0 +1,80 @@
+package com.dzenthai.financial.accounting.projection;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class MoneyTest {
+
+    @Test
+    void roundsToMinorUnitsHalfUp() {
+        assertEquals(101, Money.of(new BigDecimal("1.005")).minorUnits());
+        assertEquals(100, Money.of(new BigDecimal("1.004")).minorUnits());
+        assertEquals(-101, Money.of(new BigDecimal("-1.005")).minorUnits());
+        assertEquals(1200, Money.of(new BigDecimal("12")).minorUnits());
+        assertSame(Money.ZERO, Money.of(new BigDecimal("0.004")));
+    }
+
+    @Test
+    void exactConversionRejectsExtraPrecision() {
+        assertEquals(1250, Money.ofExact(new BigDecimal("12.5")).minorUnits());
+        assertEquals(-1, Money.ofExact(new BigDecimal("-0.01")).minorUnits());
+        assertThrows(ArithmeticException.class, () -> Money.ofExact(new BigDecimal("1.005")));
+        assertThrows(ArithmeticException.class, () -> Money.ofExact(new BigDecimal("1e18")));
+    }
+
+    @Test
+    void addsAndSubtractsWithOverflowChecks() {
+        Money a = Money.ofMinor(1999);
+        Money b = Money.ofMinor(2001);
+
+        assertEquals(Money.ofMinor(4000), a.plus(b));
+        assertEquals(Money.ofMinor(-2), a.minus(b));
+        assertSame(Money.ZERO, a.minus(a));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MIN_VALUE).minus(Money.ofMinor(1)));
+    }
+
+    @Test
+    void basisPointsAreRoundedToNearest() {
+        Money total = Money.ofMinor(300);
+
+        assertEquals(3333, Money.ofMinor(100).basisPointsOf(total));
+        assertEquals(6667, Money.ofMinor(200).basisPointsOf(total));
+        assertEquals(10000, total.basisPointsOf(total));
+        assertEquals(0, Money.ofMinor(100).basisPointsOf(Money.ZERO));
+    }
+
+    @Test
+    void convertsBackToScaledDecimal() {
+        assertEquals(new BigDecimal("12.50"), Money.ofMinor(1250).toBigDecimal());
+        assertEquals("-0.05", Money.ofMinor(-5).toString());
+        assertEquals("0.00", Money.ZERO.toString());
+    }
+
+    @Test
+    void comparesByMinorUnits() {
+        assertTrue(Money.ofMinor(-1).compareTo(Money.ZERO) < 0);
+        assertTrue(Money.ofMinor(-1).isNegative());
+        assertFalse(Money.ZERO.isNegative());
+        assertTrue(Money.ZERO.isZero());
+        assertEquals(0, Money.ofMinor(5).compareTo(Money.of(new BigDecimal("0.05"))));
+    }
+
+    @Test
+    void accountTotalsBalanceIsIncomesMinusExpenses() {
+        AccountTotals totals = new AccountTotals(Money.ofMinor(1000), Money.ofMinor(250))
+                .plus(new AccountTotals(Money.ofMinor(500), Money.ZERO));
+
+        assertEquals(Money.ofMinor(1250), totals.balance());
+        assertFalse(totals.isEmpty());
+        assertTrue(new AccountTotals(Money.ZERO, Money.ZERO).isEmpty());
+    }
+}
@@ -0,0 +1,127 @@
+package com.dzenthai.financial.accounting.repository;
+
+import com.dzenthai.financial.accounting.TestcontainersConfiguration;
+import com.dzenthai.financial.accounting.projection.CategoryTotal;
+import com.dzenthai.financial.accounting.service.cache.SecondLevelCacheConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TestcontainersConfiguration.class, SecondLevelCacheConfiguration.class})
+class CategoryTotalsQueryTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 10, 15, 12, 0);
+
+    private static final LocalDateTime SINCE = NOW.minusMonths(1);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ExpenseRepo expenseRepo;
+
+    @Autowired
+    private IncomeRepo incomeRepo;
+
+    private Long accountId;
+
+    private Long otherAccountId;
+
+    @BeforeEach
+    void setUp() {
+        Long userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (chat_id, action) VALUES (?, 'FREE') RETURNING id", Long.class, 8_000_000_001L);
+        accountId = insertAccount(userId, "Main");
+        otherAccountId = insertAccount(userId, "Other");
+    }
+
+    @Test
+    void expenseTotalsGroupByCategoryAndEndWithRollupRow() {
+        insert("expenses", accountId, "FOOD", "10.50", NOW.minusDays(1));
+        insert("expenses", accountId, "FOOD", "4.50", NOW.minusDays(2));
+        insert("expenses", accountId, "TRANSPORT", "20.00", NOW.minusDays(3));
+        insert("expenses", accountId, "FOOD", "100.00", SINCE.minusDays(1));
+        insert("expenses", accountId, "FOOD", null, NOW.minusDays(1));
+        insert("expenses", otherAccountId, "FOOD", "1000.00", NOW.minusDays(1));
+
+        List<CategoryTotal> totals = expenseRepo.findCategoryTotalsByAccountAndDatetimeAfter(accountId, SINCE);
+
+        assertEquals(3, totals.size());
+        assertCategory(totals.get(0), "FOOD", "15.00", 2, "4.50", "10.50");
+        assertCategory(totals.get(1), "TRANSPORT", "20.00", 1, "20.00", "20.00");
+        assertTotal(totals.get(2), "35.00", 3);
+    }
+
+    @Test
+    void incomeTotalsGroupByCategoryAndEndWithRollupRow() {
+        insert("incomes", accountId, "SALARY", "1500.00", NOW.minusDays(5));
+        insert("incomes", accountId, "SALARY2", "250.25", NOW.minusDays(6));
+        insert("incomes", accountId, "SALARY", "500.00", NOW.minusDays(7));
+
+        List<CategoryTotal> totals = incomeRepo.findCategoryTotalsByAccountAndDatetimeAfter(accountId, SINCE);
+
+        assertEquals(3, totals.size());
+        assertCategory(totals.get(0), "SALARY", "2000.00", 2, "500.00", "1500.00");
+        assertCategory(totals.get(1), "SALARY2", "250.25", 1, "250.25", "250.25");
+        assertTotal(totals.get(2), "2250.25", 3);
+    }
+
+    @Test
+    void emptyPeriodReturnsOnlyEmptyRollupRow() {
+        insert("expenses", accountId, "FOOD", "10.00", SINCE.minusDays(1));
+
+        List<CategoryTotal> totals = expenseRepo.findCategoryTotalsByAccountAndDatetimeAfter(accountId, SINCE);
+
+        assertEquals(1, totals.size());
+        assertTrue(totals.get(0).getTotal());
+        assertNull(totals.get(0).getAmount());
+        assertEquals(0L, totals.get(0).getCount());
+    }
+
+    private Long insertAccount(Long userId, String name) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO accounts (name, user_id) VALUES (?, ?) RETURNING id", Long.class, name, userId);
+    }
+
+    private void insert(String table, Long accountId, String category, String amount, LocalDateTime datetime) {
+        jdbcTemplate.update(
+                "INSERT INTO " + table + " (account_id, category, amount, datetime) VALUES (?, ?, ?, ?)",
+                accountId, category, amount != null ? new BigDecimal(amount) : null, datetime);
+    }
+
+    private void assertCategory(CategoryTotal row, String category, String sum, long count, String min, String max) {
+        assertFalse(row.getTotal());
+        assertEquals(category, row.getCategory());
+        assertAmount(sum, row.getAmount());
+        assertEquals(count, row.getCount());
+        assertAmount(min, row.getMinAmount());
+        assertAmount(max, row.getMaxAmount());
+    }
+
+    private void assertTotal(CategoryTotal row, String sum, long count) {
+        assertTrue(row.getTotal());
+        assertNull(row.getCategory());
+        assertAmount(sum, row.getAmount());
+        assertEquals(count, row.getCount());
+    }
+
+    private void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> expected + " != " + actual);
+    }
+}
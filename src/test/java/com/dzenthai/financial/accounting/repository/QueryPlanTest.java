@@ -0,0 +1,108 @@
+package com.dzenthai.financial.accounting.repository;
+
+import com.dzenthai.financial.accounting.TestcontainersConfiguration;
+import com.dzenthai.financial.accounting.service.cache.SecondLevelCacheConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TestcontainersConfiguration.class, SecondLevelCacheConfiguration.class})
+class QueryPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void disableSequentialScans() {
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"expenses", "incomes"})
+    void categoryReportUsesAccountDatetimeIndex(String table) {
+        String plan = explain("""
+                SELECT category, SUM(amount), GROUPING(category)
+                FROM %s
+                WHERE account_id = 1 AND datetime > now() - interval '1 month' AND amount IS NOT NULL
+                GROUP BY ROLLUP (category)
+                """.formatted(table));
+
+        assertUsesIndex(plan,
+                "idx_" + table + "_account_id_datetime_id",
+                "idx_" + table + "_account_id_category_datetime_id");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"expenses", "incomes"})
+    void keysetPageUsesAccountDatetimeIdIndex(String table) {
+        String plan = explain("""
+                SELECT id, category, amount, datetime
+                FROM %s
+                WHERE account_id = 1
+                  AND datetime > now() - interval '1 year'
+                  AND datetime <= now()
+                  AND (datetime < now() OR id < 100)
+                ORDER BY datetime DESC, id DESC
+                LIMIT 11
+                """.formatted(table));
+
+        assertUsesIndex(plan, "idx_" + table + "_account_id_datetime_id");
+        assertFalse(plan.contains("Sort"), plan);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"expenses, FOOD", "incomes, SALARY"})
+    void filteredKeysetPageUsesCategoryIndex(String table, String category) {
+        String plan = explain("""
+                SELECT id, category, amount, datetime
+                FROM %s
+                WHERE account_id = 1
+                  AND category = '%s'
+                  AND datetime > now() - interval '1 year'
+                ORDER BY datetime DESC, id DESC
+                LIMIT 11
+                """.formatted(table, category));
+
+        assertUsesIndex(plan, "idx_" + table + "_account_id_category_datetime_id");
+        assertFalse(plan.contains("Sort"), plan);
+    }
+
+    @Test
+    void limitExceededPageUsesPartialIndex() {
+        String plan = explain("""
+                SELECT id, category, amount, datetime
+                FROM expenses
+                WHERE account_id = 1 AND limit_exceeded
+                  AND datetime <= now()
+                  AND (datetime < now() OR id < 100)
+                ORDER BY datetime DESC, id DESC
+                LIMIT 11
+                """);
+
+        assertUsesIndex(plan, "idx_expenses_account_id_datetime_id_limit_exceeded");
+        assertFalse(plan.contains("Sort"), plan);
+    }
+
+    private String explain(String query) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + query, String.class));
+    }
+
+    private void assertUsesIndex(String plan, String... indexes) {
+        assertTrue(Arrays.stream(indexes).anyMatch(plan::contains), plan);
+    }
+}
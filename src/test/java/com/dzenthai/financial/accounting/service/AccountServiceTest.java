@@ -0,0 +1,139 @@
+package com.dzenthai.financial.accounting.service;
+
+import com.dzenthai.financial.accounting.entity.User;
+import com.dzenthai.financial.accounting.entity.enums.Action;
+import com.dzenthai.financial.accounting.projection.AccountTotals;
+import com.dzenthai.financial.accounting.projection.Money;
+import com.dzenthai.financial.accounting.repository.AccountRepo;
+import com.dzenthai.financial.accounting.service.analytics.AnalyticsStore;
+import com.dzenthai.financial.accounting.service.builder.MessageBuilder;
+import com.dzenthai.financial.accounting.service.cache.ScreenCache;
+import com.dzenthai.financial.accounting.service.factory.AccountKeyboardFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Chat;
+import org.telegram.telegrambots.meta.api.objects.Message;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+
+@ExtendWith(MockitoExtension.class)
+class AccountServiceTest {
+
+    private static final long CHAT_ID = 42L;
+
+    private static final long ACCOUNT_ID = 7L;
+
+    private static final String FORMAT_ERROR =
+            "Неверный формат периода. Пожалуйста, введите период в формате ДД.ММ.ГГГГ - ДД.ММ.ГГГГ.";
+
+    @Mock
+    private AccountKeyboardFactory accountKeyboardFactory;
+
+    @Mock
+    private AccountRepo accountRepo;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private AccountTotalsService accountTotalsService;
+
+    @Mock
+    private ScreenCache screenCache;
+
+    @Mock
+    private AnalyticsStore analyticsStore;
+
+    private AccountService accountService;
+
+    @BeforeEach
+    void setUp() {
+        accountService = new AccountService(
+                accountKeyboardFactory,
+                new MessageBuilder(),
+                accountRepo,
+                userService,
+                accountTotalsService,
+                screenCache,
+                analyticsStore);
+    }
+
+    @Test
+    void customPeriodSumsInclusiveRange() {
+        Message message = message("01.12.2023 - 31.01.2024");
+        when(accountTotalsService.getTotals(ACCOUNT_ID, LocalDate.of(2023, 12, 1), LocalDate.of(2024, 2, 1)))
+                .thenReturn(new AccountTotals(Money.ofMinor(150000), Money.ofMinor(50000)));
+
+        String text = reply(accountService.getCustomPeriod(message));
+
+        assertTrue(text.startsWith("🕒 За период 01.12.2023 - 31.01.2024:"), text);
+        assertTrue(text.contains("✨ Доходы: 1500.00"), text);
+        assertTrue(text.contains("💸 Расходы: 500.00"), text);
+        assertTrue(text.contains("💰 Баланс: 1000.00"), text);
+        verify(userService).updateUserAction(CHAT_ID, Action.FREE);
+    }
+
+    @Test
+    void customPeriodAcceptsSingleDay() {
+        Message message = message("29.02.2024");
+        when(accountTotalsService.getTotals(ACCOUNT_ID, LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 1)))
+                .thenReturn(new AccountTotals(Money.ZERO, Money.ofMinor(1250)));
+
+        String text = reply(accountService.getCustomPeriod(message));
+
+        assertTrue(text.startsWith("🕒 За период 29.02.2024 - 29.02.2024:"), text);
+        assertTrue(text.contains("💰 Баланс: -12.50"), text);
+    }
+
+    @Test
+    void customPeriodRejectsReversedRange() {
+        Message message = message("31.01.2024 - 01.01.2024");
+
+        String text = reply(accountService.getCustomPeriod(message));
+
+        assertEquals("Ошибка: дата окончания периода не может быть раньше даты начала.", text);
+        verifyNoInteractions(accountTotalsService);
+        verify(userService, never()).updateUserAction(any(), any());
+    }
+
+    @Test
+    void customPeriodRejectsMalformedDates() {
+        for (String period : new String[]{"2024-01-01 - 2024-01-31", "01.13.2024 - 02.13.2024", "январь", ""}) {
+            String text = reply(accountService.getCustomPeriod(message(period)));
+
+            assertEquals(FORMAT_ERROR, text, period);
+        }
+        verifyNoInteractions(accountTotalsService);
+        verify(userService, never()).updateUserAction(any(), any());
+    }
+
+    private Message message(String text) {
+        Message message = new Message();
+        message.setChat(new Chat(CHAT_ID, "private"));
+        message.setText(text);
+        User user = User.builder()
+                .chatId(CHAT_ID)
+                .currentAccountId(ACCOUNT_ID)
+                .action(Action.ACCOUNT_DATETIME_CUSTOM)
+                .build();
+        when(userService.findUserByBotApiObject(message)).thenReturn(user);
+        return message;
+    }
+
+    private static String reply(Object method) {
+        return ((SendMessage) method).getText();
+    }
+}
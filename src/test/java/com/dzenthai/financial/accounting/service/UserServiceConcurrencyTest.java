@@ -0,0 +1,79 @@
+package com.dzenthai.financial.accounting.service;
+
+import com.dzenthai.financial.accounting.TestcontainersConfiguration;
+import com.dzenthai.financial.accounting.entity.User;
+import com.dzenthai.financial.accounting.service.cache.DialogStateWriter;
+import com.dzenthai.financial.accounting.service.cache.SecondLevelCacheConfiguration;
+import com.dzenthai.financial.accounting.service.cache.UserSessionCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({
+        TestcontainersConfiguration.class,
+        SecondLevelCacheConfiguration.class,
+        UserService.class,
+        UserSessionCache.class,
+        DialogStateWriter.class
+})
+class UserServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    private static final long CHAT_ID = 7_000_000_001L;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentRegistrationOfOneChatCreatesSingleUser() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Set<Long> ids = new HashSet<>();
+        try {
+            List<Future<User>> futures = new ArrayList<>(THREADS);
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return userService.getOrRegisterUser(CHAT_ID);
+                }));
+            }
+            start.countDown();
+            for (Future<User> future : futures) {
+                ids.add(future.get(30, TimeUnit.SECONDS).getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE chat_id = ?", Integer.class, CHAT_ID);
+
+        assertEquals(1, rows);
+        assertEquals(1, ids.size());
+    }
+}
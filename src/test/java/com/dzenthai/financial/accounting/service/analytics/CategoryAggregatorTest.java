@@ -0,0 +1,144 @@
+package com.dzenthai.financial.accounting.service.analytics;
+
+import com.dzenthai.financial.accounting.projection.Money;
+import com.dzenthai.financial.accounting.service.analytics.CategoryAggregator.CategoryStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class CategoryAggregatorTest {
+
+    private enum Category {
+        FOOD,
+        HOUSING,
+        TRANSPORT,
+        OTHER
+    }
+
+    @Test
+    void collectsSumCountMinMaxPerCategoryInOrdinalOrder() {
+        CategoryAggregator<Category> aggregator = new CategoryAggregator<>(Category.class);
+        aggregator.add(Category.TRANSPORT, Money.ofMinor(300));
+        aggregator.add(Category.FOOD, Money.ofMinor(150));
+        aggregator.add(Category.TRANSPORT, Money.ofMinor(100));
+        aggregator.add(Category.FOOD, Money.ofMinor(450));
+
+        List<CategoryStats<Category>> stats = aggregator.getStats();
+
+        assertEquals(2, stats.size());
+        assertEquals(new CategoryStats<>(Category.FOOD, Money.ofMinor(600), 2,
+                Money.ofMinor(150), Money.ofMinor(450), 6000), stats.get(0));
+        assertEquals(new CategoryStats<>(Category.TRANSPORT, Money.ofMinor(400), 2,
+                Money.ofMinor(100), Money.ofMinor(300), 4000), stats.get(1));
+        assertEquals(Money.ofMinor(1000), aggregator.getTotal());
+        assertEquals(4, aggregator.getCount());
+    }
+
+    @Test
+    void combinesPreaggregatedRows() {
+        CategoryAggregator<Category> aggregator = new CategoryAggregator<>(Category.class);
+        aggregator.add(Category.HOUSING, Money.ofMinor(900), 3, Money.ofMinor(100), Money.ofMinor(500));
+        aggregator.add(Category.HOUSING, Money.ofMinor(50));
+
+        CategoryStats<Category> housing = aggregator.getStats().get(0);
+
+        assertEquals(Money.ofMinor(950), housing.sum());
+        assertEquals(4, housing.count());
+        assertEquals(Money.ofMinor(50), housing.min());
+        assertEquals(Money.ofMinor(500), housing.max());
+        assertEquals(10000, housing.shareBasisPoints());
+    }
+
+    @Test
+    void explicitTotalDrivesShares() {
+        CategoryAggregator<Category> aggregator = new CategoryAggregator<>(Category.class);
+        aggregator.add(Category.FOOD, Money.ofMinor(100));
+        aggregator.add(Category.OTHER, Money.ofMinor(200));
+        aggregator.setTotal(Money.ofMinor(400));
+
+        List<CategoryStats<Category>> stats = aggregator.getStats();
+
+        assertEquals(Money.ofMinor(400), aggregator.getTotal());
+        assertEquals(2500, stats.get(0).shareBasisPoints());
+        assertEquals(5000, stats.get(1).shareBasisPoints());
+    }
+
+    @Test
+    void mergeCombinesSumsCountsAndExtremes() {
+        CategoryAggregator<Category> first = new CategoryAggregator<>(Category.class);
+        first.add(Category.FOOD, Money.ofMinor(200));
+        first.add(Category.FOOD, Money.ofMinor(50));
+        CategoryAggregator<Category> second = new CategoryAggregator<>(Category.class);
+        second.add(Category.FOOD, Money.ofMinor(500));
+        second.add(Category.HOUSING, Money.ofMinor(250));
+
+        List<CategoryStats<Category>> stats = first.merge(second).getStats();
+
+        assertEquals(new CategoryStats<>(Category.FOOD, Money.ofMinor(750), 3,
+                Money.ofMinor(50), Money.ofMinor(500), 7500), stats.get(0));
+        assertEquals(new CategoryStats<>(Category.HOUSING, Money.ofMinor(250), 1,
+                Money.ofMinor(250), Money.ofMinor(250), 2500), stats.get(1));
+        assertEquals(Money.ofMinor(1000), first.getTotal());
+        assertEquals(4, first.getCount());
+        assertEquals(2, second.getCount());
+    }
+
+    @Test
+    void mergeKeepsExplicitTotals() {
+        CategoryAggregator<Category> first = new CategoryAggregator<>(Category.class);
+        first.add(Category.FOOD, Money.ofMinor(100));
+        first.setTotal(Money.ofMinor(300));
+        CategoryAggregator<Category> second = new CategoryAggregator<>(Category.class);
+        second.add(Category.OTHER, Money.ofMinor(100));
+
+        first.merge(second);
+
+        assertEquals(Money.ofMinor(400), first.getTotal());
+        assertEquals(2500, first.getStats().get(0).shareBasisPoints());
+        assertEquals(2500, first.getStats().get(1).shareBasisPoints());
+    }
+
+    @Test
+    void mergeIntoEmptyAggregatorTakesOtherTotal() {
+        CategoryAggregator<Category> first = new CategoryAggregator<>(Category.class);
+        CategoryAggregator<Category> second = new CategoryAggregator<>(Category.class);
+        second.add(Category.TRANSPORT, Money.ofMinor(100));
+        second.setTotal(Money.ofMinor(200));
+
+        first.merge(second);
+
+        assertEquals(Money.ofMinor(200), first.getTotal());
+        assertEquals(5000, first.getStats().get(0).shareBasisPoints());
+    }
+
+    @Test
+    void emptyAggregatorHasNoStats() {
+        CategoryAggregator<Category> aggregator = new CategoryAggregator<>(Category.class);
+
+        assertTrue(aggregator.isEmpty());
+        assertTrue(aggregator.getStats().isEmpty());
+        assertEquals(Money.ZERO, aggregator.getTotal());
+    }
+
+    @Test
+    void columnarScanFeedsOrdinals() {
+        TransactionColumns columns = new TransactionColumns(0);
+        columns.append(1, 10, 100, 250, Category.OTHER.ordinal());
+        columns.append(2, 10, 200, 750, Category.FOOD.ordinal());
+        columns.append(3, 11, 300, 999, Category.FOOD.ordinal());
+        columns.append(4, 10, 50, 999, Category.FOOD.ordinal());
+        CategoryAggregator<Category> aggregator = new CategoryAggregator<>(Category.class);
+
+        columns.aggregate(10, 99, aggregator);
+
+        List<CategoryStats<Category>> stats = aggregator.getStats();
+        assertEquals(Category.FOOD, stats.get(0).category());
+        assertEquals(7500, stats.get(0).shareBasisPoints());
+        assertEquals(Category.OTHER, stats.get(1).category());
+        assertEquals(2500, stats.get(1).shareBasisPoints());
+    }
+}
@@ -0,0 +1,97 @@
+package com.dzenthai.financial.accounting.service.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+class DailyTotalsIndexTest {
+
+    @Test
+    void sumsRangeAcrossMonthBoundary() {
+        DailyTotalsIndex index = new DailyTotalsIndex(day(2024, 1, 30), 4);
+        index.set(day(2024, 1, 30), 100, 10);
+        index.set(day(2024, 1, 31), 200, 20);
+        index.set(day(2024, 2, 1), 300, 30);
+        index.set(day(2024, 2, 2), 400, 40);
+
+        assertEquals(500, index.sumIncomes(day(2024, 1, 31), day(2024, 2, 2)));
+        assertEquals(50, index.sumExpenses(day(2024, 1, 31), day(2024, 2, 2)));
+        assertEquals(700, index.sumIncomes(day(2024, 2, 1), day(2024, 3, 1)));
+    }
+
+    @Test
+    void sumsRangeAcrossYearBoundaryWhenEarlierDayIsAddedLater() {
+        DailyTotalsIndex index = new DailyTotalsIndex(day(2024, 1, 1), 1);
+        index.set(day(2024, 1, 1), 100, 1);
+        index.set(day(2024, 1, 2), 200, 2);
+        index.set(day(2023, 12, 31), 50, 5);
+
+        assertEquals(150, index.sumIncomes(day(2023, 12, 31), day(2024, 1, 2)));
+        assertEquals(8, index.sumExpenses(day(2023, 1, 1), day(2025, 1, 1)));
+        assertEquals(50, index.sumIncomes(day(2023, 12, 1), day(2024, 1, 1)));
+    }
+
+    @Test
+    void updateReplacesDayTotals() {
+        DailyTotalsIndex index = new DailyTotalsIndex(day(2024, 3, 1), 31);
+        index.set(day(2024, 3, 10), 100, 40);
+        index.set(day(2024, 3, 20), 300, 60);
+
+        index.set(day(2024, 3, 10), 150, 0);
+
+        assertEquals(450, index.sumIncomes(day(2024, 3, 1), day(2024, 4, 1)));
+        assertEquals(60, index.sumExpenses(day(2024, 3, 1), day(2024, 4, 1)));
+        assertEquals(150, index.sumIncomes(day(2024, 3, 10), day(2024, 3, 11)));
+    }
+
+    @Test
+    void growsPastInitialCapacity() {
+        DailyTotalsIndex index = new DailyTotalsIndex(day(2024, 1, 1), 1);
+        index.set(day(2024, 1, 1), 1, 0);
+        index.set(day(2024, 12, 31), 2, 0);
+        index.set(day(2026, 6, 15), 4, 0);
+
+        assertEquals(7, index.sumIncomes(day(2024, 1, 1), day(2027, 1, 1)));
+        assertEquals(6, index.sumIncomes(day(2024, 12, 31), day(2026, 6, 16)));
+        assertEquals(2, index.sumIncomes(day(2024, 2, 1), day(2026, 6, 15)));
+    }
+
+    @Test
+    void emptyOrReversedRangeSumsToZero() {
+        DailyTotalsIndex index = new DailyTotalsIndex(day(2024, 1, 1), 31);
+        index.set(day(2024, 1, 5), 100, 100);
+
+        assertEquals(0, index.sumIncomes(day(2024, 1, 5), day(2024, 1, 5)));
+        assertEquals(0, index.sumIncomes(day(2024, 1, 10), day(2024, 1, 1)));
+        assertEquals(0, index.sumExpenses(day(2025, 1, 1), day(2025, 2, 1)));
+        assertEquals(0, index.sumExpenses(day(2023, 1, 1), day(2023, 12, 31)));
+    }
+
+    @Test
+    void matchesBruteForceSums() {
+        long origin = day(2023, 11, 15);
+        long[] incomes = new long[120];
+        DailyTotalsIndex index = new DailyTotalsIndex(origin + 60, 8);
+        for (int i = 0; i < 400; i++) {
+            int offset = (i * 37 + 11) % incomes.length;
+            incomes[offset] = i * 13L % 1000;
+            index.set(origin + offset, incomes[offset], 0);
+        }
+        for (int from = 0; from <= incomes.length; from += 7) {
+            for (int to = from; to <= incomes.length; to += 5) {
+                long expected = 0;
+                for (int i = from; i < to; i++) {
+                    expected += incomes[i];
+                }
+                assertEquals(expected, index.sumIncomes(origin + from, origin + to));
+            }
+        }
+    }
+
+    private static long day(int year, int month, int dayOfMonth) {
+        return LocalDate.of(year, month, dayOfMonth).toEpochDay();
+    }
+}
@@ -0,0 +1,87 @@
+package com.dzenthai.financial.accounting.service.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+class TransactionColumnsTest {
+
+    @Test
+    void putUpdatesExistingRowsById() {
+        TransactionColumns columns = new TransactionColumns(0);
+        columns.put(1, 10, 100, 500, 0);
+        columns.put(2, 10, 200, 700, 1);
+        columns.put(1, 10, 100, 300, 0);
+
+        columns.updateAmount(2, 900);
+        columns.updateAmount(3, 1_000_000);
+
+        assertEquals(2, columns.size());
+        assertEquals(1200, columns.sum(10, Long.MIN_VALUE));
+        assertEquals(900, columns.sum(10, 100));
+    }
+
+    @Test
+    void removeKeepsIndexOfMovedRow() {
+        TransactionColumns columns = new TransactionColumns(0);
+        for (long id = 1; id <= 5; id++) {
+            columns.append(id, 10, id, id * 100, 0);
+        }
+
+        columns.remove(2);
+        columns.updateAmount(5, 50);
+        columns.remove(2);
+
+        assertEquals(4, columns.size());
+        assertEquals(100 + 300 + 400 + 50, columns.sum(10, Long.MIN_VALUE));
+    }
+
+    @Test
+    void removeAccountDropsOnlyItsRows() {
+        TransactionColumns columns = new TransactionColumns(0);
+        for (long id = 1; id <= 40; id++) {
+            columns.append(id, id % 2 == 0 ? 20 : 30, id, 10, 0);
+        }
+
+        columns.removeAccount(20);
+        columns.updateAmount(39, 1000);
+
+        assertEquals(20, columns.size());
+        assertEquals(0, columns.sum(20, Long.MIN_VALUE));
+        assertEquals(19 * 10 + 1000, columns.sum(30, Long.MIN_VALUE));
+    }
+
+    @Test
+    void matchesMapUnderRandomChanges() {
+        Random random = new Random(42);
+        TransactionColumns columns = new TransactionColumns(0);
+        Map<Long, Long> expected = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            long id = random.nextInt(2_000) * 7919L;
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    long amount = random.nextInt(10_000);
+                    columns.put(id, 1, i, amount, 0);
+                    expected.put(id, amount);
+                }
+                case 1 -> {
+                    long amount = random.nextInt(10_000);
+                    columns.updateAmount(id, amount);
+                    expected.computeIfPresent(id, (key, value) -> amount);
+                }
+                default -> {
+                    columns.remove(id);
+                    expected.remove(id);
+                }
+            }
+        }
+
+        assertEquals(expected.size(), columns.size());
+        assertEquals(expected.values().stream().mapToLong(Long::longValue).sum(), columns.sum(1, Long.MIN_VALUE));
+    }
+}
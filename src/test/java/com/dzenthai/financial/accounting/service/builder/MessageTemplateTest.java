@@ -0,0 +1,78 @@
+package com.dzenthai.financial.accounting.service.builder;
+
+import com.dzenthai.financial.accounting.projection.Money;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+class MessageTemplateTest {
+
+    @Test
+    void rendersArgumentsBetweenLiterals() {
+        MessageTemplate template = MessageTemplate.compile("Категория: {}\nСумма: {}\nПроцент: {}%\nКоличество: {}");
+
+        String text = template.render()
+                .text("Еда")
+                .money(Money.ofMinor(123456))
+                .percent(2550)
+                .number(7)
+                .end()
+                .toString();
+
+        assertEquals("Категория: Еда\nСумма: 1234.56\nПроцент: 25.50%\nКоличество: 7", text);
+    }
+
+    @Test
+    void padsFractionAndKeepsSignOfSmallAmounts() {
+        MessageTemplate template = MessageTemplate.compile("{} {} {}");
+
+        String text = template.render()
+                .money(Money.ofMinor(5))
+                .money(Money.ofMinor(-5))
+                .percent(10000)
+                .end()
+                .toString();
+
+        assertEquals("0.05 -0.05 100.00", text);
+    }
+
+    @Test
+    void appendsToExistingBuilder() {
+        MessageTemplate template = MessageTemplate.compile("[{}]");
+        StringBuilder target = new StringBuilder("a");
+
+        template.appendTo(target).number(1).end();
+        template.appendTo(target).number(2).end();
+
+        assertEquals("a[1][2]", target.toString());
+    }
+
+    @Test
+    void nestedRendersDoNotShareBuffers() {
+        MessageTemplate outer = MessageTemplate.compile("<{}>");
+        MessageTemplate inner = MessageTemplate.compile("({})");
+
+        MessageTemplate.Writer writer = outer.render();
+        String nested = inner.render().number(1).end().toString();
+
+        assertEquals("<(1)>", writer.text(nested).end().toString());
+    }
+
+    @Test
+    void templateWithoutPlaceholdersRendersLiteral() {
+        MessageTemplate template = MessageTemplate.compile("Меню");
+
+        assertEquals(0, template.getArity());
+        assertEquals("Меню", template.render().end().toString());
+    }
+
+    @Test
+    void rejectsWrongNumberOfArguments() {
+        MessageTemplate template = MessageTemplate.compile("{} / {}");
+
+        assertThrows(IllegalStateException.class, () -> template.render().number(1).end());
+        assertThrows(IllegalStateException.class, () -> template.render().number(1).number(2).number(3));
+    }
+}
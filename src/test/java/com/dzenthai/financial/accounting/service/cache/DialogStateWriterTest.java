@@ -0,0 +1,91 @@
+package com.dzenthai.financial.accounting.service.cache;
+
+import com.dzenthai.financial.accounting.entity.User;
+import com.dzenthai.financial.accounting.entity.enums.Action;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+
+@ExtendWith(MockitoExtension.class)
+class DialogStateWriterTest {
+
+    private static final long CHAT_ID = 42L;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private DialogStateWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = new DialogStateWriter(jdbcTemplate, true, Long.MAX_VALUE);
+    }
+
+    @Test
+    void successfulFlushClearsPendingState() {
+        writer.write(user(Action.ACCOUNT_ADD));
+
+        writer.flush();
+
+        assertNull(writer.getPending(CHAT_ID));
+    }
+
+    @Test
+    void failedFlushKeepsPendingState() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any()))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+        writer.write(user(Action.ACCOUNT_ADD));
+
+        writer.flush();
+
+        assertEquals(Action.ACCOUNT_ADD, writer.getPending(CHAT_ID).getAction());
+    }
+
+    @Test
+    void stateIsReadableWhileFlushIsInFlight() {
+        User[] seen = new User[1];
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any())).thenAnswer(invocation -> {
+            seen[0] = writer.getPending(CHAT_ID);
+            return new int[0][];
+        });
+        writer.write(user(Action.ACCOUNT_ADD));
+
+        writer.flush();
+
+        assertEquals(Action.ACCOUNT_ADD, seen[0].getAction());
+    }
+
+    @Test
+    void writeDuringFlushIsNotLost() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any())).thenAnswer(invocation -> {
+            writer.write(user(Action.ACCOUNT_DELETE));
+            return new int[0][];
+        });
+        writer.write(user(Action.ACCOUNT_ADD));
+
+        writer.flush();
+
+        assertEquals(Action.ACCOUNT_DELETE, writer.getPending(CHAT_ID).getAction());
+    }
+
+    private User user(Action action) {
+        return User.builder()
+                .id(1L)
+                .chatId(CHAT_ID)
+                .action(action)
+                .build();
+    }
+}
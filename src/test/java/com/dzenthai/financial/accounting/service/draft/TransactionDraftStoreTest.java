@@ -0,0 +1,84 @@
+package com.dzenthai.financial.accounting.service.draft;
+
+import com.dzenthai.financial.accounting.entity.enums.ExpenseCategory;
+import com.dzenthai.financial.accounting.entity.enums.IncomeCategory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+
+class TransactionDraftStoreTest {
+
+    private static final long CHAT_ID = 42L;
+
+    private TransactionDraftStore store;
+
+    private TransactionDraft<ExpenseCategory> draft;
+
+    @BeforeEach
+    void setUp() {
+        store = new TransactionDraftStore(600);
+        draft = new TransactionDraft<>(ExpenseCategory.class, 1L, new BigDecimal("10.00"));
+        store.put(CHAT_ID, draft);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void getKeepsDraft() {
+        assertSame(draft, store.get(CHAT_ID, ExpenseCategory.class));
+        assertSame(draft, store.get(CHAT_ID, ExpenseCategory.class));
+        assertNull(store.get(CHAT_ID, IncomeCategory.class));
+    }
+
+    @Test
+    void removeWithoutTransactionIsImmediate() {
+        store.removeAfterCommit(CHAT_ID, draft);
+
+        assertNull(store.get(CHAT_ID, ExpenseCategory.class));
+    }
+
+    @Test
+    void removeWaitsForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        store.removeAfterCommit(CHAT_ID, draft);
+        assertSame(draft, store.get(CHAT_ID, ExpenseCategory.class));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertNull(store.get(CHAT_ID, ExpenseCategory.class));
+    }
+
+    @Test
+    void rollbackKeepsDraft() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        store.removeAfterCommit(CHAT_ID, draft);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertSame(draft, store.get(CHAT_ID, ExpenseCategory.class));
+    }
+
+    @Test
+    void removeKeepsNewerDraft() {
+        TransactionDraft<ExpenseCategory> newer = new TransactionDraft<>(ExpenseCategory.class, 1L, BigDecimal.ONE);
+        store.put(CHAT_ID, newer);
+
+        store.removeAfterCommit(CHAT_ID, draft);
+
+        assertSame(newer, store.get(CHAT_ID, ExpenseCategory.class));
+    }
+}
@@ -0,0 +1,117 @@
+package com.dzenthai.financial.accounting.service.factory;
+
+import com.dzenthai.financial.accounting.bot.router.CallbackRouter;
+import com.dzenthai.financial.accounting.bot.router.CallbackTokenStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+class KeyboardTemplateTest {
+
+    private static final List<String> TEXT = List.of("Изменить", "Удалить", "Назад");
+
+    private static final List<Integer> CONFIGURATION = List.of(2, 1);
+
+    private static final List<String> STATIC_DATA = List.of("EXPENSE_EDIT", "EXPENSE_DELETE", "EXPENSE_BACK");
+
+    private static final List<String> ID_DATA = List.of(
+            "EXPENSE_EDIT_" + KeyboardTemplate.ID,
+            "EXPENSE_DELETE_" + KeyboardTemplate.ID,
+            "EXPENSE_BACK");
+
+    private KeyboardFactory keyboardFactory;
+
+    @BeforeEach
+    void setUp() {
+        keyboardFactory = new KeyboardFactory(new CallbackRouter(new CallbackTokenStore(16), false));
+    }
+
+    @Test
+    void staticTemplateMatchesFreshlyBuiltKeyboard() {
+        InlineKeyboardMarkup expected = keyboardFactory.createInlineKeyboard(TEXT, CONFIGURATION, STATIC_DATA);
+
+        InlineKeyboardMarkup actual = keyboardFactory
+                .createInlineKeyboardTemplate(TEXT, CONFIGURATION, STATIC_DATA)
+                .render();
+
+        assertEquals(describe(expected), describe(actual));
+    }
+
+    @Test
+    void staticTemplateIsBuiltOnce() {
+        KeyboardTemplate template = keyboardFactory.createInlineKeyboardTemplate(TEXT, CONFIGURATION, STATIC_DATA);
+
+        assertSame(template.render(), template.render());
+        assertSame(template.render(), template.render(42L));
+    }
+
+    @Test
+    void staticRowsAreUnmodifiable() {
+        List<List<InlineKeyboardButton>> keyboard = keyboardFactory
+                .createInlineKeyboardTemplate(TEXT, CONFIGURATION, STATIC_DATA)
+                .render()
+                .getKeyboard();
+
+        assertThrows(UnsupportedOperationException.class, () -> keyboard.get(1).add(new InlineKeyboardButton()));
+        assertThrows(UnsupportedOperationException.class, () -> keyboard.remove(0));
+    }
+
+    @Test
+    void idTemplatePatchesOnlyIdBearingButtons() {
+        KeyboardTemplate template = keyboardFactory.createInlineKeyboardTemplate(TEXT, CONFIGURATION, ID_DATA);
+
+        InlineKeyboardMarkup first = template.render(7L);
+        InlineKeyboardMarkup second = template.render(9007199254740993L);
+
+        assertEquals(List.of(
+                List.of("Изменить:EXPENSE_EDIT_7", "Удалить:EXPENSE_DELETE_7"),
+                List.of("Назад:EXPENSE_BACK")), describe(first));
+        assertEquals(List.of(
+                List.of("Изменить:EXPENSE_EDIT_9007199254740993", "Удалить:EXPENSE_DELETE_9007199254740993"),
+                List.of("Назад:EXPENSE_BACK")), describe(second));
+        assertSame(first.getKeyboard().get(1), second.getKeyboard().get(1));
+    }
+
+    @Test
+    void idTemplateMatchesFreshlyBuiltKeyboard() {
+        List<String> data = ID_DATA.stream()
+                .map(value -> value.replace(KeyboardTemplate.ID, "15"))
+                .toList();
+        InlineKeyboardMarkup expected = keyboardFactory.createInlineKeyboard(TEXT, CONFIGURATION, data);
+
+        InlineKeyboardMarkup actual = keyboardFactory
+                .createInlineKeyboardTemplate(TEXT, CONFIGURATION, ID_DATA)
+                .render(15L);
+
+        assertEquals(describe(expected), describe(actual));
+    }
+
+    @Test
+    void idTemplateRequiresId() {
+        KeyboardTemplate template = keyboardFactory.createInlineKeyboardTemplate(TEXT, CONFIGURATION, ID_DATA);
+
+        assertThrows(IllegalStateException.class, template::render);
+    }
+
+    @Test
+    void rejectsMismatchedConfiguration() {
+        assertThrows(IllegalArgumentException.class,
+                () -> keyboardFactory.createInlineKeyboardTemplate(TEXT, List.of(1, 1), STATIC_DATA));
+    }
+
+    private List<List<String>> describe(InlineKeyboardMarkup markup) {
+        return markup.getKeyboard().stream()
+                .map(row -> row.stream()
+                        .map(button -> button.getText() + ":" + button.getCallbackData())
+                        .toList())
+                .toList();
+    }
+}